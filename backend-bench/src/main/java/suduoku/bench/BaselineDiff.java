@@ -0,0 +1,124 @@
+package suduoku.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * Compares a JMH JSON result file against the committed baseline, benchmark by benchmark.
+ * Prints the score and allocation per operation of both runs and flags every benchmark whose score
+ * got worse by more than the threshold (higher time, or lower throughput). Exits with status 1 if
+ * any did, so the comparison can guard a change.
+ * <p>
+ * Usage: {@code BaselineDiff <baseline.json> <results.json> [thresholdPercent]}, threshold 10 by default.
+ */
+public class BaselineDiff {
+    private static final String ALLOCATION = "gc.alloc.rate.norm";
+
+    private record Result(String mode, double score, String unit, double bytesPerOp) {
+        /**
+         * Relative change of another result from this one, positive when it is slower.
+         */
+        double regression(Result current) {
+            double change = (current.score - score) / score;
+            return mode.equals("thrpt") ? -change : change;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BaselineDiff <baseline.json> <results.json> [thresholdPercent]");
+            System.exit(2);
+        }
+        JSONArray baselineRuns = parse(Path.of(args[0]));
+        JSONArray currentRuns = parse(Path.of(args[1]));
+        Map<String, Result> baseline = read(baselineRuns);
+        Map<String, Result> current = read(currentRuns);
+        double threshold = (args.length > 2 ? Double.parseDouble(args[2]) : 10) / 100;
+
+        String baselineJdk = jdkVersion(baselineRuns);
+        String currentJdk = jdkVersion(currentRuns);
+        if (!baselineJdk.equals(currentJdk)) {
+            System.out.printf("WARNING: the baseline ran on JDK %s and the results on JDK %s; "
+                    + "scores are not comparable across JDKs%n", baselineJdk, currentJdk);
+        }
+
+        int regressions = 0;
+        System.out.printf("%-60s %14s %14s %9s %12s %12s%n", "benchmark", "baseline", "current", "change", "base B/op",
+                "cur B/op");
+        for (Map.Entry<String, Result> entry : new TreeMap<>(current).entrySet()) {
+            Result now = entry.getValue();
+            Result before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("%-60s %14s %14.1f %9s %12s %12s%n", entry.getKey(), "-", now.score(), "new", "-",
+                        bytes(now));
+                continue;
+            }
+            double regression = before.regression(now);
+            boolean worse = regression > threshold;
+            if (worse) {
+                regressions++;
+            }
+            System.out.printf("%-60s %14.1f %14.1f %+8.1f%% %12s %12s%s%n", entry.getKey(), before.score(), now.score(),
+                    (0.0 - regression) * 100, bytes(before), bytes(now), worse ? "  REGRESSED" : "");
+        }
+        for (String name : baseline.keySet()) {
+            if (!current.containsKey(name)) {
+                System.out.printf("%-60s missing from %s%n", name, args[1]);
+            }
+        }
+
+        System.out.printf("%d benchmarks, %d regressed by more than %.0f%% (change is positive when faster)%n",
+                current.size(), regressions, threshold * 100);
+        if (regressions > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static JSONArray parse(Path path) throws IOException {
+        return new JSONArray(Files.readString(path));
+    }
+
+    /**
+     * The JDK the runs of a result file were measured on, or "unknown" if it is empty.
+     */
+    private static String jdkVersion(JSONArray runs) {
+        return runs.isEmpty() ? "unknown" : runs.getJSONObject(0).optString("jdkVersion", "unknown");
+    }
+
+    /**
+     * Reads the runs of a {@code -rf json} result file, keyed by benchmark name and parameters.
+     */
+    private static Map<String, Result> read(JSONArray runs) {
+        Map<String, Result> results = new LinkedHashMap<>();
+        for (int i = 0; i < runs.length(); i++) {
+            JSONObject run = runs.getJSONObject(i);
+            String name = run.getString("benchmark").replace("suduoku.bench.", "");
+            JSONObject params = run.optJSONObject("params");
+            if (params != null) {
+                StringBuilder key = new StringBuilder(name);
+                for (String param : new TreeMap<>(params.toMap()).keySet()) {
+                    key.append(' ').append(param).append('=').append(params.get(param));
+                }
+                name = key.toString();
+            }
+
+            JSONObject primary = run.getJSONObject("primaryMetric");
+            JSONObject secondary = run.optJSONObject("secondaryMetrics");
+            JSONObject allocation = secondary == null ? null : secondary.optJSONObject(ALLOCATION);
+            results.put(name, new Result(run.getString("mode"), primary.getDouble("score"),
+                    primary.getString("scoreUnit"), allocation == null ? Double.NaN : allocation.getDouble("score")));
+        }
+        return results;
+    }
+
+    private static String bytes(Result result) {
+        return Double.isNaN(result.bytesPerOp()) ? "-" : String.format("%.0f", result.bytesPerOp());
+    }
+}
@@ -0,0 +1,110 @@
+package suduoku.bench;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import suduoku.Board.BitBoard;
+import suduoku.Board.BoardSerializer;
+import suduoku.Board.CandidatesSerializer;
+import suduoku.Board.SudokuBoard;
+
+/**
+ * Per-call cost of the board paths every edit or join goes through: SDX and candidate
+ * (de)serialization when a board is loaded or written, the full-board JSON and binary frames sent
+ * on join and reset, and the solved and incorrect-cell checks. Run with {@code -prof gc} to see
+ * allocation per call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+    private BoardFixture fixture;
+    private SudokuBoard board;
+    private BitBoard bitBoard;
+    private BitBoard scratch;
+    private final byte[] packed = new byte[CandidatesSerializer.PACKED_SIZE];
+
+    @Setup
+    public void setUp() throws IOException, SQLException {
+        fixture = new BoardFixture();
+        board = fixture.load();
+        bitBoard = BoardFixture.withCandidates(BoardFixture.SDX);
+        scratch = BoardSerializer.convertSDXToBoard(BoardFixture.SDX);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        fixture.close();
+    }
+
+    @Benchmark
+    public BitBoard sdxToBoard() {
+        return BoardSerializer.convertSDXToBoard(BoardFixture.SDX);
+    }
+
+    @Benchmark
+    public String boardToSdx() {
+        return BoardSerializer.convertBoardToSDX(bitBoard);
+    }
+
+    @Benchmark
+    public BitBoard candidatesRoundTrip() {
+        CandidatesSerializer.convertBoardToCandidatesBlob(bitBoard, packed);
+        CandidatesSerializer.convertCandidatesBlobToBoard(packed, scratch);
+        return scratch;
+    }
+
+    /**
+     * The legacy text format, still read when migrating old rows.
+     */
+    @Benchmark
+    public BitBoard candidatesTextRoundTrip() {
+        String candidates = CandidatesSerializer.convertBoardToCandidatesString(bitBoard);
+        CandidatesSerializer.convertCandidatesStringToBoard(candidates, scratch);
+        return scratch;
+    }
+
+    /**
+     * The JSON board frame as the server sends it, serialized to text.
+     */
+    @Benchmark
+    public String boardJson() {
+        return board.getBoardJSON().toString();
+    }
+
+    @Benchmark
+    public byte[] boardBinary() {
+        return board.getBoardBinary();
+    }
+
+    @Benchmark
+    public boolean isSolved() {
+        return board.isSolved();
+    }
+
+    /**
+     * Flags the wrong cells and reads them back, as a "check board" request does.
+     */
+    @Benchmark
+    public List<int[]> updateIncorrectCells() {
+        board.updateIncorrectCells();
+        return board.getIncorrectCells();
+    }
+}
@@ -0,0 +1,102 @@
+package suduoku.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+import suduoku.Board.BitBoard;
+import suduoku.Board.BoardSerializer;
+import suduoku.Board.CandidatesSerializer;
+import suduoku.Board.SudokuBoard;
+import suduoku.database.BoardWriter;
+import suduoku.database.Database;
+
+/**
+ * A puzzle loaded the way the server loads it, from a throwaway SQLite database, for benchmarks that
+ * need a {@link SudokuBoard}. The board writer never flushes on its own while a benchmark runs.
+ */
+final class BoardFixture implements AutoCloseable {
+    static final int PUZZLE_ID = 1;
+    /**
+     * A hard NYT puzzle part way through, including some wrong entries.
+     */
+    static final String SDX = "u2 0 u5 0 0 0 0 u3 u1 0 0 0 u3 0 0 0 u5 u7 0 u3 0 0 0 u8 0 u2 0 u1 1 1 1 1 0 0 0 u6 "
+            + "4 1 u8 u4 4 0 u2 3 0 5 1 u6 1 1 u7 1 1 0 u7 0 0 u5 0 u3 1 0 0 u6 0 1 0 0 u1 1 0 u5 1 2 u2 u9 u4 3 1 1 0";
+    static final String SOLUTION_SDX = "u2 9 u5 6 7 4 8 u3 u1 8 6 1 u3 9 2 4 u5 u7 4 u3 7 1 5 u8 6 u2 9 u1 5 4 2 3 "
+            + "9 7 8 u6 9 7 u8 u4 6 5 u2 1 3 3 2 u6 8 1 u7 5 9 4 u7 4 9 u5 8 u3 1 6 2 u6 8 3 7 2 u1 9 4 u5 5 1 u2 u9 u4 6 "
+            + "3 7 8";
+    /**
+     * Every empty cell of {@link #SDX} marked with the digits its row, column and box still allow.
+     */
+    static final byte[] CANDIDATES = CandidatesSerializer.convertBoardToCandidatesBlob(withCandidates(SDX));
+
+    private final Path file;
+    private final Database database;
+    private final BoardWriter boardWriter;
+
+    BoardFixture() throws IOException, SQLException {
+        file = Files.createTempFile("suduoku-bench", ".db");
+        String url = "jdbc:sqlite:" + file;
+        createPuzzle(url);
+        database = new Database(url, 1);
+        boardWriter = new BoardWriter(database, TimeUnit.HOURS.toMillis(1), Integer.MAX_VALUE, written -> {
+        });
+    }
+
+    /**
+     * Loads the puzzle with a mailbox that runs tasks on the calling thread.
+     */
+    SudokuBoard load() throws SQLException {
+        return SudokuBoard.load(PUZZLE_ID, database, boardWriter, Runnable::run);
+    }
+
+    static BitBoard withCandidates(String sdx) {
+        BitBoard board = BoardSerializer.convertSDXToBoard(sdx);
+        for (int i = 0; i < BitBoard.SIZE; i++) {
+            int row = i / 9;
+            int col = i % 9;
+            if (board.getValue(i) == 0) {
+                int used = board.getRowMask(row) | board.getColMask(col) | board.getBoxMask(BitBoard.box(row, col));
+                board.setCandidates(i, BitBoard.ALL_CANDIDATES & ~used);
+            }
+        }
+        return board;
+    }
+
+    private static void createPuzzle(String url) throws SQLException {
+        try (Connection conn = DriverManager.getConnection(url); Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE puzzles (id INTEGER PRIMARY KEY AUTOINCREMENT, title TEXT NOT NULL, "
+                    + "difficulty TEXT NOT NULL, status TEXT NOT NULL, sdx TEXT NOT NULL, sdx_solution TEXT, "
+                    + "elapsed_time INTEGER DEFAULT 0, candidates TEXT DEFAULT '')");
+            stmt.execute("CREATE TABLE chat_logs (id INTEGER PRIMARY KEY AUTOINCREMENT, puzzle_id INTEGER NOT NULL, "
+                    + "user TEXT NOT NULL, color TEXT NOT NULL, message TEXT NOT NULL, "
+                    + "time DATETIME DEFAULT CURRENT_TIMESTAMP)");
+            try (PreparedStatement insert = conn.prepareStatement("INSERT INTO puzzles "
+                    + "(id, title, difficulty, status, sdx, sdx_solution, candidates) VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+                insert.setInt(1, PUZZLE_ID);
+                insert.setString(2, "NYT 04/23/25");
+                insert.setString(3, "hard");
+                insert.setString(4, "in progress");
+                insert.setString(5, SDX);
+                insert.setString(6, SOLUTION_SDX);
+                insert.setBytes(7, CANDIDATES);
+                insert.executeUpdate();
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        boardWriter.shutdown();
+        database.close();
+        for (String suffix : new String[] {"", "-wal", "-shm"}) {
+            Files.deleteIfExists(Path.of(file + suffix));
+        }
+    }
+}
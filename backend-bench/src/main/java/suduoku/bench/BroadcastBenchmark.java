@@ -0,0 +1,105 @@
+package suduoku.bench;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import jakarta.websocket.RemoteEndpoint;
+import jakarta.websocket.SendHandler;
+import jakarta.websocket.SendResult;
+import jakarta.websocket.Session;
+import suduoku.Player;
+import suduoku.Board.SudokuBoard;
+import suduoku.broadcast.Broadcaster;
+import suduoku.broadcast.OutboundMessage;
+import suduoku.protocol.ProtocolStats;
+import suduoku.protocol.WireFormat;
+
+/**
+ * One full-board broadcast to a room of N players, as sent on a reset: both encodings of the board
+ * are built once, then queued to every player's session through the {@link Broadcaster}. Half the
+ * players are on the binary protocol. The stub sessions complete every send immediately, so this
+ * measures the server's own work per broadcast rather than the network.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BroadcastBenchmark {
+    private static final SendResult OK = new SendResult();
+
+    @Param({"1", "8", "64"})
+    private int players;
+
+    private BoardFixture fixture;
+    private SudokuBoard board;
+    private Broadcaster broadcaster;
+    private List<Player> room;
+
+    @Setup
+    public void setUp() throws IOException, SQLException {
+        fixture = new BoardFixture();
+        board = fixture.load();
+        broadcaster = new Broadcaster(256, 5000, new ProtocolStats());
+        room = new ArrayList<>(players);
+        for (int i = 0; i < players; i++) {
+            String subprotocol = i % 2 == 0 ? WireFormat.JSON_SUBPROTOCOL : WireFormat.BINARY_SUBPROTOCOL;
+            room.add(new Player(stubSession(Integer.toString(i), subprotocol)));
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        fixture.close();
+    }
+
+    @Benchmark
+    public int broadcastBoard() {
+        OutboundMessage message = OutboundMessage.of(board.getBoardJSON(), board.getBoardBinary());
+        return broadcaster.broadcast(room, message);
+    }
+
+    /**
+     * An open session whose async remote reports every send as done before returning.
+     */
+    private static Session stubSession(String id, String subprotocol) {
+        RemoteEndpoint.Async remote = (RemoteEndpoint.Async) Proxy.newProxyInstance(
+                BroadcastBenchmark.class.getClassLoader(), new Class<?>[] {RemoteEndpoint.Async.class},
+                (proxy, method, args) -> {
+                    if (args != null && args[args.length - 1] instanceof SendHandler handler) {
+                        handler.onResult(OK);
+                    }
+                    return null;
+                });
+        return (Session) Proxy.newProxyInstance(BroadcastBenchmark.class.getClassLoader(),
+                new Class<?>[] {Session.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getId" -> id;
+                    case "isOpen" -> true;
+                    case "getNegotiatedSubprotocol" -> subprotocol;
+                    case "getAsyncRemote" -> remote;
+                    case "hashCode" -> id.hashCode();
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "StubSession{" + id + '}';
+                    default -> null;
+                });
+    }
+}
@@ -0,0 +1,87 @@
+package suduoku.bench;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import suduoku.protocol.InboundMessage;
+import suduoku.protocol.MessageDecodeException;
+import suduoku.protocol.MessageDecoder;
+
+/**
+ * Compares decoding an inbound frame with the typed {@link MessageDecoder} against the previous path:
+ * parse into a {@link JSONObject}, switch on its "type" and read each field back with getInt/getString.
+ * Both paths read every field the handler would use. Run with {@code -prof gc} to compare allocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodecBenchmark {
+    private static final String CLIENT_ID = UUID.nameUUIDFromBytes(new byte[] {1}).toString();
+
+    @Param({"sendCellChange", "sendPlayerPosition", "sendChat"})
+    private String type;
+
+    private String frame;
+    private final MessageDecoder decoder = new MessageDecoder();
+
+    @Setup
+    public void setUp() {
+        frame = switch (type) {
+            case "sendCellChange" -> "{\"type\":\"sendCellChange\",\"puzzleId\":710,\"row\":4,\"col\":7,\"value\":3}";
+            case "sendPlayerPosition" -> "{\"type\":\"sendPlayerPosition\",\"position\":{\"row\":4,\"col\":7},"
+                    + "\"clientId\":\"" + CLIENT_ID + "\",\"puzzleId\":710}";
+            case "sendChat" -> "{\"type\":\"sendChat\",\"message\":{\"user\":\"DaringRaven17\",\"color\":\"#c97c07\","
+                    + "\"text\":\"top left box is a 7, check the column\",\"puzzleId\":710}}";
+            default -> throw new IllegalArgumentException(type);
+        };
+    }
+
+    @Benchmark
+    public InboundMessage codec() throws MessageDecodeException {
+        return decoder.decode(frame);
+    }
+
+    @Benchmark
+    public void jsonObject(Blackhole blackhole) {
+        JSONObject json = new JSONObject(frame);
+        switch (json.getString("type")) {
+            case "sendCellChange" -> {
+                blackhole.consume(json.getInt("puzzleId"));
+                blackhole.consume(json.getInt("row"));
+                blackhole.consume(json.getInt("col"));
+                blackhole.consume(json.getInt("value"));
+            }
+            case "sendPlayerPosition" -> {
+                blackhole.consume(UUID.fromString(json.getString("clientId")));
+                JSONObject position = json.getJSONObject("position");
+                blackhole.consume(position.getInt("row"));
+                blackhole.consume(position.getInt("col"));
+            }
+            case "sendChat" -> {
+                JSONObject message = json.getJSONObject("message");
+                blackhole.consume(message.getString("user"));
+                blackhole.consume(message.getString("color"));
+                blackhole.consume(message.getString("text"));
+                blackhole.consume(message.getInt("puzzleId"));
+            }
+            default -> throw new IllegalStateException(type);
+        }
+    }
+}
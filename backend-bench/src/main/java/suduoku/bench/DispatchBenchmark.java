@@ -0,0 +1,145 @@
+package suduoku.bench;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.json.JSONObject;
+
+import suduoku.concurrent.MessageDispatcher;
+import suduoku.concurrent.SerialExecutor;
+
+/**
+ * Compares the DIRECT and VIRTUAL message dispatch modes at 1k, 5k and 10k simulated connections.
+ * Each simulated connection delivers its messages one at a time on a fixed I/O pool, the way the
+ * server container reads a socket. Most messages parse a small JSON payload; a configurable share
+ * block on a simulated database call.
+ * <p>
+ * Load is open-loop: every connection sends at a fixed rate, with the connections' send times
+ * spread evenly over each interval, and latency is measured from a message's scheduled send time
+ * to handled. A mode that falls behind therefore shows its queueing delay instead of hiding it.
+ * Reports the offered and achieved rate, p50/p99 latency and per-connection ordering violations.
+ * <p>
+ * Tunable with system properties: {@code connections} (comma separated), {@code messages} per
+ * connection, {@code rate} (messages per second per connection), {@code blockingPercent},
+ * {@code blockingMillis} and {@code ioThreads}.
+ */
+public class DispatchBenchmark {
+    private static final String SAMPLE_MESSAGE =
+            "{\"type\":\"sendCellChange\",\"puzzleId\":710,\"row\":4,\"col\":7,\"value\":3}";
+
+    private final int messagesPerConnection = Integer.getInteger("messages", 10);
+    private final double ratePerConnection = Double.parseDouble(System.getProperty("rate", "2"));
+    private final int blockingPercent = Integer.getInteger("blockingPercent", 10);
+    private final long blockingMillis = Long.getLong("blockingMillis", 2);
+    private final int ioThreads = Integer.getInteger("ioThreads", Runtime.getRuntime().availableProcessors() * 2);
+
+    public static void main(String[] args) throws InterruptedException {
+        int[] connectionCounts = Arrays.stream(System.getProperty("connections", "1000,5000,10000").split(","))
+                .map(String::trim)
+                .mapToInt(Integer::parseInt)
+                .toArray();
+
+        DispatchBenchmark benchmark = new DispatchBenchmark();
+        benchmark.warmUp();
+
+        System.out.printf("messages/connection=%d rate=%.1f/s blocking=%d%% x %dms ioThreads=%d%n",
+                benchmark.messagesPerConnection, benchmark.ratePerConnection, benchmark.blockingPercent,
+                benchmark.blockingMillis, benchmark.ioThreads);
+        System.out.printf("%-8s %11s %10s %12s %12s %9s %9s %10s%n",
+                "mode", "connections", "seconds", "offered/sec", "msgs/sec", "p50 ms", "p99 ms", "reordered");
+        for (int connections : connectionCounts) {
+            for (MessageDispatcher.Mode mode : MessageDispatcher.Mode.values()) {
+                benchmark.run(mode, connections).print();
+            }
+        }
+    }
+
+    private void warmUp() throws InterruptedException {
+        for (MessageDispatcher.Mode mode : MessageDispatcher.Mode.values()) {
+            run(mode, 1_000);
+        }
+    }
+
+    private Result run(MessageDispatcher.Mode mode, int connections) throws InterruptedException {
+        ExecutorService ioPool = Executors.newFixedThreadPool(ioThreads);
+        MessageDispatcher dispatcher = new MessageDispatcher(mode);
+
+        SerialExecutor[] sockets = new SerialExecutor[connections];
+        int[] lastHandled = new int[connections];
+        for (int conn = 0; conn < connections; conn++) {
+            sockets[conn] = new SerialExecutor(ioPool);
+            lastHandled[conn] = -1;
+        }
+
+        int total = connections * messagesPerConnection;
+        long[] latencies = new long[total];
+        LongAdder reordered = new LongAdder();
+        CountDownLatch done = new CountDownLatch(total);
+
+        // Message seq of connection conn is due at start + seq * interval + conn * interval / connections,
+        // which visits the messages in send-time order
+        long interval = (long) (1e9 / ratePerConnection);
+        long start = System.nanoTime();
+        for (int seq = 0; seq < messagesPerConnection; seq++) {
+            for (int conn = 0; conn < connections; conn++) {
+                int connection = conn;
+                int sequence = seq;
+                String sessionId = Integer.toString(conn);
+                long scheduled = start + seq * interval + conn * interval / connections;
+                long wait;
+                while ((wait = scheduled - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                sockets[conn].execute(() -> dispatcher.dispatch(sessionId, () -> {
+                    handle(connection, sequence);
+                    if (lastHandled[connection] != sequence - 1) {
+                        reordered.increment();
+                    }
+                    lastHandled[connection] = sequence;
+                    latencies[connection * messagesPerConnection + sequence] = System.nanoTime() - scheduled;
+                    done.countDown();
+                }));
+            }
+        }
+        done.await();
+        long elapsed = System.nanoTime() - start;
+
+        ioPool.shutdown();
+        dispatcher.shutdown();
+        ioPool.awaitTermination(10, TimeUnit.SECONDS);
+
+        Arrays.sort(latencies);
+        return new Result(mode, connections, total, connections * ratePerConnection, elapsed,
+                latencies[(int) (total * 0.50)], latencies[(int) (total * 0.99)], reordered.sum());
+    }
+
+    /**
+     * Simulated handler: a JSON parse, or a blocking database call for a fixed share of messages.
+     */
+    private void handle(int connection, int sequence) {
+        if ((connection * 31 + sequence) % 100 < blockingPercent) {
+            try {
+                Thread.sleep(blockingMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return;
+        }
+        new JSONObject(SAMPLE_MESSAGE).getInt("value");
+    }
+
+    private record Result(MessageDispatcher.Mode mode, int connections, int messages, double offeredPerSecond,
+            long elapsedNanos, long p50Nanos, long p99Nanos, long reordered) {
+
+        void print() {
+            double seconds = elapsedNanos / 1e9;
+            System.out.printf("%-8s %11d %10.2f %12.0f %12.0f %9.2f %9.2f %10d%n", mode, connections, seconds,
+                    offeredPerSecond, messages / seconds, p50Nanos / 1e6, p99Nanos / 1e6, reordered);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package suduoku.bench;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.json.JSONObject;
+
+/**
+ * Lock-free latency histogram with log-linear buckets: each power of two of microseconds is split
+ * into 16 buckets, so a percentile is within about 6% of the recorded value. Safe to record from
+ * any number of threads.
+ */
+final class LatencyHistogram {
+    private static final int SUB_BUCKETS = 16;
+    private static final int SUB_BITS = 4;
+    /**
+     * Enough magnitudes for latencies up to about 2^40 microseconds.
+     */
+    private static final int MAGNITUDES = 40;
+
+    private final AtomicLongArray counts = new AtomicLongArray(MAGNITUDES * SUB_BUCKETS);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    void record(long nanos) {
+        long micros = Math.max(nanos / 1000, 0);
+        counts.incrementAndGet(bucket(micros));
+        total.incrementAndGet();
+        max.accumulateAndGet(micros, Math::max);
+    }
+
+    long getCount() {
+        return total.get();
+    }
+
+    /**
+     * @param percentile Between 0 and 100
+     * @return The upper bound of the bucket holding the percentile, in microseconds
+     */
+    long percentile(double percentile) {
+        long count = total.get();
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(count * percentile / 100);
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= Math.max(rank, 1)) {
+                return Math.min(upperBound(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * Count and percentiles in milliseconds.
+     */
+    JSONObject toJSON() {
+        JSONObject json = new JSONObject();
+        json.put("count", getCount());
+        json.put("p50", percentile(50) / 1000.0);
+        json.put("p90", percentile(90) / 1000.0);
+        json.put("p99", percentile(99) / 1000.0);
+        json.put("p999", percentile(99.9) / 1000.0);
+        json.put("max", max.get() / 1000.0);
+        return json;
+    }
+
+    private static int bucket(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) micros;
+        }
+        // The top SUB_BITS + 1 bits pick the bucket within the value's power of two
+        int magnitude = 63 - Long.numberOfLeadingZeros(micros) - SUB_BITS + 1;
+        int sub = (int) (micros >>> (magnitude - 1)) - SUB_BUCKETS;
+        return Math.min(magnitude * SUB_BUCKETS + sub, MAGNITUDES * SUB_BUCKETS - 1);
+    }
+
+    private static long upperBound(int bucket) {
+        int magnitude = bucket / SUB_BUCKETS;
+        int sub = bucket % SUB_BUCKETS;
+        if (magnitude == 0) {
+            return sub;
+        }
+        return ((long) (SUB_BUCKETS + sub + 1) << (magnitude - 1)) - 1;
+    }
+}
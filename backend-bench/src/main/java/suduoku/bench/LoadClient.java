@@ -0,0 +1,193 @@
+package suduoku.bench;
+
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import jakarta.websocket.CloseReason;
+import jakarta.websocket.Endpoint;
+import jakarta.websocket.EndpointConfig;
+import jakarta.websocket.MessageHandler;
+import jakarta.websocket.Session;
+
+/**
+ * One simulated player: a JSON protocol connection in a room. Builds the messages it sends and
+ * matches the broadcasts it receives to the sends that caused them.
+ */
+final class LoadClient extends Endpoint {
+    private static final String CHAT_PREFIX = "load ";
+
+    final LoadRoom room;
+    private final LoadStats stats;
+    private final String clientId = UUID.randomUUID().toString();
+    private volatile Session session;
+    private volatile String name;
+    private int elapsedSeconds;
+
+    LoadClient(LoadRoom room, LoadStats stats) {
+        this.room = room;
+        this.stats = stats;
+    }
+
+    @Override
+    public void onOpen(Session session, EndpointConfig config) {
+        this.session = session;
+        session.addMessageHandler(String.class, (MessageHandler.Whole<String>) this::onText);
+    }
+
+    /**
+     * Identifies the player and joins its room, as the lobby does when a puzzle is opened.
+     */
+    void join() {
+        send("fetchIdentity", "{\"type\":\"fetchIdentity\",\"clientId\":\"" + clientId + "\"}");
+        send("fetchPuzzle", fetchPuzzle());
+    }
+
+    /**
+     * True once the server has named the player.
+     */
+    boolean isReady() {
+        return name != null;
+    }
+
+    /**
+     * Sends one message of a type, recording when it left for the broadcast it causes.
+     *
+     * @return False if the client cannot send that type yet
+     */
+    boolean send(String type, ThreadLocalRandom random) {
+        if (!isReady()) {
+            return false;
+        }
+        long now = System.nanoTime();
+        String text = switch (type) {
+            case "fetchIdentity" -> "{\"type\":\"fetchIdentity\",\"clientId\":\"" + clientId + "\"}";
+            case "fetchPuzzle" -> fetchPuzzle();
+            case "sendPlayerPosition" -> {
+                int row = random.nextInt(9);
+                int col = random.nextInt(9);
+                room.positionSentAt.put(name + '|' + row + '|' + col, now);
+                yield "{\"type\":\"sendPlayerPosition\",\"clientId\":\"" + clientId + "\",\"puzzleId\":" + room.puzzleId
+                        + ",\"position\":{\"row\":" + row + ",\"col\":" + col + "}}";
+            }
+            case "sendCellChange" -> {
+                int change = room.nextCellChange(random);
+                if (change < 0) {
+                    yield null;
+                }
+                room.cellSentAt.put(change, now);
+                int cell = change / 10;
+                yield "{\"type\":\"sendCellChange\",\"puzzleId\":" + room.puzzleId + ",\"row\":" + cell / 9
+                        + ",\"col\":" + cell % 9 + ",\"value\":" + change % 10 + "}";
+            }
+            case "sendCandidateToggle" -> {
+                int cell = room.nextCandidateCell(random);
+                if (cell < 0) {
+                    yield null;
+                }
+                room.candidateSentAt.put(cell, now);
+                yield "{\"type\":\"sendCandidateToggle\",\"puzzleId\":" + room.puzzleId + ",\"row\":" + cell / 9
+                        + ",\"col\":" + cell % 9 + ",\"candidate\":" + (1 + random.nextInt(9)) + "}";
+            }
+            case "sendChat" -> "{\"type\":\"sendChat\",\"message\":{\"user\":" + JSONObject.quote(name)
+                    + ",\"color\":\"#3d7ea6\",\"text\":\"" + CHAT_PREFIX + now + "\",\"puzzleId\":" + room.puzzleId + "}}";
+            case "sendElapsedTime" -> "{\"type\":\"sendElapsedTime\",\"puzzleId\":" + room.puzzleId
+                    + ",\"elapsedTime\":" + ++elapsedSeconds + "}";
+            default -> throw new IllegalArgumentException("Unknown message type " + type);
+        };
+        if (text == null) {
+            return false;
+        }
+        send(type, text);
+        return true;
+    }
+
+    private String fetchPuzzle() {
+        return "{\"type\":\"fetchPuzzle\",\"clientId\":\"" + clientId + "\",\"puzzleId\":" + room.puzzleId + "}";
+    }
+
+    private void send(String type, String text) {
+        stats.sent(type);
+        session.getAsyncRemote().sendText(text, result -> {
+            if (!result.isOK()) {
+                stats.failedSend();
+            }
+        });
+    }
+
+    private void onText(String text) {
+        long now = System.nanoTime();
+        String type = typeOf(text);
+        stats.received(type);
+        switch (type) {
+            case "updateIdentity" -> name = new JSONObject(text).getJSONObject("client").getString("name");
+            case "updatePuzzle" -> {
+                if (!room.hasBoard()) {
+                    room.learnBoard(new JSONObject(text));
+                }
+            }
+            case "cellDelta" -> onCellDelta(new JSONObject(text), now);
+            case "updateChangedPositions" -> onPositions(new JSONObject(text), now);
+            case "appendChat" -> onChat(new JSONObject(text), now);
+            default -> {
+            }
+        }
+    }
+
+    private void onCellDelta(JSONObject delta, long now) {
+        int cell = delta.getInt("row") * 9 + delta.getInt("col");
+        Long toggled = room.candidateSentAt.get(cell);
+        if (toggled != null) {
+            stats.latency("sendCandidateToggle", toggled, now);
+            return;
+        }
+        Long changed = room.cellSentAt.get(cell * 10 + delta.getInt("value"));
+        if (changed != null) {
+            stats.latency("sendCellChange", changed, now);
+        }
+    }
+
+    private void onPositions(JSONObject update, long now) {
+        JSONArray positions = update.getJSONArray("positions");
+        for (int i = 0; i < positions.length(); i++) {
+            JSONObject player = positions.getJSONObject(i);
+            JSONObject position = player.getJSONObject("position");
+            Long moved = room.positionSentAt.get(player.getString("name") + '|' + position.getInt("row") + '|'
+                    + position.getInt("col"));
+            if (moved != null) {
+                stats.latency("sendPlayerPosition", moved, now);
+            }
+        }
+    }
+
+    private void onChat(JSONObject append, long now) {
+        String text = append.getJSONObject("message").getString("message");
+        if (text.startsWith(CHAT_PREFIX)) {
+            stats.latency("sendChat", Long.parseLong(text.substring(CHAT_PREFIX.length())), now);
+        }
+    }
+
+    private static String typeOf(String text) {
+        int start = text.indexOf("\"type\":\"");
+        if (start < 0) {
+            return "unknown";
+        }
+        start += 8;
+        int end = text.indexOf('"', start);
+        return end < 0 ? "unknown" : text.substring(start, end);
+    }
+
+    void close() {
+        Session current = session;
+        if (current != null && current.isOpen()) {
+            try {
+                current.close(new CloseReason(CloseReason.CloseCodes.NORMAL_CLOSURE, "Load test finished"));
+            } catch (IOException e) {
+                // Closing anyway
+            }
+        }
+    }
+}
@@ -0,0 +1,339 @@
+package suduoku.bench;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import org.glassfish.tyrus.client.ClientManager;
+import org.glassfish.tyrus.client.ClientProperties;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import jakarta.websocket.ClientEndpointConfig;
+import jakarta.websocket.DeploymentException;
+import jakarta.websocket.Endpoint;
+import jakarta.websocket.EndpointConfig;
+import jakarta.websocket.MessageHandler;
+import jakarta.websocket.Session;
+
+/**
+ * Drives the WebSocket server with thousands of simulated players spread over many rooms.
+ * By default the backend is started as a separate JVM on a copy of the database, so its CPU and heap
+ * are measured on their own; with {@code url} an already running server is used instead. Every client
+ * identifies itself and joins its room, then one sender thread sends a Poisson mix of message types at
+ * the configured rate per client, open loop. Reports messages per second, latency percentiles from a
+ * send to each room member receiving the broadcast it caused, and the server's CPU, heap and GC. Results
+ * are saved as JSON and can be compared with an earlier run.
+ * <p>
+ * Tunable with system properties: {@code clients}, {@code rooms}, {@code warmupSeconds},
+ * {@code durationSeconds}, {@code connectThreads}, {@code rates} (messages per second per client, e.g.
+ * {@code sendPlayerPosition=1,sendCellChange=0.1}), {@code port}, {@code db} and {@code serverJvmArgs}
+ * for the started server, {@code url} and {@code pid} for a running one, {@code out} for the results
+ * file and {@code baseline} and {@code threshold} (percent) to compare against an earlier one.
+ */
+public class LoadGenerator {
+    private static final String DEFAULT_RATES = "sendPlayerPosition=1,sendCellChange=0.1,sendCandidateToggle=0.1,"
+            + "sendChat=0.01,sendElapsedTime=0.2,fetchPuzzle=0.002,fetchIdentity=0.002";
+    /**
+     * How far behind schedule a send may leave before it counts as late.
+     */
+    private static final long LATE_SEND_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long READY_TIMEOUT_MS = 60_000;
+
+    private final int clientCount = Integer.getInteger("clients", 2000);
+    private final int roomCount = Integer.getInteger("rooms", 50);
+    private final int warmupSeconds = Integer.getInteger("warmupSeconds", 10);
+    private final int durationSeconds = Integer.getInteger("durationSeconds", 30);
+    private final int connectThreads = Integer.getInteger("connectThreads", 16);
+    private final Map<String, Double> rates = parseRates(System.getProperty("rates", DEFAULT_RATES));
+
+    private final LoadStats stats = new LoadStats();
+    private final ClientManager clientManager = ClientManager.createClient();
+
+    public static void main(String[] args) throws Exception {
+        int port = Integer.getInteger("port", 18080);
+        String url = System.getProperty("url");
+        ServerProcess server = url == null
+                ? ServerProcess.start(port, Path.of(System.getProperty("db", "../backend-java/db/sudokugames.db")),
+                        System.getProperty("serverJvmArgs", ""))
+                : ServerProcess.external(Long.getLong("pid", 0));
+
+        int regressions;
+        try (server) {
+            LoadGenerator generator = new LoadGenerator();
+            JSONObject results = generator.run(URI.create(url != null ? url : "ws://localhost:" + port + "/ws"), server);
+            results.getJSONObject("config").put("server", url != null ? url : "started");
+
+            Path out = Path.of(System.getProperty("out", "load-results.json"));
+            Files.writeString(out, results.toString(2));
+            System.out.printf("Results saved to %s%n", out.toAbsolutePath());
+
+            String baseline = System.getProperty("baseline");
+            regressions = baseline == null ? 0 : compare(new JSONObject(Files.readString(Path.of(baseline))), results,
+                    Double.parseDouble(System.getProperty("threshold", "20")) / 100);
+        }
+        // Client container threads are not daemons
+        System.exit(regressions > 0 ? 1 : 0);
+    }
+
+    private JSONObject run(URI uri, ServerProcess server) throws Exception {
+        clientManager.getProperties().put(ClientProperties.SHARED_CONTAINER, true);
+
+        List<LoadRoom> rooms = new ArrayList<>();
+        for (int puzzleId : fetchPuzzleIds(uri, roomCount)) {
+            rooms.add(new LoadRoom(puzzleId));
+        }
+        if (rooms.isEmpty()) {
+            throw new IllegalStateException("The server has no puzzles");
+        }
+
+        List<LoadClient> clients = connect(uri, rooms);
+        awaitReady(clients, rooms);
+
+        System.out.printf("clients=%d rooms=%d rate=%.0f msgs/sec warmup=%ds duration=%ds%n",
+                clients.size(), rooms.size(), totalRate(clients.size()), warmupSeconds, durationSeconds);
+        long measuredNanos = send(clients, server);
+        JSONObject serverResult = server.stopMeasuring();
+        clients.forEach(LoadClient::close);
+
+        JSONObject results = results(clients.size(), rooms.size(), measuredNanos, serverResult);
+        print(results);
+        return results;
+    }
+
+    /**
+     * Asks the server's catalog for the newest puzzles, one per room.
+     */
+    private List<Integer> fetchPuzzleIds(URI uri, int count) throws Exception {
+        CompletableFuture<String> reply = new CompletableFuture<>();
+        Session lobby = clientManager.connectToServer(new Endpoint() {
+            @Override
+            public void onOpen(Session session, EndpointConfig config) {
+                session.addMessageHandler(String.class, (MessageHandler.Whole<String>) text -> {
+                    if (text.contains("\"puzzles\"")) {
+                        reply.complete(text);
+                    }
+                });
+            }
+        }, ClientEndpointConfig.Builder.create().build(), uri);
+        lobby.getBasicRemote().sendText("{\"type\":\"fetchPuzzles\",\"limit\":" + count + "}");
+
+        JSONArray puzzles = new JSONObject(reply.get(30, TimeUnit.SECONDS)).getJSONArray("puzzles");
+        lobby.close();
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < puzzles.length(); i++) {
+            ids.add(puzzles.getJSONObject(i).getInt("id"));
+        }
+        return ids;
+    }
+
+    private List<LoadClient> connect(URI uri, List<LoadRoom> rooms) throws InterruptedException {
+        List<LoadClient> connected = new ArrayList<>();
+        AtomicInteger failures = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(connectThreads);
+        long start = System.nanoTime();
+        for (int i = 0; i < clientCount; i++) {
+            LoadRoom room = rooms.get(i % rooms.size());
+            LoadClient client = new LoadClient(room, stats);
+            pool.execute(() -> {
+                try {
+                    clientManager.connectToServer(client, ClientEndpointConfig.Builder.create().build(), uri);
+                    client.join();
+                    synchronized (connected) {
+                        connected.add(client);
+                        room.members.add(client);
+                    }
+                } catch (DeploymentException | IOException e) {
+                    failures.incrementAndGet();
+                }
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.MINUTES);
+        System.out.printf("Connected %d clients in %.1fs (%d failed)%n", connected.size(),
+                (System.nanoTime() - start) / 1e9, failures.get());
+        return connected;
+    }
+
+    /**
+     * Waits until every client has been named and every room's board has arrived.
+     */
+    private static void awaitReady(List<LoadClient> clients, List<LoadRoom> rooms) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + READY_TIMEOUT_MS;
+        while (System.currentTimeMillis() < deadline) {
+            if (clients.stream().allMatch(LoadClient::isReady) && rooms.stream().allMatch(LoadRoom::hasBoard)) {
+                return;
+            }
+            Thread.sleep(100);
+        }
+        System.out.printf("Continuing with %d of %d clients ready%n",
+                clients.stream().filter(LoadClient::isReady).count(), clients.size());
+    }
+
+    /**
+     * Sends the message mix until the run ends, measuring after the warmup.
+     *
+     * @return Length of the measured part of the run, in nanoseconds
+     */
+    private long send(List<LoadClient> clients, ServerProcess server) {
+        String[] types = rates.keySet().toArray(new String[0]);
+        double[] cumulative = new double[types.length];
+        double sum = 0;
+        for (int i = 0; i < types.length; i++) {
+            sum += rates.get(types[i]);
+            cumulative[i] = sum;
+        }
+        double totalRate = totalRate(clients.size());
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(durationSeconds);
+        long next = start;
+        boolean measuring = false;
+        while (true) {
+            // Exponential gaps give Poisson arrivals at the total rate
+            next += (long) (-Math.log(1 - random.nextDouble()) * 1e9 / totalRate);
+            long now = System.nanoTime();
+            if (!measuring && now >= measureFrom) {
+                server.startMeasuring();
+                stats.setMeasuring(true);
+                measuring = true;
+            }
+            if (now >= end) {
+                break;
+            }
+            if (next > now) {
+                LockSupport.parkNanos(next - now);
+            } else if (now - next > LATE_SEND_NANOS) {
+                stats.lateSend();
+            }
+
+            double pick = random.nextDouble() * sum;
+            int type = 0;
+            while (cumulative[type] < pick) {
+                type++;
+            }
+            clients.get(random.nextInt(clients.size())).send(types[type], random);
+        }
+        stats.setMeasuring(false);
+        return System.nanoTime() - measureFrom;
+    }
+
+    private double totalRate(int clients) {
+        return rates.values().stream().mapToDouble(Double::doubleValue).sum() * clients;
+    }
+
+    private JSONObject results(int clients, int rooms, long measuredNanos, JSONObject serverResult) {
+        double seconds = measuredNanos / 1e9;
+        JSONObject config = new JSONObject();
+        config.put("clients", clients);
+        config.put("rooms", rooms);
+        config.put("warmupSeconds", warmupSeconds);
+        config.put("durationSeconds", durationSeconds);
+        config.put("rates", new JSONObject(rates));
+
+        JSONObject results = new JSONObject();
+        results.put("config", config);
+        results.put("sentPerSecond", stats.totalSent() / seconds);
+        results.put("receivedPerSecond", stats.totalReceived() / seconds);
+        results.put("sent", new JSONObject(stats.getSent()));
+        results.put("received", new JSONObject(stats.getReceived()));
+        results.put("latencyMs", stats.latencyJSON());
+        results.put("failedSends", stats.getFailedSends());
+        results.put("lateSends", stats.getLateSends());
+        if (serverResult != null) {
+            results.put("server", serverResult);
+        }
+        return results;
+    }
+
+    private static void print(JSONObject results) {
+        System.out.printf("%-22s %10s %9s %9s %9s %9s %9s%n", "broadcast after", "samples", "p50 ms", "p90 ms",
+                "p99 ms", "p99.9 ms", "max ms");
+        JSONObject latencies = results.getJSONObject("latencyMs");
+        for (String type : latencies.keySet().stream().sorted().toList()) {
+            JSONObject latency = latencies.getJSONObject(type);
+            System.out.printf("%-22s %10d %9.2f %9.2f %9.2f %9.2f %9.2f%n", type, latency.getLong("count"),
+                    latency.getDouble("p50"), latency.getDouble("p90"), latency.getDouble("p99"),
+                    latency.getDouble("p999"), latency.getDouble("max"));
+        }
+        System.out.printf("sent %.0f msgs/sec, received %.0f msgs/sec, %d failed sends, %d late sends%n",
+                results.getDouble("sentPerSecond"), results.getDouble("receivedPerSecond"),
+                results.getLong("failedSends"), results.getLong("lateSends"));
+        JSONObject server = results.optJSONObject("server");
+        if (server != null) {
+            System.out.printf("server cpu %.2f cores, heap avg %.0f MB max %.0f MB, %d GCs taking %d ms%n",
+                    server.getDouble("cpuCores"), server.getDouble("heapAvgMb"), server.getDouble("heapMaxMb"),
+                    server.getLong("gcCount"), server.getLong("gcMillis"));
+        }
+    }
+
+    /**
+     * Prints the change of each headline metric from the baseline run. Received messages per second
+     * is shown for information only: it grows when the server sends more than it should as much as
+     * when it keeps up better, so neither direction is a regression.
+     *
+     * @return Number of metrics that got worse by more than the threshold
+     */
+    private static int compare(JSONObject baseline, JSONObject current, double threshold) {
+        // Whether higher is better, or null for a metric that is not checked
+        Map<String, Boolean> metrics = new LinkedHashMap<>();
+        metrics.put("sentPerSecond", true);
+        metrics.put("receivedPerSecond", null);
+        for (String type : current.getJSONObject("latencyMs").keySet().stream().sorted().toList()) {
+            metrics.put("latencyMs." + type + ".p99", false);
+        }
+        metrics.put("server.cpuCores", false);
+        metrics.put("server.heapMaxMb", false);
+
+        int regressions = 0;
+        System.out.printf("%-40s %12s %12s %9s%n", "metric", "baseline", "current", "change");
+        for (Map.Entry<String, Boolean> metric : metrics.entrySet()) {
+            Double before = lookup(baseline, metric.getKey());
+            Double now = lookup(current, metric.getKey());
+            if (before == null || now == null || before == 0) {
+                continue;
+            }
+            double change = (now - before) / before;
+            Boolean higherIsBetter = metric.getValue();
+            boolean worse = higherIsBetter != null && (higherIsBetter ? -change : change) > threshold;
+            if (worse) {
+                regressions++;
+            }
+            System.out.printf("%-40s %12.2f %12.2f %+8.1f%%%s%n", metric.getKey(), before, now, change * 100,
+                    worse ? "  REGRESSED" : higherIsBetter == null ? "  (info)" : "");
+        }
+        System.out.printf("%d metrics regressed by more than %.0f%%%n", regressions, threshold * 100);
+        return regressions;
+    }
+
+    private static Double lookup(JSONObject json, String path) {
+        Object value = json.optQuery("/" + path.replace('.', '/'));
+        return value instanceof Number number ? number.doubleValue() : null;
+    }
+
+    private static Map<String, Double> parseRates(String spec) {
+        Map<String, Double> parsed = new LinkedHashMap<>();
+        for (String entry : spec.split(",")) {
+            String[] parts = entry.trim().split("=");
+            double rate = Double.parseDouble(parts[1].trim());
+            if (rate > 0) {
+                parsed.put(parts[0].trim(), rate);
+            }
+        }
+        return parsed;
+    }
+}
@@ -0,0 +1,99 @@
+package suduoku.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * One puzzle under load and what its clients sent, so a broadcast can be matched to the send that
+ * caused it. Value changes and candidate toggles use disjoint halves of the editable cells, since
+ * both come back as a "cellDelta" for the cell.
+ */
+final class LoadRoom {
+    final int puzzleId;
+    final List<LoadClient> members = new ArrayList<>();
+
+    /**
+     * Send time of the latest change per cell and value, keyed {@code cell * 10 + value}.
+     */
+    final Map<Integer, Long> cellSentAt = new ConcurrentHashMap<>();
+    /**
+     * Send time of the latest candidate toggle per cell.
+     */
+    final Map<Integer, Long> candidateSentAt = new ConcurrentHashMap<>();
+    /**
+     * Send time of the latest move per player name and position, keyed {@code name|row|col}.
+     */
+    final Map<String, Long> positionSentAt = new ConcurrentHashMap<>();
+
+    private volatile int[] valueCells;
+    private volatile int[] candidateCells;
+    /**
+     * The value each cell was last set to, used only by the sending thread.
+     */
+    private final int[] lastValue = new int[81];
+
+    LoadRoom(int puzzleId) {
+        this.puzzleId = puzzleId;
+    }
+
+    boolean hasBoard() {
+        return valueCells != null;
+    }
+
+    /**
+     * Learns the editable cells from the first "updatePuzzle" a member receives.
+     */
+    synchronized void learnBoard(JSONObject update) {
+        if (hasBoard()) {
+            return;
+        }
+        List<Integer> values = new ArrayList<>();
+        List<Integer> candidates = new ArrayList<>();
+        JSONArray rows = update.getJSONArray("board");
+        for (int row = 0; row < rows.length(); row++) {
+            JSONArray cells = rows.getJSONArray(row);
+            for (int col = 0; col < cells.length(); col++) {
+                if (cells.getJSONObject(col).getBoolean("isEditable")) {
+                    int cell = row * 9 + col;
+                    (values.size() <= candidates.size() ? values : candidates).add(cell);
+                    lastValue[cell] = cells.getJSONObject(col).optInt("value", 0);
+                }
+            }
+        }
+        candidateCells = candidates.stream().mapToInt(Integer::intValue).toArray();
+        valueCells = values.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Picks a value cell and a value different from the one it holds.
+     *
+     * @return {@code cell * 10 + value}, or -1 if the board is not known yet
+     */
+    int nextCellChange(ThreadLocalRandom random) {
+        int[] cells = valueCells;
+        if (cells == null || cells.length == 0) {
+            return -1;
+        }
+        int cell = cells[random.nextInt(cells.length)];
+        int value = 1 + (lastValue[cell] + random.nextInt(8)) % 9;
+        lastValue[cell] = value;
+        return cell * 10 + value;
+    }
+
+    /**
+     * @return A cell for a candidate toggle, or -1 if the board is not known yet
+     */
+    int nextCandidateCell(ThreadLocalRandom random) {
+        int[] cells = candidateCells;
+        if (cells == null || cells.length == 0) {
+            return -1;
+        }
+        return cells[random.nextInt(cells.length)];
+    }
+}
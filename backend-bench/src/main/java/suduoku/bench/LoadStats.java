@@ -0,0 +1,100 @@
+package suduoku.bench;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.json.JSONObject;
+
+/**
+ * What the load generator sent and received while measuring. Counts are per message type; latencies
+ * are from a client's send to each room member receiving the broadcast it caused, keyed by the
+ * type that was sent.
+ */
+final class LoadStats {
+    private final Map<String, LongAdder> sent = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> received = new ConcurrentHashMap<>();
+    private final Map<String, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+    private final LongAdder failedSends = new LongAdder();
+    private final LongAdder lateSends = new LongAdder();
+    private volatile boolean measuring;
+
+    void setMeasuring(boolean measuring) {
+        this.measuring = measuring;
+    }
+
+    void sent(String type) {
+        if (measuring) {
+            sent.computeIfAbsent(type, key -> new LongAdder()).increment();
+        }
+    }
+
+    void received(String type) {
+        if (measuring) {
+            received.computeIfAbsent(type, key -> new LongAdder()).increment();
+        }
+    }
+
+    /**
+     * Records the latency of a broadcast caused by a send of the given type.
+     */
+    void latency(String sentType, long sentAt, long receivedAt) {
+        if (measuring) {
+            latencies.computeIfAbsent(sentType, key -> new LatencyHistogram()).record(receivedAt - sentAt);
+        }
+    }
+
+    void failedSend() {
+        failedSends.increment();
+    }
+
+    /**
+     * A send that left noticeably after its scheduled time, meaning the generator itself fell behind.
+     */
+    void lateSend() {
+        if (measuring) {
+            lateSends.increment();
+        }
+    }
+
+    long totalSent() {
+        return sent.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    long totalReceived() {
+        return received.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    Map<String, Long> getSent() {
+        return counts(sent);
+    }
+
+    Map<String, Long> getReceived() {
+        return counts(received);
+    }
+
+    Map<String, LatencyHistogram> getLatencies() {
+        return new TreeMap<>(latencies);
+    }
+
+    long getFailedSends() {
+        return failedSends.sum();
+    }
+
+    long getLateSends() {
+        return lateSends.sum();
+    }
+
+    JSONObject latencyJSON() {
+        JSONObject json = new JSONObject();
+        getLatencies().forEach((type, histogram) -> json.put(type, histogram.toJSON()));
+        return json;
+    }
+
+    private static Map<String, Long> counts(Map<String, LongAdder> adders) {
+        Map<String, Long> counts = new TreeMap<>();
+        adders.forEach((type, adder) -> counts.put(type, adder.sum()));
+        return counts;
+    }
+}
@@ -0,0 +1,76 @@
+package suduoku.bench;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import suduoku.metrics.Histogram;
+import suduoku.metrics.MetricsRegistry;
+import suduoku.protocol.InboundMessage;
+
+/**
+ * Cost of recording metrics on the message path: one histogram sample, and the timing the server
+ * wraps around every handled message, which also looks up the histogram for the message type.
+ * {@code scrape} renders a registry about the size of the server's.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsBenchmark {
+    private final Histogram histogram = Histogram.ofNanos();
+    private final Map<String, Histogram> handlerLatency = new ConcurrentHashMap<>();
+    private final InboundMessage message = new InboundMessage.CellChange(1, 4, 4, 7);
+    private final MetricsRegistry registry = new MetricsRegistry();
+    private long value;
+
+    @Setup
+    public void setUp() {
+        for (String type : new String[] {"fetchPuzzle", "fetchIdentity", "sendPlayerPosition", "sendCellChange",
+                "sendCandidateToggle", "sendChat", "fetchChat", "fetchPuzzles"}) {
+            Histogram typeHistogram = registry.histogram("handler_seconds", "Handler time", Histogram.ofNanos(),
+                    "type", type);
+            for (int i = 0; i < 1000; i++) {
+                typeHistogram.record(i * 997L);
+            }
+        }
+        for (int i = 0; i < 40; i++) {
+            LongAdder counter = new LongAdder();
+            counter.add(i);
+            registry.counter("counter_" + i + "_total", "A counter", counter::sum);
+        }
+    }
+
+    @Benchmark
+    public void record() {
+        // Spread samples over the buckets
+        value = value * 31 + 12345 & 0xFFFFFFL;
+        histogram.record(value);
+    }
+
+    @Benchmark
+    public void timeHandler() {
+        long start = System.nanoTime();
+        handlerLatency.computeIfAbsent(message.wireName(), type -> Histogram.ofNanos())
+                .record(System.nanoTime() - start);
+    }
+
+    @Benchmark
+    public String scrape() {
+        return registry.scrape();
+    }
+}
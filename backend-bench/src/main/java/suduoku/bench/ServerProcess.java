@@ -0,0 +1,214 @@
+package suduoku.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import javax.management.MBeanServerConnection;
+import javax.management.remote.JMXConnector;
+import javax.management.remote.JMXConnectorFactory;
+import javax.management.remote.JMXServiceURL;
+
+import org.json.JSONObject;
+
+import com.sun.management.OperatingSystemMXBean;
+import com.sun.tools.attach.VirtualMachine;
+
+/**
+ * The server under test and its resource use. Either a child JVM started here on a copy of the
+ * database, so nothing else shares its CPU and heap, or an already running local server. The server
+ * JVM is attached to over JMX and its CPU time, heap and GC are sampled once a second while
+ * {@link #startMeasuring()} and {@link #stopMeasuring()} bracket a run.
+ */
+final class ServerProcess implements AutoCloseable {
+    private static final long STARTUP_TIMEOUT_MS = 60_000;
+
+    private final Process process;
+    private final Path workDir;
+    private final JMXConnector connector;
+    private final OperatingSystemMXBean os;
+    private final MemoryMXBean memory;
+    private final List<GarbageCollectorMXBean> collectors;
+    private final ScheduledExecutorService sampler;
+
+    private long startCpuNanos;
+    private long startWallNanos;
+    private long startGcCount;
+    private long startGcMillis;
+    private long heapSamples;
+    private long heapSum;
+    private long heapMax;
+    private JSONObject result;
+
+    private ServerProcess(Process process, Path workDir, long pid) throws IOException {
+        this.process = process;
+        this.workDir = workDir;
+        this.connector = pid > 0 ? connect(pid) : null;
+        if (connector != null) {
+            MBeanServerConnection server = connector.getMBeanServerConnection();
+            this.os = ManagementFactory.newPlatformMXBeanProxy(server, ManagementFactory.OPERATING_SYSTEM_MXBEAN_NAME,
+                    OperatingSystemMXBean.class);
+            this.memory = ManagementFactory.newPlatformMXBeanProxy(server, ManagementFactory.MEMORY_MXBEAN_NAME,
+                    MemoryMXBean.class);
+            this.collectors = ManagementFactory.getPlatformMXBeans(server, GarbageCollectorMXBean.class);
+        } else {
+            this.os = null;
+            this.memory = null;
+            this.collectors = List.of();
+        }
+        this.sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "load-server-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts the backend from this JVM's classpath in a temporary directory holding a copy of the
+     * database, and waits until it accepts connections.
+     *
+     * @param jvmArgs Extra JVM options for the server, space separated
+     */
+    static ServerProcess start(int port, Path database, String jvmArgs) throws IOException, InterruptedException {
+        Path workDir = Files.createTempDirectory("suduoku-load");
+        Files.copy(database, workDir.resolve("load.db"));
+
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        Arrays.stream(jvmArgs.trim().split("\\s+")).filter(arg -> !arg.isEmpty()).forEach(command::add);
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add("suduoku.SuduokuBackend");
+
+        ProcessBuilder builder = new ProcessBuilder(command)
+                .directory(workDir.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(workDir.resolve("server.log").toFile());
+        builder.environment().put("PORT", Integer.toString(port));
+        builder.environment().put("DB_URL", "jdbc:sqlite:" + workDir.resolve("load.db"));
+        builder.environment().putIfAbsent("METRICS_PORT", "0");
+        Path fixtures = database.resolveSibling("fixtures").resolve("puzzles.json");
+        if (Files.exists(fixtures)) {
+            // Never fetch from the live puzzle source during a load test
+            builder.environment().putIfAbsent("PUZZLE_SOURCE", "file:" + fixtures.toAbsolutePath());
+        }
+        Process process = builder.start();
+
+        long deadline = System.currentTimeMillis() + STARTUP_TIMEOUT_MS;
+        while (!accepts(port)) {
+            if (!process.isAlive() || System.currentTimeMillis() > deadline) {
+                process.destroyForcibly();
+                throw new IOException("Server did not start, see " + workDir.resolve("server.log"));
+            }
+            Thread.sleep(200);
+        }
+        return new ServerProcess(process, workDir, process.pid());
+    }
+
+    /**
+     * A server that is already running, sampled if its process id is known.
+     *
+     * @param pid The server's process id, or 0 to report no server resource use
+     */
+    static ServerProcess external(long pid) throws IOException {
+        return new ServerProcess(null, null, pid);
+    }
+
+    void startMeasuring() {
+        if (connector == null) {
+            return;
+        }
+        startCpuNanos = os.getProcessCpuTime();
+        startWallNanos = System.nanoTime();
+        startGcCount = collectors.stream().mapToLong(GarbageCollectorMXBean::getCollectionCount).sum();
+        startGcMillis = collectors.stream().mapToLong(GarbageCollectorMXBean::getCollectionTime).sum();
+        sampler.scheduleAtFixedRate(this::sampleHeap, 0, 1, TimeUnit.SECONDS);
+    }
+
+    /**
+     * @return CPU cores used, heap and GC over the run, or null if the server is not sampled
+     */
+    JSONObject stopMeasuring() {
+        if (connector == null) {
+            return null;
+        }
+        sampler.shutdownNow();
+        long cpu = os.getProcessCpuTime() - startCpuNanos;
+        long wall = System.nanoTime() - startWallNanos;
+        synchronized (this) {
+            result = new JSONObject();
+            result.put("cpuCores", wall == 0 ? 0 : (double) cpu / wall);
+            result.put("heapAvgMb", heapSamples == 0 ? 0 : heapSum / heapSamples / (1024.0 * 1024));
+            result.put("heapMaxMb", heapMax / (1024.0 * 1024));
+            result.put("gcCount", collectors.stream().mapToLong(GarbageCollectorMXBean::getCollectionCount).sum()
+                    - startGcCount);
+            result.put("gcMillis", collectors.stream().mapToLong(GarbageCollectorMXBean::getCollectionTime).sum()
+                    - startGcMillis);
+        }
+        return result;
+    }
+
+    private synchronized void sampleHeap() {
+        long used = memory.getHeapMemoryUsage().getUsed();
+        heapSamples++;
+        heapSum += used;
+        heapMax = Math.max(heapMax, used);
+    }
+
+    private static JMXConnector connect(long pid) throws IOException {
+        try {
+            VirtualMachine vm = VirtualMachine.attach(Long.toString(pid));
+            try {
+                return JMXConnectorFactory.connect(new JMXServiceURL(vm.startLocalManagementAgent()));
+            } finally {
+                vm.detach();
+            }
+        } catch (com.sun.tools.attach.AttachNotSupportedException e) {
+            throw new IOException("Cannot attach to server process " + pid, e);
+        }
+    }
+
+    private static boolean accepts(int port) {
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress("localhost", port), 500);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Stops a server started here, letting its shutdown hook flush, and removes its directory.
+     */
+    @Override
+    public void close() throws IOException, InterruptedException {
+        sampler.shutdownNow();
+        if (connector != null) {
+            connector.close();
+        }
+        if (process == null) {
+            return;
+        }
+        process.destroy();
+        if (!process.waitFor(15, TimeUnit.SECONDS)) {
+            process.destroyForcibly();
+        }
+        try (Stream<Path> files = Files.walk(workDir)) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package suduoku.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import suduoku.solver.SudokuSolver;
+
+/**
+ * Puzzles solved per second by the {@link SudokuSolver} over a set of well-known hard puzzles.
+ * {@code unique} searches for a second solution as ingestion and the audit do; {@code first} stops at
+ * the first one as loading a board without a stored solution does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SolverBenchmark {
+    private static final String[] PUZZLES = {
+            // Arto Inkala's 2010 puzzle
+            "800000000003600000070090200050007000000045700000100030001000068008500010090000400",
+            // AI Escargot
+            "100007090030020008009600500005300900010080002600004000300000010040000007007000300",
+            // Platinum Blonde
+            "000000012000000003002300400001800005060070800000009000008500000900040500470006000",
+            // Golden Nugget
+            "000000039000001005003050800008090006070002000100400000009080050020000600400700000",
+            // Easter Monster
+            "100000002090400050006000700050903000000070000000850040700000600030009080002000001",
+            // 17 clues, worst case for naive backtracking
+            "000000000000003085001020000000507000004000100090000000500000073002010000000040009",
+    };
+
+    private byte[][] givens;
+
+    @Setup
+    public void setUp() {
+        givens = new byte[PUZZLES.length][];
+        for (int i = 0; i < PUZZLES.length; i++) {
+            givens[i] = new byte[PUZZLES[i].length()];
+            for (int cell = 0; cell < givens[i].length; cell++) {
+                givens[i][cell] = (byte) (PUZZLES[i].charAt(cell) - '0');
+            }
+            if (!SudokuSolver.solve(givens[i]).isUnique()) {
+                throw new IllegalStateException("Puzzle " + i + " does not have a unique solution");
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(6)
+    public void unique(Blackhole blackhole) {
+        for (byte[] puzzle : givens) {
+            blackhole.consume(SudokuSolver.solve(puzzle));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(6)
+    public void first(Blackhole blackhole) {
+        for (byte[] puzzle : givens) {
+            blackhole.consume(SudokuSolver.solve(puzzle, 1));
+        }
+    }
+}
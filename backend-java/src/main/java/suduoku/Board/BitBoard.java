@@ -0,0 +1,181 @@
+package suduoku.Board;
+
+/**
+ * Compact 9x9 board state.
+ * Values are stored in a byte per cell (0 for empty), candidates as a 9-bit mask per cell
+ * (bit n - 1 set for candidate n), given cells in a {@link CellSet}, and the values present in
+ * each row, column and box as 9-bit occupancy masks.
+ */
+public class BitBoard {
+    public static final int SIZE = 81;
+    public static final int ALL_CANDIDATES = 0x1FF;
+
+    private final byte[] values = new byte[SIZE];
+    private final short[] candidates = new short[SIZE];
+    private final CellSet given = new CellSet();
+
+    private final short[] rowMasks = new short[9];
+    private final short[] colMasks = new short[9];
+    private final short[] boxMasks = new short[9];
+
+    /**
+     * Converts a row and column to a cell index.
+     */
+    public static int index(int row, int col) {
+        return row * 9 + col;
+    }
+
+    /**
+     * Returns the box (0-8) containing a cell.
+     */
+    public static int box(int row, int col) {
+        return (row / 3) * 3 + col / 3;
+    }
+
+    public int getValue(int index) {
+        return values[index];
+    }
+
+    public int getValue(int row, int col) {
+        return values[index(row, col)];
+    }
+
+    public int getCandidates(int index) {
+        return candidates[index];
+    }
+
+    public int getCandidates(int row, int col) {
+        return candidates[index(row, col)];
+    }
+
+    public boolean isGiven(int index) {
+        return given.contains(index);
+    }
+
+    public boolean isEditable(int row, int col) {
+        return !isGiven(index(row, col));
+    }
+
+    /**
+     * Places a given (uneditable) value.
+     */
+    public void setGiven(int index, int value) {
+        given.add(index);
+        values[index] = (byte) value;
+        updateMasks(index / 9, index % 9);
+    }
+
+    /**
+     * Sets a cell value, keeping the occupancy masks of its row, column and box current.
+     *
+     * @param value The value (1-9), or 0 to clear
+     */
+    public void setValue(int index, int value) {
+        values[index] = (byte) value;
+        updateMasks(index / 9, index % 9);
+    }
+
+    public void setValue(int row, int col, int value) {
+        setValue(index(row, col), value);
+    }
+
+    public void setCandidates(int index, int mask) {
+        candidates[index] = (short) (mask & ALL_CANDIDATES);
+    }
+
+    /**
+     * Toggles a candidate on or off.
+     *
+     * @param candidate The candidate number (1-9)
+     */
+    public void toggleCandidate(int row, int col, int candidate) {
+        if (candidate < 1 || candidate > 9) {
+            throw new IllegalArgumentException("Candidate must be between 1 and 9");
+        }
+        candidates[index(row, col)] ^= (short) (1 << (candidate - 1));
+    }
+
+    /**
+     * Clears the value and candidates of every editable cell.
+     */
+    public void clearEditable() {
+        for (int i = 0; i < SIZE; i++) {
+            if (!isGiven(i)) {
+                values[i] = 0;
+                candidates[i] = 0;
+            }
+        }
+        for (int row = 0; row < 9; row++) {
+            recomputeRow(row);
+        }
+        for (int col = 0; col < 9; col++) {
+            recomputeCol(col);
+        }
+        for (int box = 0; box < 9; box++) {
+            recomputeBox(box);
+        }
+    }
+
+    /**
+     * Values present in a row, bit n - 1 set for value n.
+     */
+    public int getRowMask(int row) {
+        return rowMasks[row];
+    }
+
+    public int getColMask(int col) {
+        return colMasks[col];
+    }
+
+    public int getBoxMask(int box) {
+        return boxMasks[box];
+    }
+
+    private void updateMasks(int row, int col) {
+        recomputeRow(row);
+        recomputeCol(col);
+        recomputeBox(box(row, col));
+    }
+
+    private void recomputeRow(int row) {
+        int mask = 0;
+        for (int i = row * 9, end = i + 9; i < end; i++) {
+            mask |= bit(values[i]);
+        }
+        rowMasks[row] = (short) mask;
+    }
+
+    private void recomputeCol(int col) {
+        int mask = 0;
+        for (int i = col; i < SIZE; i += 9) {
+            mask |= bit(values[i]);
+        }
+        colMasks[col] = (short) mask;
+    }
+
+    private void recomputeBox(int box) {
+        int mask = 0;
+        int start = (box / 3) * 27 + (box % 3) * 3;
+        for (int r = 0; r < 3; r++) {
+            int i = start + r * 9;
+            mask |= bit(values[i]) | bit(values[i + 1]) | bit(values[i + 2]);
+        }
+        boxMasks[box] = (short) mask;
+    }
+
+    private static int bit(int value) {
+        return value == 0 ? 0 : 1 << (value - 1);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < SIZE; i++) {
+            sb.append(values[i] == 0 ? '.' : (char) ('0' + values[i]));
+            if (i % 9 == 8) {
+                sb.append('\n');
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -10,51 +10,118 @@ package suduoku.Board;
 public class BoardSerializer {
 
     /**
-     * Converts an SDX string to a Cell board.
+     * Converts an SDX string to a board.
      *
      * @param sdx The SDX format string
-     * @return A 9x9 Cell array
+     * @return The board, with given cells marked uneditable
      */
-    public static Cell[][] convertSDXToBoard(String sdx) {
-        String[] tokens = sdx.split(" ");
-        Cell[][] board = new Cell[9][9];
-
-        for (int i = 0; i < 9; i++) {
-            for (int j = 0; j < 9; j++) {
-                String token = tokens[i * 9 + j];
-                if (token.charAt(0) == 'u') {
-                    // Uneditable cell
-                    int value = Integer.parseInt(token.substring(1));
-                    board[i][j] = new Cell(value, false);
-                } else {
-                    // Editable cell
-                    Integer value = token.equals("0") ? null : Integer.valueOf(token);
-                    board[i][j] = new Cell(value, true);
+    public static BitBoard convertSDXToBoard(String sdx) {
+        BitBoard board = new BitBoard();
+        int pos = 0;
+        for (int i = 0; i < BitBoard.SIZE; i++) {
+            pos = skipSpaces(sdx, pos);
+            if (sdx.charAt(pos) == 'u') {
+                // Uneditable cell
+                board.setGiven(i, sdx.charAt(pos + 1) - '0');
+                pos += 2;
+            } else {
+                // Editable cell
+                int value = sdx.charAt(pos) - '0';
+                if (value != 0) {
+                    board.setValue(i, value);
                 }
+                pos++;
             }
         }
         return board;
     }
 
     /**
-     * Converts a Cell board back to SDX format string.
+     * Converts an SDX string to its cell values, ignoring editability.
+     *
+     * @param sdx The SDX format string
+     * @return 81 values in row-major order, 0 for empty
+     */
+    public static byte[] convertSDXToValues(String sdx) {
+        byte[] values = new byte[BitBoard.SIZE];
+        int pos = 0;
+        for (int i = 0; i < BitBoard.SIZE; i++) {
+            pos = skipSpaces(sdx, pos);
+            if (sdx.charAt(pos) == 'u') {
+                pos++;
+            }
+            values[i] = (byte) (sdx.charAt(pos) - '0');
+            pos++;
+        }
+        return values;
+    }
+
+    /**
+     * Reads only the given (uneditable) cells of an SDX string, ignoring any player entries.
+     *
+     * @param sdx The SDX format string
+     * @return 81 values in row-major order, 0 for editable cells
+     */
+    public static byte[] convertSDXToGivens(String sdx) {
+        byte[] givens = new byte[BitBoard.SIZE];
+        int pos = 0;
+        for (int i = 0; i < BitBoard.SIZE; i++) {
+            pos = skipSpaces(sdx, pos);
+            if (sdx.charAt(pos) == 'u') {
+                pos++;
+                givens[i] = (byte) (sdx.charAt(pos) - '0');
+            }
+            pos++;
+        }
+        return givens;
+    }
+
+    /**
+     * Converts cell values to SDX, marking the given cells uneditable.
      *
-     * @param board The 9x9 Cell array
+     * @param givens 81 values, non-zero for uneditable cells
+     * @param values 81 values for the editable cells, 0 for empty
      * @return The SDX format string
      */
-    public static String convertBoardToSDX(Cell[][] board) {
-        StringBuilder sdx = new StringBuilder();
-        for (int i = 0; i < 9; i++) {
-            for (int j = 0; j < 9; j++) {
-                if (!board[i][j].isEditable()) {
-                    sdx.append("u").append(board[i][j].getValue()).append(" ");
-                } else {
-                    Integer value = board[i][j].getValue();
-                    sdx.append(value == null ? "0" : value).append(" ");
-                }
+    public static String convertValuesToSDX(byte[] givens, byte[] values) {
+        StringBuilder sdx = new StringBuilder(BitBoard.SIZE * 3);
+        for (int i = 0; i < BitBoard.SIZE; i++) {
+            if (i > 0) {
+                sdx.append(' ');
+            }
+            if (givens[i] != 0) {
+                sdx.append('u').append(givens[i]);
+            } else {
+                sdx.append(values[i]);
             }
         }
-        return sdx.toString().trim();
+        return sdx.toString();
+    }
+
+    /**
+     * Converts a board back to SDX format string.
+     *
+     * @param board The board
+     * @return The SDX format string
+     */
+    public static String convertBoardToSDX(BitBoard board) {
+        StringBuilder sdx = new StringBuilder(BitBoard.SIZE * 3);
+        for (int i = 0; i < BitBoard.SIZE; i++) {
+            if (i > 0) {
+                sdx.append(' ');
+            }
+            if (board.isGiven(i)) {
+                sdx.append('u');
+            }
+            sdx.append((char) ('0' + board.getValue(i)));
+        }
+        return sdx.toString();
     }
-}
 
+    private static int skipSpaces(String sdx, int pos) {
+        while (sdx.charAt(pos) == ' ') {
+            pos++;
+        }
+        return pos;
+    }
+}
@@ -0,0 +1,16 @@
+package suduoku.Board;
+
+/**
+ * Immutable copy of the persisted state of a board, taken for the write-behind flush.
+ *
+ * @param puzzleId       The puzzle the state belongs to
+ * @param sdx            The board in SDX format
+ * @param candidates     The board candidates in the packed format
+ * @param elapsedSeconds The room clock reading
+ * @param status         How far the puzzle has been played
+ * @param progress       Percentage of editable cells filled
+ * @param solvedAt       When the puzzle was first solved, in epoch milliseconds, or 0
+ */
+public record BoardSnapshot(int puzzleId, String sdx, byte[] candidates, long elapsedSeconds,
+                            PuzzleStatus status, int progress, long solvedAt) {
+}
@@ -1,74 +1,147 @@
 package suduoku.Board;
 
-import java.util.HashSet;
-import java.util.Set;
-
 /**
- * Handles serialization and deserialization of candidates to/from a compact format.
- * Format: space-separated cells, each cell format is "row,col:1,2,3" (colon-separated candidates)
+ * Handles serialization and deserialization of candidates.
+ * Boards are stored in the packed format: the 9-bit candidate mask of every cell, in cell order,
+ * packed least significant bit first into {@link #PACKED_SIZE} bytes. Neither direction allocates
+ * beyond the output array.
+ * The legacy text format is still read, so rows saved before the packed format can be migrated:
+ * space-separated cells, each cell format is "row,col:1,2,3" (colon-separated candidates)
  * Example: "0,0:1,2,3 0,1:5,6"
  */
 public class CandidatesSerializer {
+    private static final int BITS_PER_CELL = 9;
+
+    /**
+     * Size of a packed candidates blob: 81 cells of 9 bits, rounded up to whole bytes.
+     */
+    public static final int PACKED_SIZE = (BitBoard.SIZE * BITS_PER_CELL + 7) / 8;
+
+    /**
+     * Packs the candidates of a board.
+     *
+     * @param board The board
+     * @return A new array of {@link #PACKED_SIZE} bytes
+     */
+    public static byte[] convertBoardToCandidatesBlob(BitBoard board) {
+        byte[] packed = new byte[PACKED_SIZE];
+        convertBoardToCandidatesBlob(board, packed);
+        return packed;
+    }
+
+    /**
+     * Packs the candidates of a board into an existing array.
+     *
+     * @param board  The board
+     * @param packed Array of at least {@link #PACKED_SIZE} bytes to write to
+     */
+    public static void convertBoardToCandidatesBlob(BitBoard board, byte[] packed) {
+        long bits = 0;
+        int bitCount = 0;
+        int pos = 0;
+        for (int i = 0; i < BitBoard.SIZE; i++) {
+            bits |= (long) board.getCandidates(i) << bitCount;
+            bitCount += BITS_PER_CELL;
+            while (bitCount >= 8) {
+                packed[pos++] = (byte) bits;
+                bits >>>= 8;
+                bitCount -= 8;
+            }
+        }
+        // The last cell ends one bit into the final byte
+        packed[pos] = (byte) bits;
+    }
 
     /**
-     * Converts candidates from a Cell board to a compact string format.
+     * Unpacks candidates onto a board, replacing the candidates of every cell.
      *
-     * @param board The 9x9 Cell array
+     * @param packed The packed candidates
+     * @param board  The board to populate with candidates
+     * @throws IllegalArgumentException If the blob is not {@link #PACKED_SIZE} bytes
+     */
+    public static void convertCandidatesBlobToBoard(byte[] packed, BitBoard board) {
+        if (packed.length != PACKED_SIZE) {
+            throw new IllegalArgumentException("Packed candidates must be " + PACKED_SIZE + " bytes, not " + packed.length);
+        }
+        long bits = 0;
+        int bitCount = 0;
+        int pos = 0;
+        for (int i = 0; i < BitBoard.SIZE; i++) {
+            while (bitCount < BITS_PER_CELL) {
+                bits |= (long) (packed[pos++] & 0xFF) << bitCount;
+                bitCount += 8;
+            }
+            board.setCandidates(i, (int) bits & BitBoard.ALL_CANDIDATES);
+            bits >>>= BITS_PER_CELL;
+            bitCount -= BITS_PER_CELL;
+        }
+    }
+
+    /**
+     * Converts candidates from a board to the legacy string format.
+     *
+     * @param board The board
      * @return Compact string representation of candidates (or empty string if none exist)
      */
-    public static String convertBoardToCandidatesString(Cell[][] board) {
+    public static String convertBoardToCandidatesString(BitBoard board) {
         StringBuilder sb = new StringBuilder();
-        boolean hasAny = false;
 
-        for (int i = 0; i < 9; i++) {
-            for (int j = 0; j < 9; j++) {
-                Cell cell = board[i][j];
-                if (!cell.getCandidates().isEmpty()) {
-                    if (hasAny) {
-                        sb.append(" ");
-                    }
-                    sb.append(i).append(",").append(j).append(":");
-                    cell.getCandidates().stream()
-                            .sorted()
-                            .forEach(c -> sb.append(c).append(","));
-                    // Remove trailing comma
-                    sb.setLength(sb.length() - 1);
-                    hasAny = true;
+        for (int i = 0; i < BitBoard.SIZE; i++) {
+            int mask = board.getCandidates(i);
+            if (mask == 0) {
+                continue;
+            }
+            if (!sb.isEmpty()) {
+                sb.append(' ');
+            }
+            sb.append(i / 9).append(',').append(i % 9).append(':');
+            // Mask bits are visited in ascending order, so candidates come out sorted
+            for (int candidate = 1; candidate <= 9; candidate++) {
+                if ((mask & (1 << (candidate - 1))) != 0) {
+                    sb.append(candidate).append(',');
                 }
             }
+            // Remove trailing comma
+            sb.setLength(sb.length() - 1);
         }
 
         return sb.toString();
     }
 
     /**
-     * Converts a candidates string back to a Cell board.
+     * Converts a legacy candidates string back onto a board.
      *
      * @param candidatesString The compact string representation
-     * @param board The 9x9 Cell array to populate with candidates
+     * @param board The board to populate with candidates
      */
-    public static void convertCandidatesStringToBoard(String candidatesString, Cell[][] board) {
+    public static void convertCandidatesStringToBoard(String candidatesString, BitBoard board) {
         if (candidatesString == null || candidatesString.isEmpty()) {
             return;
         }
 
-        String[] cells = candidatesString.split(" ");
-        for (String cellStr : cells) {
-            String[] parts = cellStr.split(":");
-            if (parts.length == 2) {
-                String[] coords = parts[0].split(",");
-                int row = Integer.parseInt(coords[0]);
-                int col = Integer.parseInt(coords[1]);
+        int length = candidatesString.length();
+        int pos = 0;
+        while (pos < length) {
+            char c = candidatesString.charAt(pos);
+            if (c == ' ') {
+                pos++;
+                continue;
+            }
 
-                Set<Integer> candidates = new HashSet<>();
-                String[] candidateStrs = parts[1].split(",");
-                for (String candStr : candidateStrs) {
-                    candidates.add(Integer.parseInt(candStr));
-                }
+            // "row,col:" prefix
+            int row = c - '0';
+            int col = candidatesString.charAt(pos + 2) - '0';
+            pos += 4;
 
-                board[row][col].setCandidates(candidates);
+            int mask = 0;
+            while (pos < length && candidatesString.charAt(pos) != ' ') {
+                char digit = candidatesString.charAt(pos);
+                if (digit != ',') {
+                    mask |= 1 << (digit - '1');
+                }
+                pos++;
             }
+            board.setCandidates(BitBoard.index(row, col), mask);
         }
     }
 }
-
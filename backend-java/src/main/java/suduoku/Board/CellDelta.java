@@ -0,0 +1,41 @@
+package suduoku.Board;
+
+import org.json.JSONObject;
+
+import suduoku.protocol.BinaryCodec;
+
+/**
+ * A single-cell change to a board, tagged with the board version it produced.
+ * Clients apply deltas in version order and request a full snapshot when they see a gap.
+ *
+ * @param puzzleId   The puzzle the change belongs to
+ * @param version    The board version after the change
+ * @param row        The row index (0-8)
+ * @param col        The column index (0-8)
+ * @param value      The cell value (1-9), or 0 for empty
+ * @param candidates The candidate bitmask, bit (n - 1) set when candidate n is present
+ */
+public record CellDelta(int puzzleId, long version, int row, int col, int value, int candidates) {
+
+    /**
+     * Converts the delta to the "cellDelta" message sent to the frontend.
+     */
+    public JSONObject toJSON() {
+        JSONObject json = new JSONObject();
+        json.put("type", "cellDelta");
+        json.put("puzzleId", puzzleId);
+        json.put("version", version);
+        json.put("row", row);
+        json.put("col", col);
+        json.put("value", value);
+        json.put("candidates", candidates);
+        return json;
+    }
+
+    /**
+     * Encodes the delta as a binary protocol frame.
+     */
+    public byte[] toBinary() {
+        return BinaryCodec.encodeCellDelta(this);
+    }
+}
@@ -0,0 +1,80 @@
+package suduoku.Board;
+
+/**
+ * A set of board cells held as an 81-bit bitset across two longs.
+ */
+public class CellSet {
+    private long low;
+    private long high;
+
+    public boolean contains(int index) {
+        return index < 64 ? (low & (1L << index)) != 0 : (high & (1L << (index - 64))) != 0;
+    }
+
+    public void add(int index) {
+        if (index < 64) {
+            low |= 1L << index;
+        } else {
+            high |= 1L << (index - 64);
+        }
+    }
+
+    /**
+     * Removes a cell from the set.
+     *
+     * @return True if the cell was in the set
+     */
+    public boolean remove(int index) {
+        boolean present = contains(index);
+        if (index < 64) {
+            low &= ~(1L << index);
+        } else {
+            high &= ~(1L << (index - 64));
+        }
+        return present;
+    }
+
+    public void set(int index, boolean present) {
+        if (present) {
+            add(index);
+        } else {
+            remove(index);
+        }
+    }
+
+    public void clear() {
+        low = 0;
+        high = 0;
+    }
+
+    public void copyFrom(CellSet other) {
+        this.low = other.low;
+        this.high = other.high;
+    }
+
+    public boolean isEmpty() {
+        return (low | high) == 0;
+    }
+
+    public int size() {
+        return Long.bitCount(low) + Long.bitCount(high);
+    }
+
+    /**
+     * Returns the first cell in the set at or after the index, or -1 if there is none.
+     */
+    public int nextCell(int from) {
+        if (from < 64) {
+            long bits = low & (-1L << from);
+            if (bits != 0) {
+                return Long.numberOfTrailingZeros(bits);
+            }
+            from = 64;
+        }
+        if (from >= BitBoard.SIZE) {
+            return -1;
+        }
+        long bits = high & (-1L << (from - 64));
+        return bits == 0 ? -1 : 64 + Long.numberOfTrailingZeros(bits);
+    }
+}
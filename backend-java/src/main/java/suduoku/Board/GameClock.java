@@ -0,0 +1,74 @@
+package suduoku.Board;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Server-owned elapsed time for a shared puzzle.
+ * Runs while anyone is in the room, pauses while it is empty and stops once the puzzle is
+ * solved, until the board is cleared. Not thread-safe; confined with the board that owns it.
+ */
+public class GameClock {
+    private long accumulatedNanos;
+    private long runningSince;
+    private boolean running;
+    private boolean stopped;
+
+    /**
+     * @param elapsedSeconds Previously persisted elapsed time
+     * @param stopped        Whether the puzzle is already solved
+     */
+    public GameClock(long elapsedSeconds, boolean stopped) {
+        this.accumulatedNanos = TimeUnit.SECONDS.toNanos(elapsedSeconds);
+        this.stopped = stopped;
+    }
+
+    /**
+     * Starts or resumes the clock. Does nothing if it is running or stopped.
+     */
+    public void resume() {
+        if (!running && !stopped) {
+            runningSince = System.nanoTime();
+            running = true;
+        }
+    }
+
+    /**
+     * Pauses the clock, keeping the time counted so far.
+     */
+    public void pause() {
+        if (running) {
+            accumulatedNanos += System.nanoTime() - runningSince;
+            running = false;
+        }
+    }
+
+    /**
+     * Pauses the clock permanently.
+     */
+    public void stop() {
+        pause();
+        stopped = true;
+    }
+
+    /**
+     * Starts over from zero and runs, undoing a stop.
+     */
+    public void restart() {
+        accumulatedNanos = 0;
+        runningSince = System.nanoTime();
+        running = true;
+        stopped = false;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public long getElapsedSeconds() {
+        long nanos = accumulatedNanos;
+        if (running) {
+            nanos += System.nanoTime() - runningSince;
+        }
+        return TimeUnit.NANOSECONDS.toSeconds(nanos);
+    }
+}
@@ -0,0 +1,31 @@
+package suduoku.Board;
+
+import lombok.Getter;
+
+/**
+ * How far a puzzle has been played, as stored in {@code puzzles.status} and shown in the lobby.
+ */
+public enum PuzzleStatus {
+    NOT_STARTED("not started"),
+    IN_PROGRESS("in progress"),
+    SOLVED("solved");
+
+    @Getter
+    private final String label;
+
+    PuzzleStatus(String label) {
+        this.label = label;
+    }
+
+    /**
+     * @return The status with the stored label, or {@link #NOT_STARTED} if it is not recognised
+     */
+    public static PuzzleStatus fromLabel(String label) {
+        for (PuzzleStatus status : values()) {
+            if (status.label.equals(label)) {
+                return status;
+            }
+        }
+        return NOT_STARTED;
+    }
+}
@@ -1,94 +1,151 @@
 package suduoku.Board;
 
-import java.sql.Connection;
-import java.sql.DriverManager;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
 import org.json.JSONArray;
 import org.json.JSONObject;
-
-import static suduoku.Constants.DB_URL;
+import suduoku.database.BoardWriter;
+import suduoku.database.Database;
+import suduoku.protocol.BinaryCodec;
+import suduoku.solver.SolveResult;
+import suduoku.solver.SudokuSolver;
 
 /**
  * Represents a complete 9x9 Sudoku board with solution tracking.
  * Manages the current state, solution, and incorrect cells.
+ * The number of correctly filled cells, the number of filled cells and the set of wrong cells
+ * are kept up to date on every edit, so solved, progress and incorrect-cell checks never rescan
+ * the board. Progress and status are persisted with the board for the lobby.
+ * Also owns the room's {@link GameClock}, which is persisted alongside the board.
+ * <p>
+ * Not thread-safe: the board is confined to its room's mailbox, and every method other than
+ * {@link #snapshot()} must be called from a task running there.
  */
+@Log4j2
 public class SudokuBoard {
-    private final int puzzleId;
-    private String title;
-    private String difficulty;
-    private Cell[][] board;
-    private Cell[][] solution;
+    private static final String LOAD_QUERY = "SELECT title, difficulty, sdx, sdx_solution, "
+            + "candidates, COALESCE(elapsed_time, 0) as elapsed_time, "
+            + "status, progress, COALESCE(solved_at, 0) as solved_at FROM puzzles WHERE id = ?";
 
     @Getter
-    private final List<int[]> incorrectCells;
+    private final int puzzleId;
+    private final BoardWriter boardWriter;
+    private final Executor mailbox;
+    private final String title;
+    private final String difficulty;
+    private final BitBoard board;
+    private final byte[] solution;
+    private final GameClock clock;
 
-    /**
-     * Loads a Sudoku puzzle from the database.
-     *
-     * @param puzzleId The ID of the puzzle to load
-     */
-    public SudokuBoard(int puzzleId) {
+    private long version;
+
+    private final int editableCount;
+    private int filledCount;
+    private int correctCount;
+    private long solvedAt;
+    private final CellSet wrongCells = new CellSet();
+    private final CellSet incorrectCells = new CellSet();
+
+    private SudokuBoard(int puzzleId, BoardWriter boardWriter, Executor mailbox, String title, String difficulty,
+            BitBoard board, byte[] solution, long elapsedSeconds, long solvedAt) {
         this.puzzleId = puzzleId;
-        this.incorrectCells = new ArrayList<>();
-        loadPuzzleFromDB();
-        loadSolutionFromDB();
+        this.boardWriter = boardWriter;
+        this.mailbox = mailbox;
+        this.title = title;
+        this.difficulty = difficulty;
+        this.board = board;
+        this.solution = solution;
+        this.editableCount = countEditable(board);
+        this.solvedAt = solvedAt;
+        recountCells();
+        this.clock = new GameClock(elapsedSeconds, isSolved());
     }
 
     /**
-     * Loads the puzzle (board state) from the database.
+     * Loads a Sudoku puzzle, its solution and saved progress from the database in one query.
+     *
+     * @param puzzleId    The ID of the puzzle to load
+     * @param database    The database the puzzle is loaded from
+     * @param boardWriter The writer that persists edits to this board
+     * @param mailbox     The room mailbox the board is confined to
+     * @return The board, or null if there is no puzzle with the ID
      */
-    private void loadPuzzleFromDB() {
-        String query = "SELECT title, difficulty, sdx, COALESCE(candidates, '') as candidates FROM puzzles WHERE id = ?";
+    public static SudokuBoard load(int puzzleId, Database database, BoardWriter boardWriter, Executor mailbox)
+            throws SQLException {
+        return database.query(LOAD_QUERY, stmt -> stmt.setInt(1, puzzleId), rs -> {
+            if (!rs.next()) {
+                return null;
+            }
+            String sdx = rs.getString("sdx");
+            BitBoard board = BoardSerializer.convertSDXToBoard(sdx);
 
-        try (Connection conn = DriverManager.getConnection(DB_URL);
-                PreparedStatement stmt = conn.prepareStatement(query)) {
-            stmt.setInt(1, puzzleId);
-            ResultSet rs = stmt.executeQuery();
+            // Candidates are packed, or text in rows last saved before the packed format
+            boolean legacyCandidates = switch (rs.getObject("candidates")) {
+                case byte[] packed -> {
+                    CandidatesSerializer.convertCandidatesBlobToBoard(packed, board);
+                    yield false;
+                }
+                case String text -> {
+                    CandidatesSerializer.convertCandidatesStringToBoard(text, board);
+                    yield !text.isEmpty();
+                }
+                case null, default -> false;
+            };
 
-            if (rs.next()) {
-                this.board = BoardSerializer.convertSDXToBoard(rs.getString("sdx"));
-                this.title = rs.getString("title");
-                this.difficulty = rs.getString("difficulty");
+            byte[] solution = loadSolution(puzzleId, sdx, rs.getString("sdx_solution"));
+            SudokuBoard sudokuBoard = new SudokuBoard(puzzleId, boardWriter, mailbox, rs.getString("title"),
+                    rs.getString("difficulty"), board, solution, rs.getLong("elapsed_time"), rs.getLong("solved_at"));
 
-                // Load candidates if they exist
-                String candidatesStr = rs.getString("candidates");
-                if (candidatesStr != null && !candidatesStr.isEmpty()) {
-                    CandidatesSerializer.convertCandidatesStringToBoard(candidatesStr, this.board);
-                }
-            } else {
-                this.board = new Cell[9][9];
+            // Rows saved before progress was tracked or candidates were packed are brought up to date
+            // on first load
+            if (legacyCandidates || sudokuBoard.getStatus() != PuzzleStatus.fromLabel(rs.getString("status"))
+                    || sudokuBoard.getProgress() != rs.getInt("progress")) {
+                boardWriter.markDirty(sudokuBoard);
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+            return sudokuBoard;
+        });
     }
 
     /**
-     * Loads the solution from the database.
+     * Reads the stored solution, or solves the puzzle if the solution is missing or does not fit
+     * its givens, so a bad import cannot make the puzzle unsolvable.
      */
-    private void loadSolutionFromDB() {
-        String query = "SELECT sdx_solution FROM puzzles WHERE id = ?";
+    private static byte[] loadSolution(int puzzleId, String sdx, String solutionSdx) {
+        byte[] givens = BoardSerializer.convertSDXToGivens(sdx);
+        if (solutionSdx != null && !solutionSdx.isBlank()) {
+            try {
+                byte[] solution = BoardSerializer.convertSDXToValues(solutionSdx);
+                if (fitsGivens(solution, givens) && SudokuSolver.isValidSolution(solution)) {
+                    return solution;
+                }
+            } catch (IndexOutOfBoundsException e) {
+                // Truncated; solved below
+            }
+        }
 
-        try (Connection conn = DriverManager.getConnection(DB_URL);
-                PreparedStatement stmt = conn.prepareStatement(query)) {
-            stmt.setInt(1, puzzleId);
-            ResultSet rs = stmt.executeQuery();
+        SolveResult result = SudokuSolver.solve(givens, 1);
+        if (!result.isSolvable()) {
+            log.warn("Puzzle {} has no usable solution and cannot be solved", puzzleId);
+            // All zeros: the solution is unknown, so no cell is ever reported wrong
+            return new byte[BitBoard.SIZE];
+        }
+        log.warn("Puzzle {} has a missing or invalid stored solution; using the solver's", puzzleId);
+        return result.solution();
+    }
 
-            if (rs.next()) {
-                this.solution = BoardSerializer.convertSDXToBoard(rs.getString("sdx_solution"));
-            } else {
-                this.solution = new Cell[9][9];
+    private static boolean fitsGivens(byte[] solution, byte[] givens) {
+        for (int i = 0; i < BitBoard.SIZE; i++) {
+            if (givens[i] != 0 && givens[i] != solution[i]) {
+                return false;
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
         }
+        return true;
     }
 
     /**
@@ -103,13 +160,19 @@ public class SudokuBoard {
             JSONArray row = new JSONArray();
             for (int j = 0; j < 9; j++) {
                 JSONObject cell = new JSONObject();
-                Cell boardCell = board[i][j];
+                int value = board.getValue(i, j);
 
-                cell.put("value", boardCell.getValue() == null ? "" : boardCell.getValue());
-                cell.put("isEditable", boardCell.isEditable());
+                cell.put("value", value == 0 ? "" : value);
+                cell.put("isEditable", board.isEditable(i, j));
 
                 // Include candidates as an array
-                JSONArray candidatesArray = new JSONArray(boardCell.getCandidates());
+                JSONArray candidatesArray = new JSONArray();
+                int mask = board.getCandidates(i, j);
+                for (int candidate = 1; candidate <= 9; candidate++) {
+                    if ((mask & (1 << (candidate - 1))) != 0) {
+                        candidatesArray.put(candidate);
+                    }
+                }
                 cell.put("candidates", candidatesArray);
 
                 row.put(cell);
@@ -118,23 +181,60 @@ public class SudokuBoard {
         }
 
         jsonResponse.put("type", "updatePuzzle");
+        jsonResponse.put("puzzleId", this.puzzleId);
+        jsonResponse.put("version", this.version);
         jsonResponse.put("board", rows);
-        jsonResponse.put("title", this.title + "  " + this.difficulty.toUpperCase());
+        jsonResponse.put("title", getDisplayTitle());
         return jsonResponse;
     }
 
+    /**
+     * Encodes the same board state as {@link #getBoardJSON()} as a binary protocol frame.
+     */
+    public byte[] getBoardBinary() {
+        return BinaryCodec.encodeBoard(puzzleId, version, getDisplayTitle(), board);
+    }
+
+    private String getDisplayTitle() {
+        return this.title + "  " + this.difficulty.toUpperCase();
+    }
+
     /**
      * Sets a cell value and updates candidates.
      *
      * @param row   The row index (0-8)
      * @param col   The column index (0-8)
      * @param value The value to set (1-9, or 0 to clear)
+     * @return The resulting change, or null if the cell is not editable
      */
-    public void setCell(int row, int col, int value) {
-        if (board[row][col].isEditable()) {
-            board[row][col].setValue(value);
-            updateDB();
+    public CellDelta setCell(int row, int col, int value) {
+        if (!board.isEditable(row, col)) {
+            return null;
         }
+        int index = BitBoard.index(row, col);
+        int previous = board.getValue(index);
+        if (isCorrect(index, previous)) {
+            correctCount--;
+        }
+        if (previous != 0) {
+            filledCount--;
+        }
+        board.setValue(index, value);
+        if (isCorrect(index, value)) {
+            correctCount++;
+        }
+        if (value != 0) {
+            filledCount++;
+        }
+        wrongCells.set(index, isWrong(index, value));
+        if (isSolved()) {
+            clock.stop();
+            if (solvedAt == 0) {
+                solvedAt = System.currentTimeMillis();
+            }
+        }
+        boardWriter.markDirty(this);
+        return cellDelta(row, col);
     }
 
     /**
@@ -143,97 +243,195 @@ public class SudokuBoard {
      * @param row       The row index (0-8)
      * @param col       The column index (0-8)
      * @param candidate The candidate to toggle (1-9)
+     * @return The resulting change, or null if the cell is not editable
      */
-    public void toggleCandidate(int row, int col, int candidate) {
-        if (board[row][col].isEditable()) {
-            board[row][col].toggleCandidate(candidate);
-            updateDB();
+    public CellDelta toggleCandidate(int row, int col, int candidate) {
+        if (!board.isEditable(row, col)) {
+            return null;
         }
+        board.toggleCandidate(row, col, candidate);
+        boardWriter.markDirty(this);
+        return cellDelta(row, col);
     }
 
     /**
-     * Clears all editable cells.
+     * Bumps the board version and describes the current state of one cell.
+     */
+    private CellDelta cellDelta(int row, int col) {
+        return new CellDelta(puzzleId, ++version, row, col, board.getValue(row, col), board.getCandidates(row, col));
+    }
+
+    /**
+     * Clears all editable cells and starts a new attempt: the solved time is forgotten and the
+     * clock restarts from zero, so the puzzle reads as not started again.
      */
     public void clearBoard() {
-        for(Cell[] row : board) {
-            for(Cell cell : row) {
-                if(cell.isEditable()) {
-                    cell.setValue(null);
-                    cell.clearCell();
-                }
-            }
-        }
-        updateDB();
+        board.clearEditable();
+        recountCells();
+        solvedAt = 0;
+        clock.restart();
+        version++;
+        boardWriter.markDirty(this);
     }
 
     /**
-     * Persists the board state to the database.
+     * Captures the persisted board state for the write-behind flush. Safe to call from any thread;
+     * the capture runs on the board's mailbox, after every edit queued before it.
      */
-    private void updateDB() {
-        String sdx = BoardSerializer.convertBoardToSDX(board);
-        String candidates = CandidatesSerializer.convertBoardToCandidatesString(board);
-        String query = "UPDATE puzzles SET sdx = ?, candidates = ? WHERE id = ?";
+    public CompletableFuture<BoardSnapshot> snapshot() {
+        return CompletableFuture.supplyAsync(() -> {
+            String sdx = BoardSerializer.convertBoardToSDX(board);
+            byte[] candidates = CandidatesSerializer.convertBoardToCandidatesBlob(board);
+            return new BoardSnapshot(puzzleId, sdx, candidates, clock.getElapsedSeconds(), getStatus(), getProgress(),
+                    solvedAt);
+        }, mailbox);
+    }
 
-        try (Connection conn = DriverManager.getConnection(DB_URL);
-                PreparedStatement stmt = conn.prepareStatement(query)) {
-            stmt.setString(1, sdx);
-            stmt.setString(2, candidates);
-            stmt.setInt(3, this.puzzleId);
-            stmt.executeUpdate();
-        } catch (SQLException e) {
-            e.printStackTrace();
+    /**
+     * Starts or resumes the clock when the room becomes occupied.
+     */
+    public void resumeClock() {
+        clock.resume();
+    }
+
+    /**
+     * Pauses the clock when the room empties and queues the elapsed time to be persisted.
+     */
+    public void pauseClock() {
+        if (clock.isRunning()) {
+            clock.pause();
+            boardWriter.markDirty(this);
         }
     }
 
+    public boolean isClockRunning() {
+        return clock.isRunning();
+    }
+
     /**
-     * Updates the list of incorrect cells by comparing with the solution.
+     * Builds the clock sync message clients interpolate from.
+     */
+    public JSONObject getElapsedTimeJSON() {
+        JSONObject jsonResponse = new JSONObject();
+        jsonResponse.put("type", "updateElapsedTime");
+        jsonResponse.put("puzzleId", this.puzzleId);
+        jsonResponse.put("elapsedTime", clock.getElapsedSeconds());
+        jsonResponse.put("running", clock.isRunning());
+        return jsonResponse;
+    }
+
+    /**
+     * Flags every currently wrong cell as incorrect.
      */
     public void updateIncorrectCells() {
-        incorrectCells.clear();
-        for (int i = 0; i < 9; i++) {
-            for (int j = 0; j < 9; j++) {
-                Integer boardValue = board[i][j].getValue();
-                Integer solutionValue = solution[i][j].getValue();
-                if ((boardValue != null && boardValue != 0) && !boardValue.equals(solutionValue)) {
-                    incorrectCells.add(new int[] { i, j });
-                }
-            }
+        incorrectCells.copyFrom(wrongCells);
+    }
+
+    /**
+     * Returns the flagged incorrect cells as {row, col} pairs.
+     */
+    public List<int[]> getIncorrectCells() {
+        List<int[]> cells = new ArrayList<>(incorrectCells.size());
+        for (int i = incorrectCells.nextCell(0); i != -1; i = incorrectCells.nextCell(i + 1)) {
+            cells.add(new int[] { i / 9, i % 9 });
         }
+        return cells;
     }
 
     /**
      * Clears the incorrect cells list.
      */
     public void clearIncorrectCells() {
-        this.incorrectCells.clear();
+        incorrectCells.clear();
     }
 
     /**
      * Removes a specific cell from the incorrect cells list.
+     *
+     * @return True if the cell was flagged as incorrect
      */
-    public void removeIncorrectCell(int[] cellToRemove) {
-        for (int i = 0; i < incorrectCells.size(); i++) {
-            if (Arrays.equals(incorrectCells.get(i), cellToRemove)) {
-                incorrectCells.remove(i);
-                return;
-            }
-        }
+    public boolean removeIncorrectCell(int row, int col) {
+        return incorrectCells.remove(BitBoard.index(row, col));
     }
 
     /**
      * Checks if the puzzle is completely solved.
      */
     public boolean isSolved() {
-        for (int i = 0; i < 9; i++) {
-            for (int j = 0; j < 9; j++) {
-                Integer boardValue = board[i][j].getValue();
-                Integer solutionValue = solution[i][j].getValue();
-                if (boardValue == null || !boardValue.equals(solutionValue)) {
-                    return false;
-                }
+        return correctCount == BitBoard.SIZE;
+    }
+
+    /**
+     * Solved once the puzzle has been solved since it was last cleared, in progress once any
+     * editable cell is filled, otherwise not started.
+     */
+    public PuzzleStatus getStatus() {
+        if (solvedAt != 0) {
+            return PuzzleStatus.SOLVED;
+        }
+        return filledCount > 0 ? PuzzleStatus.IN_PROGRESS : PuzzleStatus.NOT_STARTED;
+    }
+
+    /**
+     * Number of editable cells holding a value, right or wrong.
+     */
+    public int getFilledCount() {
+        return filledCount;
+    }
+
+    /**
+     * When the puzzle was first solved since it was last cleared, in epoch milliseconds, or 0 if
+     * it has not been.
+     */
+    public long getSolvedAt() {
+        return solvedAt;
+    }
+
+    /**
+     * Percentage of editable cells filled, 0-100.
+     */
+    public int getProgress() {
+        return editableCount == 0 ? 100 : filledCount * 100 / editableCount;
+    }
+
+    /**
+     * Rebuilds the correct, filled and wrong cell counts from scratch, after loading or clearing.
+     */
+    private void recountCells() {
+        correctCount = 0;
+        filledCount = 0;
+        wrongCells.clear();
+        for (int i = 0; i < BitBoard.SIZE; i++) {
+            int value = board.getValue(i);
+            if (value != 0 && !board.isGiven(i)) {
+                filledCount++;
+            }
+            if (isCorrect(i, value)) {
+                correctCount++;
+            } else if (isWrong(i, value)) {
+                wrongCells.add(i);
             }
         }
-        return true;
     }
-}
 
+    private static int countEditable(BitBoard board) {
+        int editable = 0;
+        for (int i = 0; i < BitBoard.SIZE; i++) {
+            if (!board.isGiven(i)) {
+                editable++;
+            }
+        }
+        return editable;
+    }
+
+    private boolean isCorrect(int index, int value) {
+        return value != 0 && value == solution[index];
+    }
+
+    /**
+     * Givens are never wrong, and nothing is wrong where the solution is unknown.
+     */
+    private boolean isWrong(int index, int value) {
+        return value != 0 && solution[index] != 0 && value != solution[index] && !board.isGiven(index);
+    }
+}
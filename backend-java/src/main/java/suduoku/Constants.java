@@ -1,8 +1,49 @@
 package suduoku;
 
 public class Constants {
-    public static final String DB_URL = "jdbc:sqlite:db/sudokugames.db";
-    public static final String SCRAPER_PATH = "./src/main/python/sudoku_scraper.py";
+    public static final String DB_URL = envString("DB_URL", "jdbc:sqlite:db/sudokugames.db");
+
+    // Connection pool
+    public static final int DB_READER_CONNECTIONS = (int) envLong("DB_READER_CONNECTIONS", 4);
+
+    // Write-behind board persistence
+    public static final long BOARD_FLUSH_INTERVAL_MS = envLong("BOARD_FLUSH_INTERVAL_MS", 2000);
+    public static final int BOARD_FLUSH_DIRTY_THRESHOLD = (int) envLong("BOARD_FLUSH_DIRTY_THRESHOLD", 64);
+
+    // Board cache
+    public static final int BOARD_CACHE_MAX_BOARDS = (int) envLong("BOARD_CACHE_MAX_BOARDS", 256);
+    public static final long BOARD_IDLE_EVICT_MS = envLong("BOARD_IDLE_EVICT_MS", 600000);
+
+    // Outbound session queues
+    public static final int OUTBOUND_QUEUE_LIMIT = (int) envLong("OUTBOUND_QUEUE_LIMIT", 256);
+    public static final long OUTBOUND_OVERFLOW_GRACE_MS = envLong("OUTBOUND_OVERFLOW_GRACE_MS", 5000);
+
+    // Inbound message dispatch: "direct" or "virtual"
+    public static final String MESSAGE_DISPATCH_MODE = envString("MESSAGE_DISPATCH_MODE", "direct");
+
+    // Room mailboxes
+    public static final int ROOM_WORKER_THREADS = (int) envLong("ROOM_WORKER_THREADS", Runtime.getRuntime().availableProcessors());
+
+    // Room clocks
+    public static final long CLOCK_SYNC_INTERVAL_MS = envLong("CLOCK_SYNC_INTERVAL_MS", 5000);
+
+    // Cursor positions
+    public static final long POSITION_FLUSH_INTERVAL_MS = envLong("POSITION_FLUSH_INTERVAL_MS", 50);
+
+    // Puzzle ingestion: "nyt" or "file:<path>"
+    public static final String PUZZLE_SOURCE = envString("PUZZLE_SOURCE", "nyt");
+    public static final long INGEST_INTERVAL_MS = envLong("INGEST_INTERVAL_MS", 12 * 60 * 60 * 1000);
+
+    // Puzzle catalog
+    public static final int CATALOG_PAGE_SIZE = (int) envLong("CATALOG_PAGE_SIZE", 60);
+
+    // Chat
+    public static final int CHAT_HISTORY_SIZE = (int) envLong("CHAT_HISTORY_SIZE", 100);
+    public static final int CHAT_PAGE_SIZE = (int) envLong("CHAT_PAGE_SIZE", 50);
+    public static final long CHAT_FLUSH_INTERVAL_MS = envLong("CHAT_FLUSH_INTERVAL_MS", 1000);
+
+    // Prometheus scrape endpoint on localhost, 0 to disable
+    public static final int METRICS_PORT = (int) envLong("METRICS_PORT", 9091);
 
     public static final String[] playerNameAdjectives = {
             "Brave", "Clever", "Happy", "Kind", "Quick", "Witty", "Bright", "Calm", "Bold", "Sharp",
@@ -19,4 +60,14 @@ public class Constants {
             "Whale", "Octopus", "Crane", "Stork", "Hedgehog", "Badger", "Moose", "Buffalo", "Antelope", "Gazelle",
             "Kangaroo", "Wallaby", "Platypus", "Armadillo", "Sloth", "Chameleon", "Iguana", "Gecko", "Flamingo", "Toucan"
     };
+
+    private static long envLong(String name, long defaultValue) {
+        String value = System.getenv(name);
+        return (value != null) ? Long.parseLong(value) : defaultValue;
+    }
+
+    private static String envString(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return (value != null) ? value : defaultValue;
+    }
 }
@@ -1,8 +1,10 @@
 package suduoku;
 
 import jakarta.websocket.Session;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
+import suduoku.Board.BitBoard;
 
 import java.util.Random;
 
@@ -12,12 +14,18 @@ import static suduoku.Constants.playerNameAdjectives;
 @Getter
 @Setter
 public class Player {
+    public static final int NO_CELL = -1;
+
     private Session session;
     private final String name;
     private final String color;
     private int currentPuzzleId;
-    private int selectedRow;
-    private int selectedCol;
+    /**
+     * Index of the selected cell, or -1 for none. One volatile value, so readers on other threads
+     * never pair the row of one move with the column of another.
+     */
+    @Setter(AccessLevel.NONE)
+    private volatile int selectedCell;
     private Random random;
 
     public Player(Session session) {
@@ -26,8 +34,15 @@ public class Player {
         this.name = generateName();
         this.color = generateColor();
         this.currentPuzzleId = -1;
-        this.selectedRow = -1;
-        this.selectedCol = -1;
+        this.selectedCell = NO_CELL;
+    }
+
+    public void selectCell(int row, int col) {
+        selectedCell = BitBoard.index(row, col);
+    }
+
+    public void clearSelectedCell() {
+        selectedCell = NO_CELL;
     }
 
     private String generateName() {
@@ -54,8 +69,7 @@ public class Player {
                 ", name='" + name + '\'' +
                 ", color='" + color + '\'' +
                 ", currentPuzzleId=" + currentPuzzleId +
-                ", selectedRow=" + selectedRow +
-                ", selectedCol=" + selectedCol +
+                ", selectedCell=" + selectedCell +
                 '}';
     }
 }
\ No newline at end of file
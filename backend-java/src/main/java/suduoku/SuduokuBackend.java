@@ -1,12 +1,12 @@
 package suduoku;
 
+import java.io.IOException;
+
 import lombok.extern.log4j.Log4j2;
 import org.glassfish.tyrus.server.Server;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
+import suduoku.metrics.MetricsServer;
 
-import static suduoku.Constants.SCRAPER_PATH;
+import static suduoku.Constants.METRICS_PORT;
 
 @Log4j2
 public class SuduokuBackend {
@@ -15,31 +15,36 @@ public class SuduokuBackend {
         int serverPort = (port != null) ? Integer.parseInt(port) : 8080; // Default to 8080 if PORT is not set
         Server server = new Server("0.0.0.0", serverPort, "/", null, WebSocketServer.class);
         log.info("Starting Suduoku server on port {}", serverPort);
+        Runtime.getRuntime().addShutdownHook(new Thread(WebSocketServer::shutdown, "shutdown-flush"));
+        MetricsServer metricsServer = null;
         try {
             server.start();          
-
-            ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
-            scheduler.scheduleAtFixedRate(SuduokuBackend::scraperExecution, 0, 12, TimeUnit.HOURS);
+            metricsServer = startMetrics();
 
             Thread.currentThread().join(); 
         } catch (Exception e) {
             log.error("Error starting server: {}", e.getMessage(), e);
         } finally {
             log.info("Stopping Suduoku server");
+            if (metricsServer != null) {
+                metricsServer.shutdown();
+            }
             server.stop();
         }
     }
-    
-    private static void scraperExecution() {
-        log.info("Starting sudoku scraper execution");
+
+    /**
+     * Serves metrics unless disabled. A port that is taken only costs the metrics, not the game.
+     */
+    private static MetricsServer startMetrics() {
+        if (METRICS_PORT <= 0) {
+            return null;
+        }
         try {
-            ProcessBuilder pb = new ProcessBuilder("python", SCRAPER_PATH);
-            pb.inheritIO();
-            Process process = pb.start();
-            int exitCode = process.waitFor();
-            log.info("Sudoku scraper completed with exit code: {}", exitCode);
-        } catch (Exception e) {
-            log.error("Error executing sudoku scraper: {}", e.getMessage(), e);
+            return MetricsServer.start(METRICS_PORT, WebSocketServer.getMetrics());
+        } catch (IOException e) {
+            log.error("Unable to serve metrics on port {}: {}", METRICS_PORT, e.getMessage());
+            return null;
         }
     }
 }
\ No newline at end of file
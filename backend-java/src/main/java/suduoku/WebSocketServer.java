@@ -1,10 +1,14 @@
 package suduoku;
 
+import java.nio.ByteBuffer;
+import java.util.Locale;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
-
-import org.json.JSONObject;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 import jakarta.websocket.OnClose;
 import jakarta.websocket.OnError;
@@ -14,52 +18,143 @@ import jakarta.websocket.Session;
 import jakarta.websocket.server.ServerEndpoint;
 
 import lombok.extern.log4j.Log4j2;
-import suduoku.Board.SudokuBoard;
+import suduoku.broadcast.Broadcaster;
+import suduoku.catalog.PuzzleCatalog;
+import suduoku.concurrent.MessageDispatcher;
+import suduoku.database.BoardWriter;
+import suduoku.database.ChatWriter;
+import suduoku.database.Database;
 import suduoku.handlers.BoardHandler;
 import suduoku.handlers.ChatHandler;
 import suduoku.handlers.PlayerHandler;
 import suduoku.handlers.PuzzleHandler;
-import suduoku.handlers.TimeHandler;
+import suduoku.ingest.PuzzleIngestor;
+import suduoku.ingest.PuzzleSource;
+import suduoku.metrics.Histogram;
+import suduoku.metrics.MetricsRegistry;
+import suduoku.protocol.BinaryCodec;
+import suduoku.protocol.InboundMessage;
+import suduoku.protocol.InboundMessage.CandidateToggle;
+import suduoku.protocol.InboundMessage.CellChange;
+import suduoku.protocol.InboundMessage.CheckSolution;
+import suduoku.protocol.InboundMessage.ClearBoard;
+import suduoku.protocol.InboundMessage.ElapsedTime;
+import suduoku.protocol.InboundMessage.FetchBoard;
+import suduoku.protocol.InboundMessage.FetchChat;
+import suduoku.protocol.InboundMessage.FetchChatHistory;
+import suduoku.protocol.InboundMessage.FetchIdentity;
+import suduoku.protocol.InboundMessage.FetchPuzzle;
+import suduoku.protocol.InboundMessage.FetchPuzzles;
+import suduoku.protocol.InboundMessage.IncorrectCellsUpdate;
+import suduoku.protocol.InboundMessage.LeaveRoom;
+import suduoku.protocol.InboundMessage.PlayerPosition;
+import suduoku.protocol.InboundMessage.SendChat;
+import suduoku.protocol.MessageDecodeException;
+import suduoku.protocol.MessageDecoder;
+import suduoku.protocol.ProtocolStats;
+import suduoku.protocol.WireFormat;
+import suduoku.room.BoardCache;
+import suduoku.room.ClockTicker;
+import suduoku.room.PositionAggregator;
+import suduoku.room.RoomRegistry;
+
+import static suduoku.Constants.BOARD_CACHE_MAX_BOARDS;
+import static suduoku.Constants.BOARD_FLUSH_DIRTY_THRESHOLD;
+import static suduoku.Constants.BOARD_FLUSH_INTERVAL_MS;
+import static suduoku.Constants.BOARD_IDLE_EVICT_MS;
+import static suduoku.Constants.CATALOG_PAGE_SIZE;
+import static suduoku.Constants.CHAT_FLUSH_INTERVAL_MS;
+import static suduoku.Constants.CHAT_HISTORY_SIZE;
+import static suduoku.Constants.CHAT_PAGE_SIZE;
+import static suduoku.Constants.CLOCK_SYNC_INTERVAL_MS;
+import static suduoku.Constants.DB_READER_CONNECTIONS;
+import static suduoku.Constants.DB_URL;
+import static suduoku.Constants.INGEST_INTERVAL_MS;
+import static suduoku.Constants.MESSAGE_DISPATCH_MODE;
+import static suduoku.Constants.OUTBOUND_OVERFLOW_GRACE_MS;
+import static suduoku.Constants.OUTBOUND_QUEUE_LIMIT;
+import static suduoku.Constants.POSITION_FLUSH_INTERVAL_MS;
+import static suduoku.Constants.PUZZLE_SOURCE;
+import static suduoku.Constants.ROOM_WORKER_THREADS;
 
 /**
  * WebSocket server endpoint for Sudoku game
  * Delegates message handling to specialized handler classes
  */
 @Log4j2
-@ServerEndpoint("/ws")
+@ServerEndpoint(value = "/ws", subprotocols = {WireFormat.BINARY_SUBPROTOCOL, WireFormat.JSON_SUBPROTOCOL})
 public class WebSocketServer {
     private static final Map<UUID, Player> players = new ConcurrentHashMap<>();
-    private static final Map<Integer, SudokuBoard> boards = new ConcurrentHashMap<>();
+    private static final Database database = new Database(DB_URL, DB_READER_CONNECTIONS);
+    private static final PuzzleCatalog catalog = new PuzzleCatalog(database, CATALOG_PAGE_SIZE);
+    private static final BoardWriter boardWriter = new BoardWriter(database, BOARD_FLUSH_INTERVAL_MS, BOARD_FLUSH_DIRTY_THRESHOLD,
+            catalog::onBoardsWritten);
+    private static final PuzzleIngestor ingestor = new PuzzleIngestor(database, catalog, PuzzleSource.parse(PUZZLE_SOURCE),
+            INGEST_INTERVAL_MS);
+    private static final ChatWriter chatWriter = new ChatWriter(database, CHAT_FLUSH_INTERVAL_MS);
+    private static final ExecutorService chatLoader = Executors.newFixedThreadPool(DB_READER_CONNECTIONS, runnable -> {
+        Thread thread = new Thread(runnable, "chat-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final MessageDecoder decoder = new MessageDecoder();
+    private static final MessageDispatcher dispatcher = new MessageDispatcher(MessageDispatcher.Mode.parse(MESSAGE_DISPATCH_MODE));
+    private static final ProtocolStats protocolStats = new ProtocolStats();
+    private static final Broadcaster broadcaster = new Broadcaster(OUTBOUND_QUEUE_LIMIT, OUTBOUND_OVERFLOW_GRACE_MS, protocolStats);
+    private static final RoomRegistry rooms = new RoomRegistry(broadcaster, ROOM_WORKER_THREADS, CHAT_HISTORY_SIZE);
+    private static final BoardCache boardCache = new BoardCache(rooms, database, boardWriter, BOARD_CACHE_MAX_BOARDS, BOARD_IDLE_EVICT_MS,
+            DB_READER_CONNECTIONS);
+    private static final PositionAggregator positions = new PositionAggregator(POSITION_FLUSH_INTERVAL_MS,
+            PlayerHandler::changedPositionsMessage);
+    private static final ClockTicker clockTicker = new ClockTicker(rooms, boardWriter, CLOCK_SYNC_INTERVAL_MS);
+
+    private static final MetricsRegistry metrics = new MetricsRegistry();
+    private static final Map<String, Histogram> handlerLatency = new ConcurrentHashMap<>();
+    private static final AtomicInteger openSessions = new AtomicInteger();
+    private static final LongAdder rejectedMessages = new LongAdder();
 
-    private final PuzzleHandler puzzleHandler = new PuzzleHandler();
-    private final ChatHandler chatHandler = new ChatHandler(players);
-    private final PlayerHandler playerHandler = new PlayerHandler(players);
-    private final BoardHandler boardHandler = new BoardHandler(boards, players, playerHandler);
-    private final TimeHandler timeHandler = new TimeHandler(players);
+    static {
+        registerMetrics();
+    }
+
+    private final PuzzleHandler puzzleHandler = new PuzzleHandler(catalog, broadcaster);
+    private final ChatHandler chatHandler = new ChatHandler(rooms, broadcaster, database, chatWriter, chatLoader,
+            CHAT_PAGE_SIZE);
+    private final PlayerHandler playerHandler = new PlayerHandler(players, rooms, broadcaster, positions);
+    private final BoardHandler boardHandler = new BoardHandler(rooms, players, playerHandler, broadcaster, boardCache);
 
     @OnOpen
     public void onOpen(Session session) {
-        log.info("WebSocket connection opened: {}", session.getId());
+        openSessions.incrementAndGet();
+        log.info("WebSocket connection opened: {} ({})", session.getId(), WireFormat.of(session));
     }
 
     @OnMessage
     public void onMessage(String message, Session session) {
-        try {
-            JSONObject jsonMessage = new JSONObject(message);
-            String requestType = jsonMessage.getString("type");
-
-            log.debug("Received message type '{}' from session {}", requestType, session.getId());
+        protocolStats.recordInbound(false, ProtocolStats.utf8Length(message));
+        dispatcher.dispatch(session.getId(), () -> processMessage(message, session));
+    }
 
-            handleMessage(requestType, jsonMessage, session);
-        } catch (Exception e) {
-            log.error("Error processing WebSocket message: {}", message, e);
-        }
+    /**
+     * Binary frames from clients on the binary protocol. The frame is copied because the
+     * container may reuse its buffer once this returns.
+     */
+    @OnMessage
+    public void onBinaryMessage(ByteBuffer message, Session session) {
+        protocolStats.recordInbound(true, message.remaining());
+        ByteBuffer frame = ByteBuffer.allocate(message.remaining()).put(message).flip();
+        dispatcher.dispatch(session.getId(), () -> processBinaryMessage(frame, session));
     }
 
     @OnClose
     public void onClose(Session session) {
+        openSessions.decrementAndGet();
         log.info("WebSocket connection closed: {}", session.getId());
-        handlePlayerDisconnect(session);
+        dispatcher.close(session.getId(), () -> {
+            broadcaster.close(session);
+            handlePlayerDisconnect(session);
+        });
     }
 
     @OnError
@@ -68,81 +163,194 @@ public class WebSocketServer {
     }
 
     /**
-     * Routes messages to appropriate handlers based on message type
+     * Flushes pending board edits and clock readings and closes the database before the server exits
      */
-    private void handleMessage(String requestType, JSONObject jsonMessage, Session session) {
-        switch (requestType) {
-            // Puzzle operations
-            case "fetchPuzzles":
-                puzzleHandler.fetchPuzzles(session);
-                break;
-            case "fetchPuzzle":
-                boardHandler.handlePuzzleFetch(jsonMessage);
-                break;
-
-            // Player operations
-            case "fetchIdentity":
-                playerHandler.handleIdentity(session, jsonMessage);
-                break;
-            case "sendPlayerPosition":
-                playerHandler.handlePlayerPosition(session, jsonMessage);
-                break;
-            case "sendLeaveRoom":
-                playerHandler.handleLeaveRoom(jsonMessage);
-                break;
-
-            // Chat operations
-            case "fetchChat":
-                chatHandler.fetchChat(session, jsonMessage);
-                break;
-            case "sendChat":
-                chatHandler.sendChat(jsonMessage);
-                break;
-
-            // Board operations
-            case "sendCellChange":
-                boardHandler.handleCellChange(jsonMessage);
-                break;
-            case "sendCandidateToggle":
-                boardHandler.handleCandidateToggle(jsonMessage);
-                break;
-            case "sendClearBoard":
-                boardHandler.handleClearBoard(jsonMessage);
-                break;
-            case "sendCheckSolution":
-                boardHandler.handleCheckSolution(jsonMessage);
-                break;
-            case "sendIncorrectCellsUpdate":
-                boardHandler.handleIncorrectCellsUpdate(jsonMessage);
-                break;
-            case "sendElapsedTime":
-                timeHandler.handleElapsedTime(jsonMessage);
-                break;
-
-            default:
-                log.warn("Unknown request type received: {}", requestType);
+    public static void shutdown() {
+        ingestor.shutdown();
+        dispatcher.shutdown();
+        chatLoader.shutdown();
+        boardCache.shutdown();
+        positions.shutdown();
+        clockTicker.shutdown();
+        boardWriter.shutdown();
+        rooms.shutdown();
+        chatWriter.shutdown();
+        database.close();
+        log.info("Protocol traffic: {}", protocolStats);
+        log.info("Puzzle catalog: {}", catalog);
+    }
+
+    /**
+     * Metrics for the local scrape endpoint
+     */
+    public static MetricsRegistry getMetrics() {
+        return metrics;
+    }
+
+    private static Histogram handlerHistogram(String type) {
+        return metrics.histogram("suduoku_message_handler_seconds",
+                "Time spent handling an inbound message on the thread that received it, by message type",
+                Histogram.ofNanos(), "type", type);
+    }
+
+    private static void registerMetrics() {
+        metrics.counter("suduoku_messages_rejected_total", "Inbound messages that failed to decode", rejectedMessages::sum);
+        metrics.gauge("suduoku_sessions", "Open WebSocket sessions", openSessions::get);
+        metrics.gauge("suduoku_players", "Sessions with an identified player", rooms::getSessionCount);
+        metrics.gauge("suduoku_dispatch_mailboxes", "Sessions with a virtual thread mailbox", dispatcher::getSessionCount);
+        for (WireFormat format : WireFormat.values()) {
+            String label = format.name().toLowerCase(Locale.ROOT);
+            metrics.counter("suduoku_frames_received_total", "Frames received, by wire format",
+                    () -> protocolStats.getInboundFrames(format), "format", label);
+            metrics.counter("suduoku_bytes_received_total", "Payload bytes received, by wire format",
+                    () -> protocolStats.getInboundBytes(format), "format", label);
+            metrics.counter("suduoku_frames_sent_total", "Frames sent, by wire format",
+                    () -> protocolStats.getOutboundFrames(format), "format", label);
+            metrics.counter("suduoku_bytes_sent_total", "Payload bytes sent, by wire format",
+                    () -> protocolStats.getOutboundBytes(format), "format", label);
         }
+
+        metrics.histogram("suduoku_broadcast_fanout", "Sessions each broadcast was queued for", broadcaster.getFanout());
+        metrics.counter("suduoku_outbound_sent_total", "Messages sent to sessions", broadcaster::getSentCount);
+        metrics.counter("suduoku_outbound_failed_total", "Messages that failed to send", broadcaster::getFailedCount);
+        metrics.counter("suduoku_outbound_dropped_total", "Messages dropped from full session queues",
+                broadcaster::getDroppedCount);
+        metrics.counter("suduoku_outbound_coalesced_total", "Queued messages replaced by a newer one",
+                broadcaster::getCoalescedCount);
+        metrics.counter("suduoku_outbound_disconnects_total", "Sessions disconnected for staying over the queue limit",
+                broadcaster::getDisconnectCount);
+        metrics.gauge("suduoku_outbound_queued_messages", "Messages waiting in all session queues",
+                broadcaster::getQueuedMessages);
+        metrics.gauge("suduoku_outbound_max_queue_depth", "Deepest session queue", broadcaster::getMaxQueueDepth);
+
+        metrics.gauge("suduoku_rooms", "Rooms held in memory", rooms::getRoomCount);
+        metrics.gauge("suduoku_rooms_active", "Rooms with at least one member", rooms::getActiveRoomCount);
+        metrics.gauge("suduoku_boards_resident", "Boards loaded in memory", boardCache::getSize);
+        metrics.counter("suduoku_board_cache_hits_total", "Board loads served from memory", boardCache::getHitCount);
+        metrics.counter("suduoku_board_cache_misses_total", "Board loads read from the database", boardCache::getMissCount);
+        metrics.counter("suduoku_board_cache_evictions_total", "Boards written back and unloaded",
+                boardCache::getEvictionCount);
+        metrics.counter("suduoku_board_writer_marks_total", "Board edits marked for writing", boardWriter::getMarkCount);
+        metrics.counter("suduoku_board_writer_flushes_total", "Board write batches", boardWriter::getFlushCount);
+        metrics.counter("suduoku_boards_written_total", "Boards written to the database", boardWriter::getBoardsWritten);
+        metrics.gauge("suduoku_board_writer_queue_depth", "Edited boards waiting to be written",
+                boardWriter::getQueueDepth);
+        metrics.counter("suduoku_position_moves_total", "Cursor moves received", positions::getRecordedMoves);
+        metrics.counter("suduoku_position_updates_total", "Batched position updates sent to rooms",
+                positions::getSentUpdates);
+
+        metrics.counter("suduoku_chat_writer_flushes_total", "Chat write batches", chatWriter::getFlushCount);
+        metrics.counter("suduoku_chat_messages_written_total", "Chat messages written to the database",
+                chatWriter::getMessagesWritten);
+        metrics.gauge("suduoku_chat_writer_queue_depth", "Chat messages waiting to be written", chatWriter::getQueueDepth);
+        metrics.counter("suduoku_catalog_loads_total", "Puzzle catalog reloads from the database", catalog::getLoads);
+        metrics.counter("suduoku_catalog_patches_total", "Written boards patched into the puzzle catalog without a reload",
+                catalog::getPatches);
+        metrics.counter("suduoku_catalog_page_hits_total", "Catalog pages served from cache", catalog::getPageHits);
+        metrics.counter("suduoku_catalog_not_modified_total", "Catalog requests answered as not modified",
+                catalog::getNotModified);
+        metrics.counter("suduoku_ingest_runs_total", "Puzzle ingestion runs", ingestor::getRuns);
+        metrics.counter("suduoku_ingest_failed_runs_total", "Puzzle ingestion runs that failed", ingestor::getFailedRuns);
+        metrics.counter("suduoku_ingest_puzzles_inserted_total", "Puzzles added by ingestion",
+                ingestor::getPuzzlesInserted);
+        metrics.counter("suduoku_ingest_puzzles_rejected_total", "Ingested puzzles rejected as invalid",
+                ingestor::getPuzzlesRejected);
+
+        metrics.histogram("suduoku_db_query_seconds", "Database statement latency", database.getReadLatency(),
+                "kind", "read");
+        metrics.histogram("suduoku_db_query_seconds", "Database statement latency", database.getWriteLatency(),
+                "kind", "write");
+        metrics.histogram("suduoku_db_commit_seconds", "Latency of the commit ending each database transaction",
+                database.getCommitLatency());
     }
 
     /**
-     * Handles player disconnection cleanup
+     * Decodes a message and hands it to its handler, on the thread chosen by the dispatch mode.
+     * Malformed messages are rejected before any handler runs.
      */
-    private void handlePlayerDisconnect(Session session) {
-        for(Player currPlayer : players.values()) {
-            if (currPlayer.getSession().equals(session)) {
-                int puzzleId = currPlayer.getCurrentPuzzleId();
-                currPlayer.setCurrentPuzzleId(-1);
-                currPlayer.setSelectedCol(-1);
-                currPlayer.setSelectedRow(-1);
-
-                if (puzzleId != -1) {
-                    playerHandler.broadcastPlayerPositions(puzzleId);
-                    playerHandler.broadcastPlayersList(puzzleId);
-                }
+    private void processMessage(String text, Session session) {
+        InboundMessage message;
+        try {
+            message = decoder.decode(text);
+        } catch (MessageDecodeException e) {
+            rejectedMessages.increment();
+            log.warn("Rejected message from session {}: {}", session.getId(), e.getMessage());
+            return;
+        }
 
-                break;
+        log.debug("Received {} from session {}", message, session.getId());
+
+        try {
+            handleMessage(message, session);
+        } catch (Exception e) {
+            log.error("Error processing WebSocket message: {}", text, e);
+        }
+    }
+
+    /**
+     * Decodes a binary protocol frame and hands it to the same handlers as its JSON equivalent
+     */
+    private void processBinaryMessage(ByteBuffer frame, Session session) {
+        InboundMessage message;
+        try {
+            message = BinaryCodec.decode(frame);
+        } catch (MessageDecodeException e) {
+            rejectedMessages.increment();
+            log.warn("Rejected binary message from session {}: {}", session.getId(), e.getMessage());
+            return;
+        }
+
+        log.debug("Received {} from session {}", message, session.getId());
+
+        try {
+            handleMessage(message, session);
+        } catch (Exception e) {
+            log.error("Error processing binary WebSocket message: {}", message, e);
+        }
+    }
+
+    /**
+     * Routes messages to appropriate handlers based on message type, timing each handler
+     */
+    private void handleMessage(InboundMessage message, Session session) {
+        long start = System.nanoTime();
+        try {
+            switch (message) {
+                // Puzzle operations
+                case FetchPuzzles request -> puzzleHandler.fetchPuzzles(session, request);
+                case FetchPuzzle request -> boardHandler.handlePuzzleFetch(session, request);
+                case FetchBoard request -> boardHandler.handleBoardFetch(session, request);
+
+                // Player operations
+                case FetchIdentity request -> playerHandler.handleIdentity(session, request);
+                case PlayerPosition position -> playerHandler.handlePlayerPosition(session, position);
+                case LeaveRoom request -> playerHandler.handleLeaveRoom(request);
+
+                // Chat operations
+                case FetchChat request -> chatHandler.fetchChat(session, request);
+                case FetchChatHistory request -> chatHandler.fetchChatHistory(session, request);
+                case SendChat chat -> chatHandler.sendChat(chat);
+
+                // Board operations
+                case CellChange change -> boardHandler.handleCellChange(change);
+                case CandidateToggle toggle -> boardHandler.handleCandidateToggle(toggle);
+                case ClearBoard request -> boardHandler.handleClearBoard(request);
+                case CheckSolution request -> boardHandler.handleCheckSolution(request);
+                case IncorrectCellsUpdate update -> boardHandler.handleIncorrectCellsUpdate(update);
+                case ElapsedTime ignored -> {
+                    // Room clocks are owned by the server; times sent by older clients are ignored
+                }
             }
+        } finally {
+            handlerLatency.computeIfAbsent(message.wireName(), WebSocketServer::handlerHistogram)
+                    .record(System.nanoTime() - start);
         }
     }
-}
 
+    /**
+     * Handles player disconnection cleanup
+     */
+    private void handlePlayerDisconnect(Session session) {
+        playerHandler.handleDisconnect(session);
+    }
+}
@@ -0,0 +1,172 @@
+package suduoku.broadcast;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import jakarta.websocket.Session;
+import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
+import suduoku.Player;
+import suduoku.metrics.Histogram;
+import suduoku.protocol.ProtocolStats;
+
+/**
+ * Sends pre-serialized messages to sessions without blocking the caller.
+ * Every session gets its own bounded outbound queue, so one slow client only delays itself.
+ */
+@Log4j2
+public class Broadcaster {
+    private final Map<String, SessionSender> senders = new ConcurrentHashMap<>();
+    private final int queueLimit;
+    private final long overflowGraceNanos;
+    private final ProtocolStats protocolStats;
+
+    private final LongAdder sentCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
+    private final LongAdder droppedCount = new LongAdder();
+    private final LongAdder coalescedCount = new LongAdder();
+    private final LongAdder disconnectCount = new LongAdder();
+    private final LongAdder totalSendNanos = new LongAdder();
+    private final AtomicLong maxSendNanos = new AtomicLong();
+    /**
+     * Number of sessions each broadcast was queued for.
+     */
+    @Getter
+    private final Histogram fanout = Histogram.ofCounts();
+
+    /**
+     * @param queueLimit      Maximum number of messages queued per session
+     * @param overflowGraceMs How long a session may stay over the limit before it is disconnected
+     * @param protocolStats   Where sent frames and bytes are counted, per wire format
+     */
+    public Broadcaster(int queueLimit, long overflowGraceMs, ProtocolStats protocolStats) {
+        this.queueLimit = queueLimit;
+        this.overflowGraceNanos = TimeUnit.MILLISECONDS.toNanos(overflowGraceMs);
+        this.protocolStats = protocolStats;
+    }
+
+    /**
+     * Sends a message to every open session among the recipients.
+     *
+     * @return The number of sessions the message was queued for
+     */
+    public int broadcast(Iterable<Player> recipients, OutboundMessage message) {
+        int sent = 0;
+        for (Player currentPlayer : recipients) {
+            Session currentSession = currentPlayer.getSession();
+
+            if (currentSession.isOpen()) {
+                send(currentSession, message);
+                sent++;
+            }
+        }
+        fanout.record(sent);
+        return sent;
+    }
+
+    /**
+     * Queues a message for a single session.
+     */
+    public void send(Session session, OutboundMessage message) {
+        if (!session.isOpen()) {
+            return;
+        }
+        String id = session.getId();
+        SessionSender sender = senders.computeIfAbsent(id,
+                key -> new SessionSender(session, this, queueLimit, overflowGraceNanos));
+        sender.enqueue(message);
+
+        // close(session) may have run between the check above and computeIfAbsent, leaving a sender
+        // for a session that is already gone
+        if (!session.isOpen() && senders.remove(id, sender)) {
+            sender.close();
+        }
+    }
+
+    /**
+     * Discards the outbound queue of a closed session.
+     */
+    public void close(Session session) {
+        SessionSender sender = senders.remove(session.getId());
+        if (sender != null) {
+            sender.close();
+        }
+    }
+
+    void recordSent(long nanos, boolean ok, boolean binary, int bytes) {
+        if (ok) {
+            sentCount.increment();
+            protocolStats.recordOutbound(binary, bytes);
+        } else {
+            failedCount.increment();
+        }
+        totalSendNanos.add(nanos);
+        maxSendNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    void recordDropped() {
+        droppedCount.increment();
+    }
+
+    void recordCoalesced() {
+        coalescedCount.increment();
+    }
+
+    void recordDisconnect() {
+        disconnectCount.increment();
+    }
+
+    /**
+     * Total number of messages waiting in all session queues.
+     */
+    public long getQueuedMessages() {
+        long total = 0;
+        for (SessionSender sender : senders.values()) {
+            total += sender.getQueueDepth();
+        }
+        return total;
+    }
+
+    /**
+     * Deepest session queue.
+     */
+    public int getMaxQueueDepth() {
+        int max = 0;
+        for (SessionSender sender : senders.values()) {
+            max = Math.max(max, sender.getQueueDepth());
+        }
+        return max;
+    }
+
+    public long getSentCount() {
+        return sentCount.sum();
+    }
+
+    public long getFailedCount() {
+        return failedCount.sum();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    public long getCoalescedCount() {
+        return coalescedCount.sum();
+    }
+
+    public long getDisconnectCount() {
+        return disconnectCount.sum();
+    }
+
+    public long getMaxSendNanos() {
+        return maxSendNanos.get();
+    }
+
+    public long getAverageSendNanos() {
+        long sends = sentCount.sum() + failedCount.sum();
+        return sends == 0 ? 0 : totalSendNanos.sum() / sends;
+    }
+}
@@ -0,0 +1,78 @@
+package suduoku.broadcast;
+
+import java.util.Set;
+
+import org.json.JSONObject;
+
+import lombok.Getter;
+import suduoku.protocol.ProtocolStats;
+
+/**
+ * An outbound message serialized exactly once.
+ * The encoded payload is immutable, so one instance is shared by every session it is sent to.
+ */
+@Getter
+public final class OutboundMessage {
+    /**
+     * State messages where only the latest matters; a queued one is replaced by a newer one.
+     */
+    private static final Set<String> COALESCED_TYPES = Set.of("updatePlayerPositions", "updateElapsedTime", "updatePuzzle");
+
+    private final String type;
+    private final String text;
+    private final int textBytes;
+    /**
+     * The {@link suduoku.protocol.BinaryCodec} frame for binary sessions, or null if the message
+     * is only ever sent as JSON. Never modified once built.
+     */
+    private final byte[] binary;
+    private final boolean coalescable;
+
+    private OutboundMessage(String type, String text, byte[] binary) {
+        this.type = type;
+        this.text = text;
+        this.textBytes = ProtocolStats.utf8Length(text);
+        this.binary = binary;
+        this.coalescable = COALESCED_TYPES.contains(type);
+    }
+
+    /**
+     * Serializes a JSON message once for fan-out.
+     *
+     * @param json The message, including its "type" field
+     */
+    public static OutboundMessage of(JSONObject json) {
+        return new OutboundMessage(json.optString("type"), json.toString(), null);
+    }
+
+    /**
+     * A message with both encodings, each built once for fan-out.
+     * Sessions on the binary protocol get the binary frame and everyone else gets the JSON.
+     */
+    public static OutboundMessage of(JSONObject json, byte[] binary) {
+        return new OutboundMessage(json.optString("type"), json.toString(), binary);
+    }
+
+    /**
+     * A message whose JSON text was already serialized, such as one assembled from cached fragments.
+     *
+     * @param type The message's "type" field
+     * @param text The complete JSON text of the message
+     */
+    public static OutboundMessage ofText(String type, String text) {
+        return new OutboundMessage(type, text, null);
+    }
+
+    public boolean hasBinary() {
+        return binary != null;
+    }
+
+    @Override
+    public String toString() {
+        return "OutboundMessage{" +
+                "type='" + type + '\'' +
+                ", length=" + text.length() +
+                ", binaryLength=" + (binary == null ? 0 : binary.length) +
+                '}';
+    }
+}
@@ -0,0 +1,170 @@
+package suduoku.broadcast;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+import jakarta.websocket.CloseReason;
+import jakarta.websocket.SendResult;
+import jakarta.websocket.Session;
+import lombok.extern.log4j.Log4j2;
+import suduoku.protocol.WireFormat;
+
+/**
+ * Bounded outbound queue for one session, drained one message at a time through the async remote.
+ * A queued state message is replaced in place by a newer message of the same type. A session
+ * that stays over the queue limit for longer than the grace period is disconnected.
+ */
+@Log4j2
+class SessionSender {
+    private final Session session;
+    private final boolean binaryProtocol;
+    private final Broadcaster broadcaster;
+    private final int queueLimit;
+    private final long overflowGraceNanos;
+
+    private final ArrayDeque<Slot> queue = new ArrayDeque<>();
+    private final Map<String, Slot> pendingByType = new HashMap<>();
+    private boolean sending;
+    private boolean closed;
+    private long overLimitSince;
+
+    /**
+     * A queue position whose message can be replaced while it waits.
+     */
+    private static final class Slot {
+        private OutboundMessage message;
+
+        private Slot(OutboundMessage message) {
+            this.message = message;
+        }
+    }
+
+    SessionSender(Session session, Broadcaster broadcaster, int queueLimit, long overflowGraceNanos) {
+        this.session = session;
+        this.binaryProtocol = WireFormat.of(session) == WireFormat.BINARY;
+        this.broadcaster = broadcaster;
+        this.queueLimit = queueLimit;
+        this.overflowGraceNanos = overflowGraceNanos;
+    }
+
+    /**
+     * Queues a message, starting a send if none is in flight.
+     */
+    void enqueue(OutboundMessage message) {
+        OutboundMessage next = null;
+        boolean overflow = false;
+
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+
+            Slot pending = message.isCoalescable() ? pendingByType.get(message.getType()) : null;
+            if (pending != null) {
+                pending.message = message;
+                broadcaster.recordCoalesced();
+            } else if (queue.size() >= queueLimit) {
+                broadcaster.recordDropped();
+                long now = System.nanoTime();
+                if (overLimitSince == 0) {
+                    overLimitSince = now;
+                } else if (now - overLimitSince > overflowGraceNanos) {
+                    closed = true;
+                    overflow = true;
+                }
+            } else {
+                Slot slot = new Slot(message);
+                queue.add(slot);
+                if (message.isCoalescable()) {
+                    pendingByType.put(message.getType(), slot);
+                }
+            }
+
+            if (!sending && !closed) {
+                next = poll();
+                sending = next != null;
+            }
+        }
+
+        if (overflow) {
+            disconnect();
+        } else if (next != null) {
+            dispatch(next);
+        }
+    }
+
+    /**
+     * Number of messages waiting behind the one in flight.
+     */
+    synchronized int getQueueDepth() {
+        return queue.size();
+    }
+
+    synchronized void close() {
+        closed = true;
+        queue.clear();
+        pendingByType.clear();
+    }
+
+    /**
+     * Sends the binary frame to a session on the binary protocol when the message has one,
+     * otherwise the JSON text.
+     */
+    private void dispatch(OutboundMessage message) {
+        long start = System.nanoTime();
+        boolean binary = binaryProtocol && message.hasBinary();
+        try {
+            if (binary) {
+                session.getAsyncRemote().sendBinary(ByteBuffer.wrap(message.getBinary()),
+                        result -> onSent(message, binary, result, start));
+            } else {
+                session.getAsyncRemote().sendText(message.getText(), result -> onSent(message, binary, result, start));
+            }
+        } catch (RuntimeException e) {
+            onSent(message, binary, new SendResult(e), start);
+        }
+    }
+
+    private void onSent(OutboundMessage message, boolean binary, SendResult result, long start) {
+        broadcaster.recordSent(System.nanoTime() - start, result.isOK(),
+                binary, binary ? message.getBinary().length : message.getTextBytes());
+        if (!result.isOK()) {
+            log.warn("Error sending {} to session {}: {}", message.getType(), session.getId(),
+                    result.getException() == null ? "unknown" : result.getException().getMessage());
+        }
+
+        OutboundMessage next;
+        synchronized (this) {
+            next = closed ? null : poll();
+            sending = next != null;
+        }
+        if (next != null) {
+            dispatch(next);
+        }
+    }
+
+    private OutboundMessage poll() {
+        Slot slot = queue.poll();
+        if (slot == null) {
+            return null;
+        }
+        if (queue.size() < queueLimit) {
+            overLimitSince = 0;
+        }
+        pendingByType.remove(slot.message.getType(), slot);
+        return slot.message;
+    }
+
+    private void disconnect() {
+        log.warn("Disconnecting session {}: outbound queue stayed over {} messages", session.getId(), queueLimit);
+        broadcaster.recordDisconnect();
+        try {
+            session.close(new CloseReason(CloseReason.CloseCodes.TRY_AGAIN_LATER, "Outbound queue overflow"));
+        } catch (IOException e) {
+            log.warn("Error closing slow session {}: {}", session.getId(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package suduoku.catalog;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32;
+
+import org.json.JSONObject;
+
+import lombok.extern.log4j.Log4j2;
+import suduoku.Board.BoardSnapshot;
+import suduoku.broadcast.OutboundMessage;
+import suduoku.database.Database;
+import suduoku.protocol.InboundMessage.FetchPuzzles;
+
+/**
+ * In-memory snapshot of the puzzle list for the lobby.
+ * The table is read once per version and every puzzle is serialized once per version; pages are
+ * assembled from those fragments and cached until the next {@link #invalidate()}, which is called
+ * when puzzles are added. Status and progress written by the board writer are patched into the
+ * changed puzzles' fragments instead, without reading the table again. Each page carries an ETag derived from its
+ * own key and content, so a client asking again for a page it already holds gets a
+ * "puzzlesNotModified" reply instead.
+ */
+@Log4j2
+public class PuzzleCatalog {
+    private static final String CATALOG_QUERY = "SELECT id, title, difficulty, status, progress FROM puzzles ORDER BY id DESC";
+    private static final int MAX_CACHED_PAGES = 256;
+
+    private final Database database;
+    private final int defaultPageSize;
+    private final AtomicLong version = new AtomicLong();
+    private volatile Snapshot snapshot;
+
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder patches = new LongAdder();
+    private final LongAdder pageHits = new LongAdder();
+    private final LongAdder notModified = new LongAdder();
+
+    /**
+     * A puzzle as listed in the lobby.
+     */
+    public record Entry(int id, String title, String difficulty, String status, int progress) {
+    }
+
+    /**
+     * One version of the catalog. Immutable apart from its page cache.
+     */
+    /**
+     * @param indexById Position of each puzzle in {@code entries} and {@code json}
+     */
+    private record Snapshot(long version, List<Entry> entries, Map<Integer, Integer> indexById, String[] json,
+                            Map<PageKey, Page> pages) {
+    }
+
+    private record PageKey(int cursor, int limit, String difficulty, String status) {
+    }
+
+    /**
+     * A built page, with the ETag of its content and the reply sent to a client that holds it.
+     */
+    private record Page(String etag, OutboundMessage puzzles, OutboundMessage notModified) {
+    }
+
+    /**
+     * @param defaultPageSize Page size for requests that do not give one
+     */
+    public PuzzleCatalog(Database database, int defaultPageSize) {
+        this.database = database;
+        this.defaultPageSize = defaultPageSize;
+    }
+
+    /**
+     * Marks the catalog stale; the next request reloads it.
+     */
+    public void invalidate() {
+        version.incrementAndGet();
+    }
+
+    /**
+     * Patches the status and progress of written boards into the catalog. Only the fragments of
+     * puzzles that changed are rebuilt; pages are reassembled on the next request, and only those
+     * holding a changed puzzle get a new ETag.
+     */
+    public synchronized void onBoardsWritten(List<BoardSnapshot> written) {
+        Snapshot current = snapshot;
+        if (current == null || current.version() != version.get()) {
+            // The next request reloads the table anyway
+            return;
+        }
+        Entry[] entries = null;
+        String[] json = null;
+        for (BoardSnapshot board : written) {
+            Integer index = current.indexById().get(board.puzzleId());
+            if (index == null) {
+                continue;
+            }
+            Entry entry = entries == null ? current.entries().get(index) : entries[index];
+            String status = board.status().getLabel();
+            if (entry.progress() == board.progress() && entry.status().equals(status)) {
+                continue;
+            }
+            if (entries == null) {
+                entries = current.entries().toArray(new Entry[0]);
+                json = current.json().clone();
+            }
+            entries[index] = new Entry(entry.id(), entry.title(), entry.difficulty(), status, board.progress());
+            json[index] = toJson(entries[index]);
+        }
+        if (entries != null) {
+            patches.increment();
+            snapshot = new Snapshot(current.version(), List.of(entries), current.indexById(), json,
+                    new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * Builds the reply to a catalog request: a "puzzles" page holding the matching puzzles with ids
+     * below the cursor, or "puzzlesNotModified" if the client's ETag is that page's current one.
+     */
+    public OutboundMessage fetch(FetchPuzzles request) throws SQLException {
+        Snapshot current = current();
+        int limit = request.limit() > 0 ? request.limit() : defaultPageSize;
+        PageKey key = new PageKey(request.cursor(), limit, normalize(request.difficulty()), normalize(request.status()));
+        Page page = current.pages().get(key);
+        if (page != null) {
+            pageHits.increment();
+        } else {
+            page = buildPage(current, key);
+            if (current.pages().size() < MAX_CACHED_PAGES) {
+                current.pages().putIfAbsent(key, page);
+            }
+        }
+
+        if (page.etag().equals(request.etag())) {
+            notModified.increment();
+            return page.notModified();
+        }
+        return page.puzzles();
+    }
+
+    private Snapshot current() throws SQLException {
+        Snapshot current = snapshot;
+        if (current != null && current.version() == version.get()) {
+            return current;
+        }
+        synchronized (this) {
+            // Read the version before the table so an invalidation during the load forces another
+            long target = version.get();
+            current = snapshot;
+            if (current != null && current.version() == target) {
+                return current;
+            }
+            current = load(target);
+            snapshot = current;
+            return current;
+        }
+    }
+
+    private Snapshot load(long target) throws SQLException {
+        List<Entry> entries = database.query(CATALOG_QUERY, rs -> {
+            List<Entry> rows = new ArrayList<>();
+            while (rs.next()) {
+                rows.add(new Entry(rs.getInt("id"), rs.getString("title"), rs.getString("difficulty"),
+                        rs.getString("status"), rs.getInt("progress")));
+            }
+            return rows;
+        });
+
+        Map<Integer, Integer> indexById = new HashMap<>(entries.size() * 2);
+        String[] json = new String[entries.size()];
+        for (int i = 0; i < json.length; i++) {
+            Entry entry = entries.get(i);
+            indexById.put(entry.id(), i);
+            json[i] = toJson(entry);
+        }
+
+        loads.increment();
+        log.debug("Loaded puzzle catalog version {} ({} puzzles)", target, json.length);
+        return new Snapshot(target, List.copyOf(entries), indexById, json, new ConcurrentHashMap<>());
+    }
+
+    private static String toJson(Entry entry) {
+        JSONObject puzzle = new JSONObject();
+        puzzle.put("id", entry.id());
+        puzzle.put("title", entry.title());
+        puzzle.put("difficulty", entry.difficulty());
+        puzzle.put("status", entry.status());
+        puzzle.put("progress", entry.progress());
+        return puzzle.toString();
+    }
+
+    private static Page buildPage(Snapshot snapshot, PageKey key) {
+        List<Entry> entries = snapshot.entries();
+        StringBuilder puzzles = new StringBuilder("[");
+        int count = 0;
+        int lastId = 0;
+        int nextCursor = 0;
+        for (int i = 0; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            if (key.cursor() > 0 && entry.id() >= key.cursor() || !matches(entry, key)) {
+                continue;
+            }
+            if (count == key.limit()) {
+                // Another match exists, so the client can ask for the next page
+                nextCursor = lastId;
+                break;
+            }
+            if (count > 0) {
+                puzzles.append(',');
+            }
+            puzzles.append(snapshot.json()[i]);
+            lastId = entry.id();
+            count++;
+        }
+        puzzles.append(']');
+
+        // The key is part of the tag, so a tag issued for one page or filter never matches another
+        String fields = ",\"cursor\":" + key.cursor()
+                + ",\"difficulty\":" + quoteOrNull(key.difficulty())
+                + ",\"status\":" + quoteOrNull(key.status());
+        String body = fields
+                + ",\"nextCursor\":" + (nextCursor > 0 ? Integer.toString(nextCursor) : "null")
+                + ",\"puzzles\":" + puzzles + "}";
+        CRC32 crc = new CRC32();
+        crc.update(("limit=" + key.limit() + body).getBytes(StandardCharsets.UTF_8));
+        String etag = Long.toHexString(crc.getValue()) + "-" + count;
+
+        String quotedEtag = JSONObject.quote(etag);
+        return new Page(etag,
+                OutboundMessage.ofText("puzzles", "{\"type\":\"puzzles\",\"etag\":" + quotedEtag + body),
+                OutboundMessage.ofText("puzzlesNotModified",
+                        "{\"type\":\"puzzlesNotModified\",\"etag\":" + quotedEtag + fields + "}"));
+    }
+
+    private static String quoteOrNull(String value) {
+        return value == null ? "null" : JSONObject.quote(value);
+    }
+
+    private static boolean matches(Entry entry, PageKey key) {
+        return (key.difficulty() == null || key.difficulty().equalsIgnoreCase(entry.difficulty()))
+                && (key.status() == null || key.status().equalsIgnoreCase(entry.status()));
+    }
+
+    private static String normalize(String filter) {
+        return filter == null || filter.isBlank() ? null : filter.toLowerCase();
+    }
+
+    public long getLoads() {
+        return loads.sum();
+    }
+
+    /**
+     * Number of times written boards were patched into the catalog without a reload.
+     */
+    public long getPatches() {
+        return patches.sum();
+    }
+
+    public long getPageHits() {
+        return pageHits.sum();
+    }
+
+    public long getNotModified() {
+        return notModified.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "PuzzleCatalog{loads=" + getLoads() + ", patches=" + getPatches() + ", pageHits=" + getPageHits()
+                + ", notModified=" + getNotModified() + '}';
+    }
+}
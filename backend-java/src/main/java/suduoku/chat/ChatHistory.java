@@ -0,0 +1,92 @@
+package suduoku.chat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bounded in-memory history of a room's most recent chat messages, oldest first.
+ * New messages overwrite the oldest once the ring is full. The persisted history is merged in
+ * once, the first time the room's chat is fetched; older messages are paged from the database.
+ */
+public class ChatHistory {
+    private final ChatMessage[] ring;
+    private int head;
+    private int size;
+    private boolean loaded;
+    private boolean hasOlder;
+
+    /**
+     * @param capacity Number of recent messages kept
+     */
+    public ChatHistory(int capacity) {
+        this.ring = new ChatMessage[capacity];
+    }
+
+    public synchronized void append(ChatMessage message) {
+        if (size == ring.length) {
+            ring[head] = message;
+            head = (head + 1) % ring.length;
+            hasOlder = true;
+        } else {
+            ring[(head + size) % ring.length] = message;
+            size++;
+        }
+    }
+
+    public synchronized boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Merges persisted history in behind any messages appended before it was loaded.
+     * Only the first call has any effect.
+     *
+     * @param persisted Persisted messages, oldest first
+     * @param hasOlder  Whether the database holds messages older than the last of them
+     */
+    public synchronized void load(List<ChatMessage> persisted, boolean hasOlder) {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+
+        List<ChatMessage> recent = recent();
+        long oldestInMemory = recent.isEmpty() ? Long.MAX_VALUE : recent.getFirst().id();
+        List<ChatMessage> merged = new ArrayList<>(persisted.size() + recent.size());
+        for (ChatMessage message : persisted) {
+            if (message.id() < oldestInMemory) {
+                merged.add(message);
+            }
+        }
+        merged.addAll(recent);
+
+        head = 0;
+        size = 0;
+        this.hasOlder = hasOlder;
+        for (ChatMessage message : merged) {
+            append(message);
+        }
+    }
+
+    /**
+     * The messages held in memory, oldest first.
+     */
+    public synchronized List<ChatMessage> recent() {
+        List<ChatMessage> messages = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            messages.add(ring[(head + i) % ring.length]);
+        }
+        return messages;
+    }
+
+    /**
+     * Whether messages older than the ones in memory exist in the database.
+     */
+    public synchronized boolean hasOlder() {
+        return hasOlder;
+    }
+
+    public int getCapacity() {
+        return ring.length;
+    }
+}
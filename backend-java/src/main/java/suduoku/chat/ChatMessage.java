@@ -0,0 +1,30 @@
+package suduoku.chat;
+
+import org.json.JSONObject;
+
+/**
+ * A chat message in a puzzle room.
+ *
+ * @param id       Server-assigned id, increasing in the order messages were sent; used as the
+ *                 cursor when paging older history
+ * @param puzzleId The puzzle room the message was sent in
+ * @param user     Display name of the sender
+ * @param color    Display color of the sender
+ * @param text     The message text
+ * @param time     When the message was sent, in epoch milliseconds
+ */
+public record ChatMessage(long id, int puzzleId, String user, String color, String text, long time) {
+
+    /**
+     * Converts the message to the form sent to the frontend.
+     */
+    public JSONObject toJSON() {
+        JSONObject json = new JSONObject();
+        json.put("id", id);
+        json.put("user", user);
+        json.put("color", color);
+        json.put("message", text);
+        json.put("time", time);
+        return json;
+    }
+}
@@ -0,0 +1,95 @@
+package suduoku.concurrent;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Decides which thread runs the handling of each inbound WebSocket message.
+ * In {@link Mode#DIRECT} mode messages are handled on the container I/O thread that received them.
+ * In {@link Mode#VIRTUAL} mode they are handed to virtual threads, so blocking database calls never
+ * hold an I/O thread. Each session gets its own serial mailbox, so its messages are still handled
+ * one at a time in the order they arrived.
+ */
+@Log4j2
+public class MessageDispatcher {
+    /**
+     * Where inbound messages are handled.
+     */
+    public enum Mode {
+        DIRECT,
+        VIRTUAL;
+
+        /**
+         * Parses a mode name, case-insensitively.
+         */
+        public static Mode parse(String name) {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    @Getter
+    private final Mode mode;
+    private final ExecutorService executor;
+    private final Map<String, SerialExecutor> mailboxes = new ConcurrentHashMap<>();
+
+    public MessageDispatcher(Mode mode) {
+        this.mode = mode;
+        this.executor = mode == Mode.VIRTUAL ? Executors.newVirtualThreadPerTaskExecutor() : null;
+        log.info("Dispatching inbound messages in {} mode", mode);
+    }
+
+    /**
+     * Handles a message for a session, after every message it sent before.
+     */
+    public void dispatch(String sessionId, Runnable handler) {
+        if (executor == null) {
+            handler.run();
+            return;
+        }
+        mailboxes.computeIfAbsent(sessionId, id -> new SerialExecutor(executor)).execute(handler);
+    }
+
+    /**
+     * Runs a session's close handling after its remaining messages, then forgets the session.
+     */
+    public void close(String sessionId, Runnable handler) {
+        if (executor == null) {
+            handler.run();
+            return;
+        }
+        SerialExecutor mailbox = mailboxes.get(sessionId);
+        if (mailbox == null) {
+            handler.run();
+            return;
+        }
+        mailbox.execute(() -> {
+            try {
+                handler.run();
+            } finally {
+                mailboxes.remove(sessionId, mailbox);
+            }
+        });
+    }
+
+    /**
+     * Number of sessions with a mailbox.
+     */
+    public int getSessionCount() {
+        return mailboxes.size();
+    }
+
+    /**
+     * Stops accepting work. Messages already handed to virtual threads are left to finish.
+     */
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+}
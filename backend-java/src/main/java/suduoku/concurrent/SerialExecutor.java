@@ -0,0 +1,87 @@
+package suduoku.concurrent;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Mailbox that runs tasks one at a time, in submission order, on a shared pool.
+ * At most one pool thread drains a mailbox at any moment, so state confined to it needs no
+ * locks, while different mailboxes run in parallel. A drain hands the thread back after a
+ * batch of tasks so one busy mailbox cannot starve the others. A mailbox can also be held
+ * until a future completes, parking its queued tasks without occupying a pool thread.
+ */
+@Log4j2
+public class SerialExecutor implements Executor {
+    private static final int DRAIN_BATCH = 64;
+
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final Executor pool;
+
+    public SerialExecutor(Executor pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        tasks.add(task);
+        schedule();
+    }
+
+    /**
+     * Holds back every task queued after this call until the stage completes.
+     */
+    public void holdUntil(CompletableFuture<?> stage) {
+        execute(new Gate(stage));
+    }
+
+    private void schedule() {
+        if (!tasks.isEmpty() && scheduled.compareAndSet(false, true)) {
+            pool.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        CompletableFuture<?> parkedOn = null;
+        try {
+            for (int i = 0; i < DRAIN_BATCH; i++) {
+                Runnable task = tasks.peek();
+                if (task == null) {
+                    break;
+                }
+                if (task instanceof Gate gate && !gate.stage.isDone()) {
+                    parkedOn = gate.stage;
+                    break;
+                }
+                tasks.poll();
+                try {
+                    task.run();
+                } catch (Exception e) {
+                    log.error("Error running serial task: {}", e.getMessage(), e);
+                }
+            }
+        } finally {
+            scheduled.set(false);
+            if (parkedOn == null) {
+                schedule();
+            } else {
+                // Parked: the stage reschedules the drain once it completes
+                parkedOn.whenComplete((result, error) -> schedule());
+            }
+        }
+    }
+
+    /**
+     * Queue marker that blocks the tasks behind it until its stage completes.
+     */
+    private record Gate(CompletableFuture<?> stage) implements Runnable {
+        @Override
+        public void run() {
+        }
+    }
+}
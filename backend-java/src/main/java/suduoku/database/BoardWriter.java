@@ -0,0 +1,235 @@
+package suduoku.database;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import lombok.extern.log4j.Log4j2;
+import suduoku.Board.BoardSnapshot;
+import suduoku.Board.SudokuBoard;
+
+/**
+ * Write-behind persistence for Sudoku boards, their clocks and their progress.
+ * Boards are marked dirty on every edit and flushed by a background thread, which
+ * coalesces all pending edits into a single batched transaction. A flush runs every
+ * flush interval, or early once the number of dirty boards reaches the threshold.
+ */
+@Log4j2
+public class BoardWriter {
+    private static final String UPDATE_QUERY = "UPDATE puzzles SET sdx = ?, candidates = ?, elapsed_time = ?, "
+            + "status = ?, progress = ?, solved_at = ? WHERE id = ?";
+
+    private final Database database;
+    private final Map<Integer, SudokuBoard> dirtyBoards = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+    private final int dirtyThreshold;
+    private final Consumer<List<BoardSnapshot>> onFlushed;
+    private final AtomicBoolean earlyFlushPending = new AtomicBoolean();
+    private volatile boolean shutdown;
+
+    private final LongAdder markCount = new LongAdder();
+    private final LongAdder flushCount = new LongAdder();
+    private final LongAdder boardsWritten = new LongAdder();
+    private final LongAdder totalFlushNanos = new LongAdder();
+    private final AtomicLong maxFlushNanos = new AtomicLong();
+    private volatile long lastFlushNanos;
+
+    /**
+     * Creates a writer and starts its background flush thread.
+     *
+     * @param database        The database boards are written to
+     * @param flushIntervalMs How often pending edits are flushed, in milliseconds
+     * @param dirtyThreshold  Number of dirty boards that triggers an early flush
+     * @param onFlushed       Called on the writer thread with the snapshots of each successful write
+     */
+    public BoardWriter(Database database, long flushIntervalMs, int dirtyThreshold,
+            Consumer<List<BoardSnapshot>> onFlushed) {
+        this.database = database;
+        this.dirtyThreshold = dirtyThreshold;
+        this.onFlushed = onFlushed;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "board-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Marks a board as needing to be persisted. Repeated marks before the next flush
+     * are coalesced into a single write.
+     */
+    public void markDirty(SudokuBoard board) {
+        markCount.increment();
+        if (dirtyBoards.put(board.getPuzzleId(), board) == null
+                && dirtyBoards.size() >= dirtyThreshold
+                && !shutdown
+                && earlyFlushPending.compareAndSet(false, true)) {
+            scheduler.execute(this::flush);
+        }
+    }
+
+    /**
+     * Writes every dirty board to the database in one transaction.
+     * Boards that fail to write are re-queued for the next flush.
+     */
+    public synchronized void flush() {
+        earlyFlushPending.set(false);
+        if (dirtyBoards.isEmpty()) {
+            return;
+        }
+
+        List<SudokuBoard> pending = new ArrayList<>(dirtyBoards.size());
+        for (Integer puzzleId : dirtyBoards.keySet()) {
+            SudokuBoard board = dirtyBoards.remove(puzzleId);
+            if (board != null) {
+                pending.add(board);
+            }
+        }
+
+        try {
+            write(pending);
+        } catch (SQLException e) {
+            log.error("Error flushing {} boards, re-queueing: {}", pending.size(), e.getMessage(), e);
+            requeue(pending);
+        }
+    }
+
+    /**
+     * Immediately writes a single board if it has unflushed edits, so it can be safely
+     * dropped from memory. On failure the board stays queued.
+     */
+    public synchronized void writeNow(SudokuBoard board) throws SQLException {
+        if (!dirtyBoards.remove(board.getPuzzleId(), board)) {
+            return;
+        }
+        try {
+            write(List.of(board));
+        } catch (SQLException e) {
+            requeue(List.of(board));
+            throw e;
+        }
+    }
+
+    private void write(List<SudokuBoard> pending) throws SQLException {
+        long start = System.nanoTime();
+        List<BoardSnapshot> snapshots = captureSnapshots(pending);
+
+        database.transaction("flushBoards", conn -> {
+            PreparedStatement stmt = conn.prepare(UPDATE_QUERY);
+            for (BoardSnapshot snapshot : snapshots) {
+                stmt.setString(1, snapshot.sdx());
+                stmt.setBytes(2, snapshot.candidates());
+                stmt.setLong(3, snapshot.elapsedSeconds());
+                stmt.setString(4, snapshot.status().getLabel());
+                stmt.setInt(5, snapshot.progress());
+                if (snapshot.solvedAt() == 0) {
+                    stmt.setNull(6, Types.INTEGER);
+                } else {
+                    stmt.setLong(6, snapshot.solvedAt());
+                }
+                stmt.setInt(7, snapshot.puzzleId());
+                stmt.addBatch();
+            }
+            return stmt.executeBatch();
+        });
+
+        long elapsed = System.nanoTime() - start;
+        flushCount.increment();
+        boardsWritten.add(pending.size());
+        totalFlushNanos.add(elapsed);
+        maxFlushNanos.accumulateAndGet(elapsed, Math::max);
+        lastFlushNanos = elapsed;
+
+        log.debug("Flushed {} boards in {} ms, queue depth {}",
+                pending.size(), TimeUnit.NANOSECONDS.toMillis(elapsed), dirtyBoards.size());
+        onFlushed.accept(snapshots);
+    }
+
+    /**
+     * Captures every board on its own room mailbox in parallel, then waits for all of them.
+     */
+    private static List<BoardSnapshot> captureSnapshots(List<SudokuBoard> boards) throws SQLException {
+        List<CompletableFuture<BoardSnapshot>> captures = new ArrayList<>(boards.size());
+        for (SudokuBoard board : boards) {
+            captures.add(board.snapshot());
+        }
+
+        List<BoardSnapshot> snapshots = new ArrayList<>(captures.size());
+        try {
+            for (CompletableFuture<BoardSnapshot> capture : captures) {
+                snapshots.add(capture.join());
+            }
+        } catch (CompletionException e) {
+            throw new SQLException("Error capturing board snapshot", e.getCause());
+        }
+        return snapshots;
+    }
+
+    private void requeue(List<SudokuBoard> boards) {
+        for (SudokuBoard board : boards) {
+            dirtyBoards.putIfAbsent(board.getPuzzleId(), board);
+        }
+    }
+
+    /**
+     * Stops the background thread and flushes any remaining edits.
+     */
+    public void shutdown() {
+        shutdown = true;
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        log.info("Board writer stopped after {} flushes ({} boards written, {} edits coalesced)",
+                getFlushCount(), getBoardsWritten(), getMarkCount());
+    }
+
+    /**
+     * Number of boards waiting to be flushed.
+     */
+    public int getQueueDepth() {
+        return dirtyBoards.size();
+    }
+
+    public long getMarkCount() {
+        return markCount.sum();
+    }
+
+    public long getFlushCount() {
+        return flushCount.sum();
+    }
+
+    public long getBoardsWritten() {
+        return boardsWritten.sum();
+    }
+
+    public long getLastFlushNanos() {
+        return lastFlushNanos;
+    }
+
+    public long getMaxFlushNanos() {
+        return maxFlushNanos.get();
+    }
+
+    public long getAverageFlushNanos() {
+        long flushes = flushCount.sum();
+        return flushes == 0 ? 0 : totalFlushNanos.sum() / flushes;
+    }
+}
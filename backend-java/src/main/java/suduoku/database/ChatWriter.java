@@ -0,0 +1,136 @@
+package suduoku.database;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import lombok.extern.log4j.Log4j2;
+import suduoku.chat.ChatMessage;
+
+/**
+ * Write-behind persistence for chat messages.
+ * Message ids are assigned here, continuing from the highest persisted id, so a message can be
+ * broadcast before it is written. Pending messages are inserted by a background thread in one
+ * batched transaction per flush interval.
+ */
+@Log4j2
+public class ChatWriter {
+    private static final String MAX_ID_QUERY = "SELECT COALESCE(MAX(id), 0) FROM chat_logs";
+    private static final String INSERT_QUERY =
+            "INSERT INTO chat_logs (id, puzzle_id, user, color, message, time) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final Database database;
+    private final AtomicLong lastId;
+    private final ConcurrentLinkedQueue<ChatMessage> pending = new ConcurrentLinkedQueue<>();
+    private final ScheduledExecutorService scheduler;
+
+    private final LongAdder flushCount = new LongAdder();
+    private final LongAdder messagesWritten = new LongAdder();
+
+    /**
+     * Creates a writer and starts its background flush thread.
+     *
+     * @param database        The database messages are written to
+     * @param flushIntervalMs How often pending messages are inserted, in milliseconds
+     */
+    public ChatWriter(Database database, long flushIntervalMs) {
+        this.database = database;
+        try {
+            this.lastId = new AtomicLong(database.query(MAX_ID_QUERY, rs -> rs.next() ? rs.getLong(1) : 0L));
+        } catch (SQLException e) {
+            throw new IllegalStateException("Unable to read the last chat message id", e);
+        }
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "chat-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Reserves the id for a new message.
+     */
+    public long nextId() {
+        return lastId.incrementAndGet();
+    }
+
+    /**
+     * Queues a message for the next flush.
+     */
+    public void append(ChatMessage message) {
+        pending.add(message);
+    }
+
+    /**
+     * Inserts every pending message in one transaction. Messages that fail to write are
+     * re-queued for the next flush.
+     */
+    public synchronized void flush() {
+        List<ChatMessage> batch = new ArrayList<>();
+        ChatMessage message;
+        while ((message = pending.poll()) != null) {
+            batch.add(message);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            database.transaction("flushChat", conn -> {
+                PreparedStatement stmt = conn.prepare(INSERT_QUERY);
+                for (ChatMessage chat : batch) {
+                    stmt.setLong(1, chat.id());
+                    stmt.setInt(2, chat.puzzleId());
+                    stmt.setString(3, chat.user());
+                    stmt.setString(4, chat.color());
+                    stmt.setString(5, chat.text());
+                    stmt.setLong(6, chat.time());
+                    stmt.addBatch();
+                }
+                return stmt.executeBatch();
+            });
+            flushCount.increment();
+            messagesWritten.add(batch.size());
+        } catch (SQLException e) {
+            log.error("Error flushing {} chat messages, re-queueing: {}", batch.size(), e.getMessage(), e);
+            pending.addAll(batch);
+        }
+    }
+
+    /**
+     * Stops the background thread and flushes any remaining messages.
+     */
+    public void shutdown() {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        log.info("Chat writer stopped after {} flushes ({} messages written)", getFlushCount(), getMessagesWritten());
+    }
+
+    /**
+     * Number of messages waiting to be inserted.
+     */
+    public int getQueueDepth() {
+        return pending.size();
+    }
+
+    public long getFlushCount() {
+        return flushCount.sum();
+    }
+
+    public long getMessagesWritten() {
+        return messagesWritten.sum();
+    }
+}
@@ -0,0 +1,240 @@
+package suduoku.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.sqlite.SQLiteConfig;
+
+import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
+import suduoku.metrics.Histogram;
+
+/**
+ * Shared SQLite access layer.
+ * Holds a single serialized writer connection and a bounded pool of read-only connections,
+ * all in WAL mode so readers never block the writer. Every connection caches its prepared
+ * statements, and every query is timed per SQL string.
+ */
+@Log4j2
+public class Database {
+    private static final int BUSY_TIMEOUT_MS = 5000;
+    private static final long ACQUIRE_TIMEOUT_MS = 5000;
+
+    private final PooledConnection writer;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final BlockingQueue<PooledConnection> readers;
+    private final Map<String, QueryStats> queryStats = new ConcurrentHashMap<>();
+    /**
+     * Latency of every read query, in nanoseconds.
+     */
+    @Getter
+    private final Histogram readLatency = Histogram.ofNanos();
+    /**
+     * Latency of every single write statement, in nanoseconds.
+     */
+    @Getter
+    private final Histogram writeLatency = Histogram.ofNanos();
+    /**
+     * Latency of the commit that ends each transaction, in nanoseconds.
+     */
+    @Getter
+    private final Histogram commitLatency = Histogram.ofNanos();
+
+    /**
+     * Binds parameters onto a prepared statement.
+     */
+    @FunctionalInterface
+    public interface StatementBinder {
+        void bind(PreparedStatement stmt) throws SQLException;
+    }
+
+    /**
+     * Maps a result set to a value.
+     */
+    @FunctionalInterface
+    public interface ResultMapper<T> {
+        T map(ResultSet rs) throws SQLException;
+    }
+
+    /**
+     * Work executed inside a write transaction on the writer connection.
+     */
+    @FunctionalInterface
+    public interface TransactionWork<T> {
+        T execute(PooledConnection conn) throws SQLException;
+    }
+
+    /**
+     * Opens the writer connection and the reader pool, and brings the schema up to date.
+     *
+     * @param url         The SQLite JDBC URL
+     * @param readerCount Number of read-only connections in the pool
+     */
+    public Database(String url, int readerCount) {
+        try {
+            SQLiteConfig writerConfig = new SQLiteConfig();
+            writerConfig.setJournalMode(SQLiteConfig.JournalMode.WAL);
+            writerConfig.setSynchronous(SQLiteConfig.SynchronousMode.NORMAL);
+            writerConfig.setBusyTimeout(BUSY_TIMEOUT_MS);
+            this.writer = new PooledConnection(writerConfig.createConnection(url));
+
+            SQLiteConfig readerConfig = new SQLiteConfig();
+            readerConfig.setReadOnly(true);
+            readerConfig.setBusyTimeout(BUSY_TIMEOUT_MS);
+            this.readers = new ArrayBlockingQueue<>(readerCount);
+            for (int i = 0; i < readerCount; i++) {
+                readers.add(new PooledConnection(readerConfig.createConnection(url)));
+            }
+
+            Schema.migrate(this);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Unable to open database " + url, e);
+        }
+        log.info("Opened database {} with 1 writer and {} reader connections", url, readerCount);
+    }
+
+    /**
+     * Runs a read query without parameters on a pooled reader connection.
+     */
+    public <T> T query(String sql, ResultMapper<T> mapper) throws SQLException {
+        return query(sql, stmt -> { }, mapper);
+    }
+
+    /**
+     * Runs a read query on a pooled reader connection.
+     */
+    public <T> T query(String sql, StatementBinder binder, ResultMapper<T> mapper) throws SQLException {
+        PooledConnection conn = acquireReader();
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            PreparedStatement stmt = conn.prepare(sql);
+            binder.bind(stmt);
+            T result;
+            try (ResultSet rs = stmt.executeQuery()) {
+                result = mapper.map(rs);
+            }
+            failed = false;
+            return result;
+        } finally {
+            readLatency.record(record(sql, start, failed));
+            readers.offer(conn);
+        }
+    }
+
+    /**
+     * Runs a single write statement on the writer connection.
+     *
+     * @return The number of rows changed
+     */
+    public int update(String sql, StatementBinder binder) throws SQLException {
+        writeLock.lock();
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            PreparedStatement stmt = writer.prepare(sql);
+            binder.bind(stmt);
+            int changed = stmt.executeUpdate();
+            failed = false;
+            return changed;
+        } finally {
+            writeLatency.record(record(sql, start, failed));
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Runs work inside a single transaction on the writer connection, rolling back on failure.
+     *
+     * @param name Name the transaction is timed under
+     */
+    public <T> T transaction(String name, TransactionWork<T> work) throws SQLException {
+        writeLock.lock();
+        long start = System.nanoTime();
+        boolean failed = true;
+        Connection conn = writer.getConnection();
+        try {
+            conn.setAutoCommit(false);
+            T result = work.execute(writer);
+            long commitStart = System.nanoTime();
+            conn.commit();
+            commitLatency.record(System.nanoTime() - commitStart);
+            failed = false;
+            return result;
+        } finally {
+            try {
+                if (failed) {
+                    rollbackQuietly(conn);
+                }
+                conn.setAutoCommit(true);
+            } finally {
+                // Released even if auto-commit cannot be restored, or every later write would hang
+                record(name, start, failed);
+                writeLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Timing statistics keyed by SQL string or transaction name.
+     */
+    public Map<String, QueryStats> getQueryStats() {
+        return Collections.unmodifiableMap(queryStats);
+    }
+
+    /**
+     * Closes every pooled connection.
+     */
+    public void close() {
+        writeLock.lock();
+        try {
+            writer.close();
+        } finally {
+            writeLock.unlock();
+        }
+        PooledConnection conn;
+        while ((conn = readers.poll()) != null) {
+            conn.close();
+        }
+        queryStats.forEach((sql, stats) -> log.info("{} -> {}", sql, stats));
+    }
+
+    private PooledConnection acquireReader() throws SQLException {
+        try {
+            PooledConnection conn = readers.poll(ACQUIRE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            if (conn == null) {
+                throw new SQLException("Timed out waiting for a reader connection");
+            }
+            return conn;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted waiting for a reader connection", e);
+        }
+    }
+
+    /**
+     * @return The time taken, in nanoseconds
+     */
+    private long record(String sql, long start, boolean failed) {
+        long nanos = System.nanoTime() - start;
+        queryStats.computeIfAbsent(sql, key -> new QueryStats()).record(nanos, failed);
+        return nanos;
+    }
+
+    private static void rollbackQuietly(Connection conn) {
+        try {
+            conn.rollback();
+        } catch (SQLException e) {
+            log.warn("Error rolling back transaction: {}", e.getMessage());
+        }
+    }
+}
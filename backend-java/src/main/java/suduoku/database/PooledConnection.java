@@ -0,0 +1,73 @@
+package suduoku.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * A pooled SQLite connection with its own prepared statement cache.
+ * A connection is only ever used by one thread at a time, so the cache needs no locking.
+ */
+@Log4j2
+public class PooledConnection implements AutoCloseable {
+    private static final int STATEMENT_CACHE_SIZE = 32;
+
+    @Getter
+    private final Connection connection;
+    private final Map<String, PreparedStatement> statements;
+
+    PooledConnection(Connection connection) {
+        this.connection = connection;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                if (size() > STATEMENT_CACHE_SIZE) {
+                    closeQuietly(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached prepared statement for the query, preparing it on first use.
+     * Callers must not close the returned statement.
+     */
+    public PreparedStatement prepare(String sql) throws SQLException {
+        PreparedStatement stmt = statements.get(sql);
+        if (stmt == null) {
+            stmt = connection.prepareStatement(sql);
+            statements.put(sql, stmt);
+        } else {
+            stmt.clearParameters();
+        }
+        return stmt;
+    }
+
+    @Override
+    public void close() {
+        for (PreparedStatement stmt : statements.values()) {
+            closeQuietly(stmt);
+        }
+        statements.clear();
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            log.warn("Error closing database connection: {}", e.getMessage());
+        }
+    }
+
+    private static void closeQuietly(PreparedStatement stmt) {
+        try {
+            stmt.close();
+        } catch (SQLException e) {
+            log.warn("Error closing prepared statement: {}", e.getMessage());
+        }
+    }
+}
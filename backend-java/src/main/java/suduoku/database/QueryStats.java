@@ -0,0 +1,55 @@
+package suduoku.database;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free timing statistics for a single query.
+ */
+public class QueryStats {
+    private final LongAdder count = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    void record(long nanos, boolean failed) {
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulateAndGet(nanos, Math::max);
+        if (failed) {
+            errors.increment();
+        }
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    public long getAverageNanos() {
+        long calls = count.sum();
+        return calls == 0 ? 0 : totalNanos.sum() / calls;
+    }
+
+    @Override
+    public String toString() {
+        return "QueryStats{" +
+                "count=" + getCount() +
+                ", errors=" + getErrors() +
+                ", avgMicros=" + TimeUnit.NANOSECONDS.toMicros(getAverageNanos()) +
+                ", maxMicros=" + TimeUnit.NANOSECONDS.toMicros(getMaxNanos()) +
+                '}';
+    }
+}
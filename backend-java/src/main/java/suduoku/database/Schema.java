@@ -0,0 +1,53 @@
+package suduoku.database;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Versioned schema migrations, applied in order on startup.
+ * The schema version is kept in SQLite's {@code user_version}, so each migration runs exactly
+ * once per database file. New migrations are appended to the end of {@link #MIGRATIONS}.
+ */
+@Log4j2
+public final class Schema {
+    private static final List<String[]> MIGRATIONS = List.<String[]>of(
+            // 1: page chat history by id without scanning the whole table
+            new String[] {
+                    "CREATE INDEX IF NOT EXISTS idx_chat_logs_puzzle_id ON chat_logs (puzzle_id, id)"
+            },
+            // 2: progress and solve time tracked by the server, shown in the lobby
+            new String[] {
+                    "ALTER TABLE puzzles ADD COLUMN progress INTEGER NOT NULL DEFAULT 0",
+                    "ALTER TABLE puzzles ADD COLUMN solved_at INTEGER"
+            }
+    );
+
+    private Schema() {
+    }
+
+    /**
+     * Brings the database up to the latest schema version.
+     */
+    public static void migrate(Database database) throws SQLException {
+        int version = database.query("PRAGMA user_version", rs -> rs.next() ? rs.getInt(1) : 0);
+        if (version >= MIGRATIONS.size()) {
+            return;
+        }
+
+        database.transaction("migrateSchema", conn -> {
+            try (Statement stmt = conn.getConnection().createStatement()) {
+                for (int next = version; next < MIGRATIONS.size(); next++) {
+                    for (String sql : MIGRATIONS.get(next)) {
+                        stmt.execute(sql);
+                    }
+                }
+                stmt.execute("PRAGMA user_version = " + MIGRATIONS.size());
+            }
+            return null;
+        });
+        log.info("Migrated database schema from version {} to {}", version, MIGRATIONS.size());
+    }
+}
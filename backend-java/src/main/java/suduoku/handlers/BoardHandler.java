@@ -1,111 +1,145 @@
 package suduoku.handlers;
 
-import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 import org.json.JSONArray;
 import org.json.JSONObject;
 
 import jakarta.websocket.Session;
 import lombok.extern.log4j.Log4j2;
+import suduoku.Board.CellDelta;
 import suduoku.Board.SudokuBoard;
 import suduoku.Player;
+import suduoku.broadcast.Broadcaster;
+import suduoku.broadcast.OutboundMessage;
+import suduoku.protocol.InboundMessage.CandidateToggle;
+import suduoku.protocol.InboundMessage.CellChange;
+import suduoku.protocol.InboundMessage.CheckSolution;
+import suduoku.protocol.InboundMessage.ClearBoard;
+import suduoku.protocol.InboundMessage.FetchBoard;
+import suduoku.protocol.InboundMessage.FetchPuzzle;
+import suduoku.protocol.InboundMessage.IncorrectCellsUpdate;
+import suduoku.room.BoardCache;
+import suduoku.room.Room;
+import suduoku.room.RoomRegistry;
 
 /**
  * Handles board-related WebSocket operations (cell changes, candidates, board state)
  */
 @Log4j2
 public class BoardHandler {
-    private final Map<Integer, SudokuBoard> boards;
+    private final RoomRegistry rooms;
     private final Map<UUID, Player> players;
     private final PlayerHandler playerHandler;
+    private final Broadcaster broadcaster;
+    private final BoardCache boardCache;
 
-    public BoardHandler(Map<Integer, SudokuBoard> boards, Map<UUID, Player> players, PlayerHandler playerHandler) {
-        this.boards = boards;
+    public BoardHandler(RoomRegistry rooms, Map<UUID, Player> players, PlayerHandler playerHandler,
+            Broadcaster broadcaster, BoardCache boardCache) {
+        this.rooms = rooms;
         this.players = players;
         this.playerHandler = playerHandler;
+        this.broadcaster = broadcaster;
+        this.boardCache = boardCache;
     }
 
-    public void handleCellChange(JSONObject jsonMessage) {
-        int puzzleId = jsonMessage.getInt("puzzleId");
-        int row = jsonMessage.getInt("row");
-        int col = jsonMessage.getInt("col");
-        int value = jsonMessage.getInt("value");
+    public void handleCellChange(CellChange change) {
+        int puzzleId = change.puzzleId();
+        int row = change.row();
+        int col = change.col();
+        int value = change.value();
 
         log.debug("Cell change: puzzle={}, row={}, col={}, value={}", puzzleId, row, col, value);
 
-        SudokuBoard board = boards.get(puzzleId);
-        board.setCell(row, col, value);
-        broadcastBoard(puzzleId);
+        onBoard(puzzleId, board -> {
+            CellDelta delta = board.setCell(row, col, value);
+            if (delta != null) {
+                broadcastCellDelta(delta);
+            }
 
-        if (board.isSolved()) {
-            log.info("Puzzle {} has been solved!", puzzleId);
-            broadcastSolved(puzzleId);
-        }
+            if (board.isSolved()) {
+                log.info("Puzzle {} has been solved!", puzzleId);
+                broadcastSolved(board);
+                broadcastElapsedTime(board);
+            }
+        });
     }
 
-    public void handleCandidateToggle(JSONObject jsonMessage) {
-        int puzzleId = jsonMessage.getInt("puzzleId");
-        int row = jsonMessage.getInt("row");
-        int col = jsonMessage.getInt("col");
-        int candidate = jsonMessage.getInt("candidate");
+    public void handleCandidateToggle(CandidateToggle toggle) {
+        int puzzleId = toggle.puzzleId();
+        int row = toggle.row();
+        int col = toggle.col();
+        int candidate = toggle.candidate();
 
         log.debug("Candidate toggle: puzzle={}, row={}, col={}, candidate={}", puzzleId, row, col, candidate);
 
-        SudokuBoard board = boards.get(puzzleId);
-        board.toggleCandidate(row, col, candidate);
-        broadcastBoard(puzzleId);
+        onBoard(puzzleId, board -> {
+            CellDelta delta = board.toggleCandidate(row, col, candidate);
+            if (delta != null) {
+                broadcastCellDelta(delta);
+            }
+        });
+    }
+
+    /**
+     * Sends a full board snapshot to a single client, used when it detects a gap in cell delta versions.
+     */
+    public void handleBoardFetch(Session session, FetchBoard request) {
+        int puzzleId = request.puzzleId();
+
+        log.debug("Board resync requested: puzzle={}, session={}", puzzleId, session.getId());
+
+        onBoard(puzzleId, board -> broadcaster.send(session, boardMessage(board)));
     }
 
-    public void handleClearBoard(JSONObject jsonMessage) {
-        int puzzleId = jsonMessage.getInt("puzzleId");
-        SudokuBoard board = boards.get(puzzleId);
-        board.clearBoard();
-        board.clearIncorrectCells();
+    public void handleClearBoard(ClearBoard request) {
+        onBoard(request.puzzleId(), board -> {
+            board.clearBoard();
+            board.clearIncorrectCells();
 
-        broadcastIncorrectCells(puzzleId);
-        broadcastBoard(puzzleId);
+            broadcastIncorrectCells(board);
+            broadcastBoard(board);
+            broadcastElapsedTime(board);
+        });
     }
 
-    public void handleCheckSolution(JSONObject jsonMessage) {
-        int puzzleId = jsonMessage.getInt("puzzleId");
-        SudokuBoard board = boards.get(puzzleId);
-        board.updateIncorrectCells();
-        broadcastIncorrectCells(puzzleId);
+    public void handleCheckSolution(CheckSolution request) {
+        onBoard(request.puzzleId(), board -> {
+            board.updateIncorrectCells();
+            broadcastIncorrectCells(board);
+        });
     }
 
-    public void handleIncorrectCellsUpdate(JSONObject jsonMessage) {
-        int puzzleId = jsonMessage.getInt("puzzleId");
-        SudokuBoard board = boards.get(puzzleId);
-        int row = jsonMessage.getInt("row");
-        int col = jsonMessage.getInt("col");
+    public void handleIncorrectCellsUpdate(IncorrectCellsUpdate update) {
+        onBoard(update.puzzleId(), board -> {
+            if (board.removeIncorrectCell(update.row(), update.col())) {
+                broadcastIncorrectCells(board);
+            }
+        });
+    }
 
-        board.removeIncorrectCell(new int[]{row, col});
-        broadcastIncorrectCells(puzzleId);
+    public void broadcastBoard(SudokuBoard board) {
+        rooms.broadcast(board.getPuzzleId(), boardMessage(board));
     }
 
-    public void broadcastBoard(int puzzleId) {
-        SudokuBoard board = boards.get(puzzleId);
-        JSONObject boardJson = board.getBoardJSON();
+    public void broadcastCellDelta(CellDelta delta) {
+        rooms.broadcast(delta.puzzleId(), OutboundMessage.of(delta.toJSON(), delta.toBinary()));
+    }
 
-        for (Player currentPlayer : players.values()) {
-            Session currentSession = currentPlayer.getSession();
+    private static OutboundMessage boardMessage(SudokuBoard board) {
+        return OutboundMessage.of(board.getBoardJSON(), board.getBoardBinary());
+    }
 
-            if (currentSession.isOpen() && currentPlayer.getCurrentPuzzleId() == puzzleId) {
-                try {
-                    currentSession.getBasicRemote().sendText(boardJson.toString());
-                } catch (IOException e) {
-                    log.error("Error broadcasting board to session {}: {}", currentSession.getId(), e.getMessage(), e);
-                }
-            }
-        }
+    public void broadcastIncorrectCells(SudokuBoard board) {
+        rooms.broadcast(board.getPuzzleId(), incorrectCellsMessage(board));
     }
 
-    public void broadcastIncorrectCells(int puzzleId) {
+    private static OutboundMessage incorrectCellsMessage(SudokuBoard board) {
         JSONArray incorrectCellsJson = new JSONArray();
-        List<int[]> incorrectCells = boards.get(puzzleId).getIncorrectCells();
+        List<int[]> incorrectCells = board.getIncorrectCells();
         for (int[] cell : incorrectCells) {
             JSONObject cellJson = new JSONObject();
             cellJson.put("row", cell[0]);
@@ -116,53 +150,80 @@ public class BoardHandler {
         JSONObject response = new JSONObject();
         response.put("type", "updateIncorrectCells");
         response.put("incorrectCells", incorrectCellsJson);
-        response.put("puzzleId", puzzleId);
+        response.put("puzzleId", board.getPuzzleId());
+        return OutboundMessage.of(response);
+    }
 
-        for (Player currentPlayer : players.values()) {
-            Session currentSession = currentPlayer.getSession();
-            if (currentSession.isOpen() && currentPlayer.getCurrentPuzzleId() == puzzleId) {
-                try {
-                    currentSession.getBasicRemote().sendText(response.toString());
-                } catch (IOException e) {
-                    log.error("Error broadcasting incorrect cells to session {}: {}", currentSession.getId(), e.getMessage(), e);
-                }
-            }
-        }
+    public void broadcastElapsedTime(SudokuBoard board) {
+        rooms.broadcast(board.getPuzzleId(), elapsedTimeMessage(board));
+    }
+
+    private static OutboundMessage elapsedTimeMessage(SudokuBoard board) {
+        return OutboundMessage.of(board.getElapsedTimeJSON());
     }
 
-    public void broadcastSolved(int puzzleId) {
+    public void broadcastSolved(SudokuBoard board) {
         JSONObject response = new JSONObject();
         response.put("type", "updatePuzzleSolved");
-        for (Player currentPlayer : players.values()) {
-            Session currentSession = currentPlayer.getSession();
-            if (currentSession.isOpen() && currentPlayer.getCurrentPuzzleId() == puzzleId) {
-                try {
-                    currentSession.getBasicRemote().sendText(response.toString());
-                } catch (IOException e) {
-                    log.error("Error sending updatePuzzleSolved to session {}: {}", currentSession.getId(), e.getMessage(), e);
-                }
-            }
-        }
+        rooms.broadcast(board.getPuzzleId(), OutboundMessage.of(response));
     }
 
-    public void handlePuzzleFetch(JSONObject jsonMessage) {
-        String clientIdStr = jsonMessage.getString("clientId");
-        int puzzleId = jsonMessage.getInt("puzzleId");
+    /**
+     * Joins a player to a puzzle room. The board is loaded off the socket thread if needed, and the
+     * room state is sent from the room's mailbox once it is available: the board, incorrect cells and
+     * clock to the joiner only, since the other members are kept current by deltas, and the players
+     * and their positions to the whole room.
+     */
+    public void handlePuzzleFetch(Session session, FetchPuzzle request) {
+        UUID clientId = request.clientId();
+        int puzzleId = request.puzzleId();
 
-        UUID clientId = UUID.fromString(clientIdStr);
-        players.get(clientId).setCurrentPuzzleId(puzzleId);
+        Player player = players.get(clientId);
+        Room room = rooms.join(player, puzzleId);
 
         log.info("Player {} joined puzzle {}", clientId, puzzleId);
 
-        if (!boards.containsKey(puzzleId)) {
-            boards.put(puzzleId, new SudokuBoard(puzzleId));
-            log.info("Created new board for puzzle {}", puzzleId);
+        boardCache.loadBoard(room).whenComplete((board, error) -> {
+            if (board == null) {
+                handlePuzzleNotFound(session, player, puzzleId);
+                return;
+            }
+            room.execute(() -> {
+                broadcaster.send(session, boardMessage(board));
+                broadcaster.send(session, incorrectCellsMessage(board));
+                broadcaster.send(session, elapsedTimeMessage(board));
+                playerHandler.broadcastPlayerPositions(puzzleId);
+                playerHandler.broadcastPlayersList(puzzleId);
+            });
+        });
+    }
+
+    private void handlePuzzleNotFound(Session session, Player player, int puzzleId) {
+        if (player.getCurrentPuzzleId() == puzzleId) {
+            rooms.leave(player);
         }
 
-        broadcastBoard(puzzleId);
-        broadcastIncorrectCells(puzzleId);
-        playerHandler.broadcastPlayerPositions(puzzleId);
-        playerHandler.broadcastPlayersList(puzzleId);
+        JSONObject response = new JSONObject();
+        response.put("type", "puzzleNotFound");
+        response.put("puzzleId", puzzleId);
+        broadcaster.send(session, OutboundMessage.of(response));
     }
-}
 
+    /**
+     * Runs a board operation on the room's mailbox, after every operation already queued for the room.
+     * Skipped if nobody has opened the puzzle or its board failed to load. An operation sent while the
+     * board is loading waits for it, since the mailbox is held until the load finishes.
+     */
+    private void onBoard(int puzzleId, Consumer<SudokuBoard> operation) {
+        Room room = rooms.getRoom(puzzleId);
+        if (room == null) {
+            return;
+        }
+        room.execute(() -> {
+            SudokuBoard board = room.getBoard();
+            if (board != null) {
+                operation.accept(board);
+            }
+        });
+    }
+}
@@ -1,102 +1,181 @@
 package suduoku.handlers;
 
-import java.io.IOException;
-import java.sql.Connection;
-import java.sql.DriverManager;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.Map;
-import java.util.UUID;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
 
 import org.json.JSONArray;
 import org.json.JSONObject;
 
 import jakarta.websocket.Session;
 import lombok.extern.log4j.Log4j2;
-import suduoku.Player;
-
-import static suduoku.Constants.DB_URL;
+import suduoku.broadcast.Broadcaster;
+import suduoku.broadcast.OutboundMessage;
+import suduoku.chat.ChatHistory;
+import suduoku.chat.ChatMessage;
+import suduoku.database.ChatWriter;
+import suduoku.database.Database;
+import suduoku.protocol.InboundMessage.FetchChat;
+import suduoku.protocol.InboundMessage.FetchChatHistory;
+import suduoku.protocol.InboundMessage.SendChat;
+import suduoku.room.Room;
+import suduoku.room.RoomRegistry;
 
 /**
- * Handles chat-related WebSocket operations
+ * Handles chat-related WebSocket operations.
+ * A room keeps its recent messages in memory: joining sends them as one "updateChat", each new
+ * message is broadcast once as "appendChat", and older pages are read from the database on request
+ * and sent as "prependChat". Database reads run on a loader executor, never on the socket threads.
  */
 @Log4j2
 public class ChatHandler {
-    private final Map<UUID, Player> players;
+    private static final String PAGE_QUERY =
+            "SELECT id, user, color, message, time FROM chat_logs WHERE puzzle_id = ? AND id < ? ORDER BY id DESC LIMIT ?";
+
+    private final RoomRegistry rooms;
+    private final Broadcaster broadcaster;
+    private final Database database;
+    private final ChatWriter chatWriter;
+    private final Executor loader;
+    private final int pageSize;
+
+    /**
+     * @param loader   Executor pages are read from the database on, off the socket threads
+     * @param pageSize Number of older messages sent per "fetchChatHistory" request
+     */
+    public ChatHandler(RoomRegistry rooms, Broadcaster broadcaster, Database database, ChatWriter chatWriter,
+            Executor loader, int pageSize) {
+        this.rooms = rooms;
+        this.broadcaster = broadcaster;
+        this.database = database;
+        this.chatWriter = chatWriter;
+        this.loader = loader;
+        this.pageSize = pageSize;
+    }
+
+    public void fetchChat(Session session, FetchChat request) {
+        int puzzleId = request.puzzleId();
+        Room room = rooms.getRoom(puzzleId);
+
+        if (room == null) {
+            loader.execute(() -> {
+                Page recent = loadPage(puzzleId, Long.MAX_VALUE, pageSize);
+                if (recent != null) {
+                    broadcaster.send(session, chatMessage("updateChat", puzzleId, recent.messages(), recent.hasMore()));
+                }
+            });
+            return;
+        }
+
+        ChatHistory history = room.getChat();
+        if (history.isLoaded()) {
+            sendRecent(session, room, history);
+            return;
+        }
+        loader.execute(() -> {
+            Page recent = loadPage(puzzleId, Long.MAX_VALUE, history.getCapacity());
+            if (recent != null) {
+                history.load(recent.messages(), recent.hasMore());
+                sendRecent(session, room, history);
+            }
+        });
+    }
+
+    public void fetchChatHistory(Session session, FetchChatHistory request) {
+        int puzzleId = request.puzzleId();
+
+        loader.execute(() -> {
+            Page older = loadPage(puzzleId, request.before(), pageSize);
+            if (older != null) {
+                broadcaster.send(session, chatMessage("prependChat", puzzleId, older.messages(), older.hasMore()));
+            }
+        });
+    }
 
-    public ChatHandler(Map<UUID, Player> players) {
-        this.players = players;
+    /**
+     * Reads on the mailbox so the snapshot is ordered with the room's appendChat broadcasts.
+     */
+    private void sendRecent(Session session, Room room, ChatHistory history) {
+        room.execute(() -> broadcaster.send(session,
+                chatMessage("updateChat", room.getPuzzleId(), history.recent(), history.hasOlder())));
     }
 
-    public void fetchChat(Session session, JSONObject jsonMessage) {
-        int puzzleId = jsonMessage.getInt("puzzleId");
-        String query = "SELECT user, color, message, time FROM chat_logs WHERE puzzle_id = ?";
+    public void sendChat(SendChat chat) {
+        int puzzleId = chat.puzzleId();
+        Room room = rooms.getRoom(puzzleId);
+        if (room == null) {
+            chatWriter.append(newMessage(chat));
+            return;
+        }
 
-        try (Connection conn = DriverManager.getConnection(DB_URL);
-            PreparedStatement stmt = conn.prepareStatement(query)) {
+        room.execute(() -> {
+            ChatMessage message = newMessage(chat);
+            room.getChat().append(message);
+            chatWriter.append(message);
+
+            JSONObject response = new JSONObject();
+            response.put("type", "appendChat");
+            response.put("puzzleId", puzzleId);
+            response.put("message", message.toJSON());
+            room.broadcast(OutboundMessage.of(response));
+        });
+    }
 
-            stmt.setInt(1, puzzleId);
+    private ChatMessage newMessage(SendChat chat) {
+        return new ChatMessage(chatWriter.nextId(), chat.puzzleId(), chat.user(), chat.color(), chat.text(),
+                System.currentTimeMillis());
+    }
 
-            try (ResultSet rs = stmt.executeQuery()) {
-                JSONArray messages = new JSONArray();
+    /**
+     * Messages of a page, oldest first, and whether the database holds older ones.
+     */
+    private record Page(List<ChatMessage> messages, boolean hasMore) {
+    }
 
+    /**
+     * Reads up to {@code limit} messages older than {@code before}, fetching one extra row to
+     * tell whether more remain. Pending messages are flushed first so none are missed.
+     * Runs on the loader pool, since both the flush and the query block on the database.
+     *
+     * @return The page, or null if it could not be read
+     */
+    private Page loadPage(int puzzleId, long before, int limit) {
+        try {
+            chatWriter.flush();
+            List<ChatMessage> newestFirst = database.query(PAGE_QUERY, stmt -> {
+                stmt.setInt(1, puzzleId);
+                stmt.setLong(2, before);
+                stmt.setInt(3, limit + 1);
+            }, rs -> {
+                List<ChatMessage> rows = new ArrayList<>();
                 while (rs.next()) {
-                    JSONObject message = new JSONObject();
-                    message.put("user", rs.getString("user"));
-                    message.put("color", rs.getString("color"));
-                    message.put("message", rs.getString("message"));
-                    message.put("time", rs.getLong("time"));
-                    messages.put(message);
+                    rows.add(new ChatMessage(rs.getLong("id"), puzzleId, rs.getString("user"), rs.getString("color"),
+                            rs.getString("message"), rs.getLong("time")));
                 }
+                return rows;
+            });
 
-                JSONObject response = new JSONObject();
-                response.put("type", "updateChat");
-                response.put("messages", messages);
-
-                session.getBasicRemote().sendText(response.toString());
-            }
+            boolean hasMore = newestFirst.size() > limit;
+            List<ChatMessage> page = hasMore ? newestFirst.subList(0, limit) : newestFirst;
+            return new Page(page.reversed(), hasMore);
         } catch (SQLException e) {
             log.error("Error fetching chat history for puzzle {}: {}", puzzleId, e.getMessage(), e);
-        } catch (IOException e) {
-            log.error("Error sending chat response for session {}: {}", session.getId(), e.getMessage(), e);
+            return null;
         }
     }
 
-    public void sendChat(JSONObject jsonMessage) {
-        JSONObject incomingChat = jsonMessage.getJSONObject("message");
-        String clientName = incomingChat.getString("user");
-        String clientColor = incomingChat.getString("color");
-        String chatText = incomingChat.getString("text");
-        int puzzleId = incomingChat.getInt("puzzleId");
-
-        String query = "INSERT INTO chat_logs (puzzle_id, user, color, message, time) VALUES (?, ?, ?, ?, ?)";
-        try (Connection conn = DriverManager.getConnection(DB_URL);
-            PreparedStatement stmt = conn.prepareStatement(query)) {
-
-            stmt.setInt(1, puzzleId);
-            stmt.setString(2, clientName);
-            stmt.setString(3, clientColor);
-            stmt.setString(4, chatText);
-            stmt.setLong(5, System.currentTimeMillis());
-
-            stmt.executeUpdate();
-            broadcastChat(puzzleId);
-        } catch (SQLException e) {
-            log.error("Error saving chat message for puzzle {}: {}", puzzleId, e.getMessage(), e);
+    private static OutboundMessage chatMessage(String type, int puzzleId, List<ChatMessage> messages, boolean hasMore) {
+        JSONArray rows = new JSONArray();
+        for (ChatMessage message : messages) {
+            rows.put(message.toJSON());
         }
-    }
-
-    public void broadcastChat(int puzzleId) {
-        for (Player currentPlayer : players.values()) {
-            Session currentSession = currentPlayer.getSession();
 
-            if (currentSession.isOpen() && currentPlayer.getCurrentPuzzleId() == puzzleId) {
-                JSONObject JSONPuzzleId = new JSONObject();
-                JSONPuzzleId.put("puzzleId", puzzleId);
-                fetchChat(currentSession, JSONPuzzleId);
-            }
-        }
+        JSONObject response = new JSONObject();
+        response.put("type", type);
+        response.put("puzzleId", puzzleId);
+        response.put("messages", rows);
+        response.put("hasMore", hasMore);
+        return OutboundMessage.of(response);
     }
 }
-
@@ -1,7 +1,6 @@
 package suduoku.handlers;
 
-import java.io.IOException;
-import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -12,6 +11,15 @@ import org.json.JSONObject;
 import jakarta.websocket.Session;
 import lombok.extern.log4j.Log4j2;
 import suduoku.Player;
+import suduoku.broadcast.Broadcaster;
+import suduoku.broadcast.OutboundMessage;
+import suduoku.protocol.BinaryCodec;
+import suduoku.protocol.InboundMessage.FetchIdentity;
+import suduoku.protocol.InboundMessage.LeaveRoom;
+import suduoku.protocol.InboundMessage.PlayerPosition;
+import suduoku.room.PositionAggregator;
+import suduoku.room.Room;
+import suduoku.room.RoomRegistry;
 
 /**
  * Handles player-related WebSocket operations (identity, positions, player list)
@@ -19,21 +27,26 @@ import suduoku.Player;
 @Log4j2
 public class PlayerHandler {
     private final Map<UUID, Player> players;
+    private final RoomRegistry rooms;
+    private final Broadcaster broadcaster;
+    private final PositionAggregator positions;
 
-    public PlayerHandler(Map<UUID, Player> players) {
+    public PlayerHandler(Map<UUID, Player> players, RoomRegistry rooms, Broadcaster broadcaster,
+            PositionAggregator positions) {
         this.players = players;
+        this.rooms = rooms;
+        this.broadcaster = broadcaster;
+        this.positions = positions;
     }
 
-    public void handleIdentity(Session session, JSONObject jsonMessage) {
-        UUID clientId = UUID.fromString(jsonMessage.getString("clientId"));
+    public void handleIdentity(Session session, FetchIdentity request) {
+        handleIdentity(session, request.clientId());
+    }
 
-        if (!players.containsKey(clientId)) {
-            players.put(clientId, new Player(session));
-        } else {
-            players.get(clientId).setSession(session);
-        }
+    private void handleIdentity(Session session, UUID clientId) {
+        Player clientPlayer = players.computeIfAbsent(clientId, id -> new Player(session));
+        rooms.registerSession(session, clientPlayer);
 
-        Player clientPlayer = players.get(clientId);
         String clientName = clientPlayer.getName();
         String clientColor = clientPlayer.getColor();
 
@@ -45,69 +58,85 @@ public class PlayerHandler {
         response.put("type", "updateIdentity");
         response.put("client", clientInfo);
 
-        try {
-            session.getBasicRemote().sendText(response.toString());
-        } catch (IOException e) {
-            log.error("Error sending identity response for session {}: {}", session.getId(), e.getMessage(), e);
-        }
+        broadcaster.send(session, OutboundMessage.of(response));
     }
 
-    public void handlePlayerPosition(Session session, JSONObject jsonMessage) {
-        UUID clientId = UUID.fromString(jsonMessage.getString("clientId"));
+    public void handlePlayerPosition(Session session, PlayerPosition position) {
+        UUID clientId = position.clientId();
         Player player = players.get(clientId);
 
         if (player == null) {
-            handleIdentity(session, jsonMessage);
+            handleIdentity(session, clientId);
             player = players.get(clientId);
         }
 
-        JSONObject position = jsonMessage.getJSONObject("position");
-        int row = position.getInt("row");
-        int col = position.getInt("col");
-
-        player.setSelectedRow(row);
-        player.setSelectedCol(col);
+        player.selectCell(position.row(), position.col());
 
-        int puzzleId = player.getCurrentPuzzleId();
-        broadcastPlayerPositions(puzzleId);
+        Room room = rooms.getRoom(player.getCurrentPuzzleId());
+        if (room != null) {
+            positions.record(room, player);
+        }
     }
 
+    /**
+     * Sends the positions of every player in a room, in order with the room's board broadcasts.
+     */
     public void broadcastPlayerPositions(int puzzleId) {
-        List<Player> playersInPuzzle = getPlayersInPuzzle(puzzleId);
-        JSONArray playerPositions = new JSONArray();
+        Room room = rooms.getRoom(puzzleId);
+        if (room != null) {
+            room.execute(() -> sendPlayerPositions(room));
+        }
+    }
 
-        for (Player currPlayer : playersInPuzzle) {
+    private void sendPlayerPositions(Room room) {
+        List<Player> members = List.copyOf(room.getMembers());
+        room.broadcast(OutboundMessage.of(positionsJSON("updatePlayerPositions", members),
+                BinaryCodec.encodePlayerPositions(members)));
+    }
+
+    /**
+     * The "updateChangedPositions" message for players that moved, which clients merge into
+     * the positions they already have.
+     */
+    public static OutboundMessage changedPositionsMessage(List<Player> moved) {
+        return OutboundMessage.of(positionsJSON("updateChangedPositions", moved),
+                BinaryCodec.encodeChangedPositions(moved));
+    }
+
+    private static JSONObject positionsJSON(String type, List<Player> players) {
+        JSONArray playerPositions = new JSONArray();
+        for (Player currPlayer : players) {
             JSONObject playerJson = new JSONObject();
             playerJson.put("name", currPlayer.getName());
             playerJson.put("color", currPlayer.getColor());
+            int cell = currPlayer.getSelectedCell();
             playerJson.put("position", new JSONObject()
-                .put("row", currPlayer.getSelectedRow())
-                .put("col", currPlayer.getSelectedCol())
+                .put("row", cell == Player.NO_CELL ? -1 : cell / 9)
+                .put("col", cell == Player.NO_CELL ? -1 : cell % 9)
             );
             playerPositions.put(playerJson);
         }
 
         JSONObject response = new JSONObject();
-        response.put("type", "updatePlayerPositions");
+        response.put("type", type);
         response.put("positions", playerPositions);
+        return response;
+    }
 
-        for (Player currentPlayer : players.values()) {
-            Session currentSession = currentPlayer.getSession();
-
-            if (currentSession.isOpen() && currentPlayer.getCurrentPuzzleId() == puzzleId) {
-                try {
-                    currentSession.getBasicRemote().sendText(response.toString());
-                } catch (IOException e) {
-                    log.error("Error broadcasting player positions to session {}: {}", currentSession.getId(), e.getMessage(), e);
-                }
-            }
+    /**
+     * Sends the list of players in a room, in order with the room's board broadcasts.
+     */
+    public void broadcastPlayersList(int puzzleId) {
+        Room room = rooms.getRoom(puzzleId);
+        if (room != null) {
+            room.execute(() -> sendPlayersList(room));
         }
     }
 
-    public void broadcastPlayersList(int puzzleId) {
-        List<Player> playersInPuzzle = getPlayersInPuzzle(puzzleId);
+    private void sendPlayersList(Room room) {
+
         JSONArray playersArray = new JSONArray();
-        for (Player player : playersInPuzzle) {
+        for (Player player : room.getMembers()) {
             JSONObject playerJson = new JSONObject();
             playerJson.put("name", player.getName());
             playerJson.put("color", player.getColor());
@@ -118,47 +147,47 @@ public class PlayerHandler {
         response.put("type", "updatePlayers");
         response.put("players", playersArray);
 
-        for (Player currentPlayer : players.values()) {
-            Session currentSession = currentPlayer.getSession();
-
-            if (currentSession.isOpen() && currentPlayer.getCurrentPuzzleId() == puzzleId) {
-                try {
-                    currentSession.getBasicRemote().sendText(response.toString());
-                } catch (IOException e) {
-                    log.error("Error broadcasting players to session {}: {}", currentSession.getId(), e.getMessage(), e);
-                }
-            }
-        }
+        room.broadcast(OutboundMessage.of(response));
     }
 
-    public void handleLeaveRoom(JSONObject jsonMessage) {
-        UUID clientId = UUID.fromString(jsonMessage.getString("clientId"));
+    public void handleLeaveRoom(LeaveRoom request) {
+        UUID clientId = request.clientId();
         Player player = players.get(clientId);
         if (player == null) {
             return;
         }
-        int puzzleId = jsonMessage.getInt("puzzleId");
+        int puzzleId = request.puzzleId();
+        if (player.getCurrentPuzzleId() != puzzleId) {
+            return;
+        }
 
         log.info("Player {} left puzzle {}", clientId, puzzleId);
 
-        player.setCurrentPuzzleId(-1);
-        player.setSelectedCol(-1);
-        player.setSelectedRow(-1);
-
-        if (puzzleId != -1) {
-            broadcastPlayerPositions(puzzleId);
-            broadcastPlayersList(puzzleId);
+        Room room = rooms.leave(player);
+        if (room != null) {
+            broadcastPlayerPositions(room.getPuzzleId());
+            broadcastPlayersList(room.getPuzzleId());
         }
     }
 
-    public List<Player> getPlayersInPuzzle(int puzzleId) {
-        List<Player> playersInPuzzle = new ArrayList<>();
-        for(Player currentPlayer : players.values()) {
-            if (currentPlayer.getCurrentPuzzleId() == puzzleId) {
-                playersInPuzzle.add(currentPlayer);
-            }
+    /**
+     * Handles a closed session, removing its player from their room
+     */
+    public void handleDisconnect(Session session) {
+        Player player = rooms.removeSession(session);
+        if (player == null) {
+            return;
+        }
+
+        Room room = rooms.leave(player);
+        if (room != null) {
+            broadcastPlayerPositions(room.getPuzzleId());
+            broadcastPlayersList(room.getPuzzleId());
         }
-        return playersInPuzzle;
     }
-}
 
+    public Collection<Player> getPlayersInPuzzle(int puzzleId) {
+        Room room = rooms.getRoom(puzzleId);
+        return room == null ? List.of() : room.getMembers();
+    }
+}
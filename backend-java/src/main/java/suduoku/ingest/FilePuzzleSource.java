@@ -0,0 +1,46 @@
+package suduoku.ingest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Puzzles from a local JSON file, for development databases and tests. The file holds an array of
+ * {@code {"title", "difficulty", "puzzle": [81 ints], "solution": [81 ints]}} objects; the solution
+ * may be left out, in which case the ingestor solves the puzzle.
+ */
+public class FilePuzzleSource implements PuzzleSource {
+    private final Path path;
+
+    public FilePuzzleSource(Path path) {
+        this.path = path;
+    }
+
+    @Override
+    public String getName() {
+        return "file:" + path;
+    }
+
+    @Override
+    public List<PuzzleDefinition> fetch() throws IOException {
+        try {
+            JSONArray entries = new JSONArray(Files.readString(path));
+            List<PuzzleDefinition> puzzles = new ArrayList<>(entries.length());
+            for (int i = 0; i < entries.length(); i++) {
+                JSONObject entry = entries.getJSONObject(i);
+                puzzles.add(new PuzzleDefinition(entry.getString("title"), entry.getString("difficulty"),
+                        PuzzleDefinition.cells(entry.getJSONArray("puzzle")),
+                        entry.has("solution") ? PuzzleDefinition.cells(entry.getJSONArray("solution")) : null));
+            }
+            return puzzles;
+        } catch (JSONException e) {
+            throw new IOException("Malformed puzzle file " + path + ": " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package suduoku.ingest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Today's easy, medium and hard puzzles from the New York Times Sudoku page, read from the game
+ * data embedded in the page.
+ */
+public class NytPuzzleSource implements PuzzleSource {
+    private static final URI PAGE = URI.create("https://www.nytimes.com/puzzles/sudoku/");
+    private static final Pattern GAME_DATA = Pattern.compile("window\\.gameData = (\\{.+?})\\s*</script>", Pattern.DOTALL);
+    private static final String[] DIFFICULTIES = {"easy", "medium", "hard"};
+    private static final DateTimeFormatter TITLE_DATE = DateTimeFormatter.ofPattern("MM/dd/yy");
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+
+    @Override
+    public String getName() {
+        return "nyt";
+    }
+
+    @Override
+    public List<PuzzleDefinition> fetch() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(PAGE)
+                .timeout(Duration.ofSeconds(30))
+                .header("User-Agent", "suduoku")
+                .GET()
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IOException("NYT Sudoku page returned HTTP " + response.statusCode());
+        }
+
+        Matcher matcher = GAME_DATA.matcher(response.body());
+        if (!matcher.find()) {
+            throw new IOException("NYT Sudoku page has no game data");
+        }
+        try {
+            return parse(new JSONObject(matcher.group(1)));
+        } catch (JSONException e) {
+            throw new IOException("Malformed NYT game data: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Titles each puzzle with its own print date, so a fetch around midnight or a page served from
+     * a stale cache cannot store yesterday's puzzle under today's title.
+     */
+    static List<PuzzleDefinition> parse(JSONObject gameData) {
+        List<PuzzleDefinition> puzzles = new ArrayList<>(DIFFICULTIES.length);
+        for (String difficulty : DIFFICULTIES) {
+            JSONObject game = gameData.getJSONObject(difficulty);
+            String title = "NYT " + printDate(game).format(TITLE_DATE);
+            JSONObject data = game.getJSONObject("puzzle_data");
+            puzzles.add(new PuzzleDefinition(title, difficulty, PuzzleDefinition.cells(data.getJSONArray("puzzle")),
+                    PuzzleDefinition.cells(data.getJSONArray("solution"))));
+        }
+        return puzzles;
+    }
+
+    private static LocalDate printDate(JSONObject game) {
+        try {
+            return LocalDate.parse(game.getString("print_date"));
+        } catch (DateTimeParseException e) {
+            throw new JSONException("Malformed print_date: " + e.getMessage(), e);
+        }
+    }
+}
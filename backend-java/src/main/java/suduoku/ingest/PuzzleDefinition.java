@@ -0,0 +1,56 @@
+package suduoku.ingest;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+
+import suduoku.Board.BitBoard;
+import suduoku.Board.BoardSerializer;
+
+/**
+ * A puzzle as offered by a {@link PuzzleSource}, before it is validated and stored.
+ *
+ * @param title      Lobby title, unique per difficulty
+ * @param difficulty "easy", "medium" or "hard"
+ * @param givens     81 values in row-major order, 0 for cells the player fills
+ * @param solution   81 values in row-major order, all 1-9, or null if the source has none
+ */
+public record PuzzleDefinition(String title, String difficulty, byte[] givens, byte[] solution) {
+    /**
+     * The puzzle as stored in {@code puzzles.sdx}: givens marked uneditable, every other cell empty.
+     */
+    public String toSdx() {
+        return BoardSerializer.convertValuesToSDX(givens, new byte[BitBoard.SIZE]);
+    }
+
+    /**
+     * The solved puzzle as stored in {@code puzzles.sdx_solution}.
+     */
+    public String toSolutionSdx() {
+        return BoardSerializer.convertValuesToSDX(givens, solution);
+    }
+
+    /**
+     * The same puzzle with its solution filled in.
+     */
+    public PuzzleDefinition withSolution(byte[] solved) {
+        return new PuzzleDefinition(title, difficulty, givens, solved);
+    }
+
+    /**
+     * Reads a JSON array of cell values; its length is checked by the ingestor.
+     *
+     * @throws JSONException if a value is not an integer from 0 to 9, which would not survive the
+     *                       cast to byte
+     */
+    static byte[] cells(JSONArray cells) {
+        byte[] values = new byte[cells.length()];
+        for (int i = 0; i < values.length; i++) {
+            int value = cells.getInt(i);
+            if (value < 0 || value > 9) {
+                throw new JSONException("Cell " + i + " out of range: " + value);
+            }
+            values[i] = (byte) value;
+        }
+        return values;
+    }
+}
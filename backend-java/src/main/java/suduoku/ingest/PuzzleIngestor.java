@@ -0,0 +1,210 @@
+package suduoku.ingest;
+
+import java.io.IOException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import lombok.extern.log4j.Log4j2;
+import suduoku.Board.BitBoard;
+import suduoku.Board.PuzzleStatus;
+import suduoku.catalog.PuzzleCatalog;
+import suduoku.database.Database;
+import suduoku.solver.SolveResult;
+import suduoku.solver.SudokuSolver;
+
+/**
+ * Periodically fetches new puzzles from a {@link PuzzleSource}, checks them with the
+ * {@link SudokuSolver} and inserts them in one transaction on the server's writer connection. Only
+ * puzzles with exactly one solution are kept, and a missing solution is filled in by the solver.
+ * Puzzles whose title and difficulty are already stored are skipped, so a run can safely repeat.
+ * The catalog is invalidated whenever a run inserts anything.
+ */
+@Log4j2
+public class PuzzleIngestor {
+    private static final String INSERT_QUERY = "INSERT INTO puzzles (title, difficulty, status, sdx, sdx_solution) "
+            + "SELECT ?, ?, ?, ?, ? WHERE NOT EXISTS (SELECT 1 FROM puzzles WHERE title = ? AND difficulty = ?)";
+    private static final Set<String> DIFFICULTIES = Set.of("easy", "medium", "hard");
+
+    private final Database database;
+    private final PuzzleCatalog catalog;
+    private final PuzzleSource source;
+    private final ScheduledExecutorService scheduler;
+
+    private final LongAdder runs = new LongAdder();
+    private final LongAdder failedRuns = new LongAdder();
+    private final LongAdder puzzlesInserted = new LongAdder();
+    private final LongAdder puzzlesRejected = new LongAdder();
+
+    /**
+     * Creates an ingestor and starts its background thread, which runs once immediately and then
+     * every interval.
+     *
+     * @param intervalMs How often the source is fetched, in milliseconds
+     */
+    public PuzzleIngestor(Database database, PuzzleCatalog catalog, PuzzleSource source, long intervalMs) {
+        this(database, catalog, source);
+        scheduler.scheduleWithFixedDelay(this::run, 0, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Creates an ingestor that only runs when {@link #run()} is called.
+     */
+    PuzzleIngestor(Database database, PuzzleCatalog catalog, PuzzleSource source) {
+        this.database = database;
+        this.catalog = catalog;
+        this.source = source;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "puzzle-ingest");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Fetches, validates and stores the source's puzzles.
+     *
+     * @return Number of puzzles inserted
+     */
+    public synchronized int run() {
+        runs.increment();
+        try {
+            List<PuzzleDefinition> valid = new ArrayList<>();
+            for (PuzzleDefinition puzzle : source.fetch()) {
+                String problem = checkShape(puzzle);
+                SolveResult result = null;
+                if (problem == null) {
+                    result = SudokuSolver.solve(puzzle.givens());
+                    problem = checkSolution(puzzle, result);
+                }
+                if (problem == null) {
+                    valid.add(puzzle.solution() == null ? puzzle.withSolution(result.solution()) : puzzle);
+                } else {
+                    puzzlesRejected.increment();
+                    log.warn("Rejected puzzle {} {} from {}: {}", puzzle.title(), puzzle.difficulty(), source.getName(),
+                            problem);
+                }
+            }
+
+            int inserted = insert(valid);
+            puzzlesInserted.add(inserted);
+            if (inserted > 0) {
+                catalog.invalidate();
+            }
+            log.info("Ingested {} new puzzles from {} ({} already stored)", inserted, source.getName(),
+                    valid.size() - inserted);
+            return inserted;
+        } catch (IOException | SQLException e) {
+            failedRuns.increment();
+            log.error("Error ingesting puzzles from {}: {}", source.getName(), e.getMessage(), e);
+        } catch (InterruptedException e) {
+            failedRuns.increment();
+            Thread.currentThread().interrupt();
+        }
+        return 0;
+    }
+
+    private int insert(List<PuzzleDefinition> puzzles) throws SQLException {
+        if (puzzles.isEmpty()) {
+            return 0;
+        }
+        int[] counts = database.transaction("ingestPuzzles", conn -> {
+            PreparedStatement stmt = conn.prepare(INSERT_QUERY);
+            for (PuzzleDefinition puzzle : puzzles) {
+                stmt.setString(1, puzzle.title());
+                stmt.setString(2, puzzle.difficulty());
+                stmt.setString(3, PuzzleStatus.NOT_STARTED.getLabel());
+                stmt.setString(4, puzzle.toSdx());
+                stmt.setString(5, puzzle.toSolutionSdx());
+                stmt.setString(6, puzzle.title());
+                stmt.setString(7, puzzle.difficulty());
+                stmt.addBatch();
+            }
+            return stmt.executeBatch();
+        });
+
+        int inserted = 0;
+        for (int count : counts) {
+            inserted += Math.max(count, 0);
+        }
+        return inserted;
+    }
+
+    /**
+     * Checks the fields of a puzzle before it is solved.
+     *
+     * @return A description of the first problem found, or null if the puzzle is well formed
+     */
+    static String checkShape(PuzzleDefinition puzzle) {
+        if (puzzle.title() == null || puzzle.title().isBlank()) {
+            return "missing title";
+        }
+        if (!DIFFICULTIES.contains(puzzle.difficulty())) {
+            return "unknown difficulty";
+        }
+        if (puzzle.givens().length != BitBoard.SIZE) {
+            return "expected " + BitBoard.SIZE + " cells";
+        }
+        for (byte value : puzzle.givens()) {
+            if (value < 0 || value > 9) {
+                return "cell out of range: " + value;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks that a puzzle has one solution and that the source's solution, if any, is that one.
+     *
+     * @return A description of the problem, or null if the puzzle is valid
+     */
+    static String checkSolution(PuzzleDefinition puzzle, SolveResult result) {
+        if (!result.isSolvable()) {
+            return "no solution";
+        }
+        if (!result.isUnique()) {
+            return "more than one solution";
+        }
+        if (puzzle.solution() != null && !Arrays.equals(puzzle.solution(), result.solution())) {
+            return "solution disagrees with the solver";
+        }
+        return null;
+    }
+
+    /**
+     * Stops the background thread, interrupting a fetch in progress.
+     */
+    public void shutdown() {
+        scheduler.shutdownNow();
+        try {
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("Puzzle ingestor stopped after {} runs ({} failed, {} puzzles inserted, {} rejected)",
+                getRuns(), getFailedRuns(), getPuzzlesInserted(), getPuzzlesRejected());
+    }
+
+    public long getRuns() {
+        return runs.sum();
+    }
+
+    public long getFailedRuns() {
+        return failedRuns.sum();
+    }
+
+    public long getPuzzlesInserted() {
+        return puzzlesInserted.sum();
+    }
+
+    public long getPuzzlesRejected() {
+        return puzzlesRejected.sum();
+    }
+}
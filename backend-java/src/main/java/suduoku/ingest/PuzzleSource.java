@@ -0,0 +1,37 @@
+package suduoku.ingest;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Where new puzzles come from. Implementations only fetch and parse; puzzles are validated and
+ * inserted by {@link PuzzleIngestor}.
+ */
+public interface PuzzleSource {
+    /**
+     * Name used in logs.
+     */
+    String getName();
+
+    /**
+     * Fetches the puzzles currently offered by the source. Puzzles that were already ingested may
+     * be returned again; they are skipped on insert.
+     *
+     * @throws IOException if the source cannot be read or parsed
+     */
+    List<PuzzleDefinition> fetch() throws IOException, InterruptedException;
+
+    /**
+     * @param spec "nyt", or "file:" followed by the path of a puzzle file
+     */
+    static PuzzleSource parse(String spec) {
+        if (spec.startsWith("file:")) {
+            return new FilePuzzleSource(Path.of(spec.substring("file:".length())));
+        }
+        if (spec.equalsIgnoreCase("nyt")) {
+            return new NytPuzzleSource();
+        }
+        throw new IllegalArgumentException("Unknown puzzle source: " + spec);
+    }
+}
@@ -0,0 +1,94 @@
+package suduoku.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram with power-of-two bucket bounds. Recording is a bit scan and two adder
+ * increments, so it is cheap enough for every message.
+ */
+public final class Histogram {
+    private final int minShift;
+    private final double scale;
+    /**
+     * Per-bucket counts; the last bucket holds values above the largest bound.
+     */
+    private final LongAdder[] buckets;
+    private final LongAdder sum = new LongAdder();
+
+    /**
+     * @param minShift Log2 of the first bucket's upper bound
+     * @param bounds   Number of bounded buckets
+     * @param scale    Factor bounds and sums are multiplied by when exposed
+     */
+    private Histogram(int minShift, int bounds, double scale) {
+        this.minShift = minShift;
+        this.scale = scale;
+        this.buckets = new LongAdder[bounds + 1];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Durations recorded in nanoseconds, from about a microsecond to 34 seconds, exposed in seconds.
+     */
+    public static Histogram ofNanos() {
+        return new Histogram(10, 26, 1e-9);
+    }
+
+    /**
+     * Sizes from 1 to 4096.
+     */
+    public static Histogram ofCounts() {
+        return new Histogram(0, 13, 1);
+    }
+
+    public void record(long value) {
+        // Smallest k with 2^k >= value
+        int bucket = value <= 1 ? 0 : Math.max(0, 64 - Long.numberOfLeadingZeros(value - 1) - minShift);
+        buckets[Math.min(bucket, buckets.length - 1)].increment();
+        sum.add(value);
+    }
+
+    public long getCount() {
+        long count = 0;
+        for (LongAdder bucket : buckets) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    /**
+     * Sum of the recorded values, scaled.
+     */
+    public double getSum() {
+        return sum.sum() * scale;
+    }
+
+    /**
+     * Number of bounded buckets; {@link #getCumulativeCounts()} has one more entry for the rest.
+     */
+    public int getBoundCount() {
+        return buckets.length - 1;
+    }
+
+    /**
+     * Upper bound of a bucket, scaled.
+     */
+    public double getUpperBound(int bucket) {
+        return (1L << (minShift + bucket)) * scale;
+    }
+
+    /**
+     * Number of values at or below each bucket's upper bound, ending with the total count.
+     */
+    public long[] getCumulativeCounts() {
+        long[] counts = new long[buckets.length];
+        long total = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            total += buckets[i].sum();
+            counts[i] = total;
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,135 @@
+package suduoku.metrics;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Named counters, gauges and histograms, rendered in the Prometheus text format on each scrape.
+ * Components keep their own lock-free counters; the registry only reads them when scraped, so
+ * registering a metric adds nothing to the recording path.
+ */
+public class MetricsRegistry {
+    private enum Type {
+        COUNTER,
+        GAUGE,
+        HISTOGRAM
+    }
+
+    private record Sample(String labels, LongSupplier value, Histogram histogram) {
+    }
+
+    private record Family(String name, String help, Type type, List<Sample> samples) {
+    }
+
+    private final Map<String, Family> families = new LinkedHashMap<>();
+
+    /**
+     * Registers a value that only grows, such as an event count.
+     *
+     * @param labels Label names and values, alternating
+     */
+    public void counter(String name, String help, LongSupplier value, String... labels) {
+        add(name, help, Type.COUNTER, new Sample(labels(labels), value, null));
+    }
+
+    /**
+     * Registers a value that can go up and down, such as a queue depth.
+     *
+     * @param labels Label names and values, alternating
+     */
+    public void gauge(String name, String help, LongSupplier value, String... labels) {
+        add(name, help, Type.GAUGE, new Sample(labels(labels), value, null));
+    }
+
+    /**
+     * Registers a histogram, or finds the one already registered under the same name and labels.
+     *
+     * @param histogram Registered if no histogram has the name and labels yet
+     * @param labels    Label names and values, alternating
+     * @return The registered histogram
+     */
+    public synchronized Histogram histogram(String name, String help, Histogram histogram, String... labels) {
+        String labelText = labels(labels);
+        Family family = families.get(name);
+        if (family != null) {
+            for (Sample sample : family.samples()) {
+                if (sample.labels().equals(labelText) && sample.histogram() != null) {
+                    return sample.histogram();
+                }
+            }
+        }
+        add(name, help, Type.HISTOGRAM, new Sample(labelText, null, histogram));
+        return histogram;
+    }
+
+    private synchronized void add(String name, String help, Type type, Sample sample) {
+        Family family = families.computeIfAbsent(name, key -> new Family(name, help, type, new ArrayList<>()));
+        if (family.type() != type) {
+            throw new IllegalArgumentException("Metric " + name + " is already registered as a " + family.type());
+        }
+        family.samples().add(sample);
+    }
+
+    /**
+     * Renders every metric in the Prometheus text exposition format, version 0.0.4.
+     */
+    public synchronized String scrape() {
+        StringBuilder text = new StringBuilder(8192);
+        for (Family family : families.values()) {
+            text.append("# HELP ").append(family.name()).append(' ').append(family.help()).append('\n');
+            text.append("# TYPE ").append(family.name()).append(' ')
+                    .append(family.type().name().toLowerCase(Locale.ROOT)).append('\n');
+            for (Sample sample : family.samples()) {
+                if (sample.histogram() == null) {
+                    text.append(family.name()).append(sample.labels()).append(' ')
+                            .append(sample.value().getAsLong()).append('\n');
+                } else {
+                    appendHistogram(text, family.name(), sample.labels(), sample.histogram());
+                }
+            }
+        }
+        return text.toString();
+    }
+
+    private static void appendHistogram(StringBuilder text, String name, String labels, Histogram histogram) {
+        long[] counts = histogram.getCumulativeCounts();
+        // The le label goes after the sample's own labels
+        String prefix = labels.isEmpty() ? "{" : labels.substring(0, labels.length() - 1) + ",";
+        for (int i = 0; i < counts.length; i++) {
+            String bound = i < histogram.getBoundCount() ? format(histogram.getUpperBound(i)) : "+Inf";
+            text.append(name).append("_bucket").append(prefix).append("le=\"").append(bound).append("\"} ")
+                    .append(counts[i]).append('\n');
+        }
+        text.append(name).append("_sum").append(labels).append(' ').append(format(histogram.getSum())).append('\n');
+        text.append(name).append("_count").append(labels).append(' ').append(counts[counts.length - 1]).append('\n');
+    }
+
+    private static String format(double value) {
+        return value == Math.rint(value) && Math.abs(value) < 1e15 ? Long.toString((long) value) : Double.toString(value);
+    }
+
+    private static String labels(String... labels) {
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Labels must be name and value pairs");
+        }
+        if (labels.length == 0) {
+            return "";
+        }
+        StringBuilder text = new StringBuilder("{");
+        for (int i = 0; i < labels.length; i += 2) {
+            if (i > 0) {
+                text.append(',');
+            }
+            text.append(labels[i]).append("=\"").append(escape(labels[i + 1])).append('"');
+        }
+        return text.append('}').toString();
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
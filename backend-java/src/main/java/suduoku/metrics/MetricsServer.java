@@ -0,0 +1,73 @@
+package suduoku.metrics;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Serves a metrics registry for Prometheus to scrape at {@code /metrics}. Bound to the loopback
+ * interface only, so the metrics are never exposed next to the game port.
+ */
+@Log4j2
+public class MetricsServer {
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final MetricsRegistry registry;
+
+    private MetricsServer(HttpServer server, MetricsRegistry registry) {
+        this.server = server;
+        this.registry = registry;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-http");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.createContext("/metrics", this::handle);
+        server.setExecutor(executor);
+    }
+
+    /**
+     * Starts serving the registry on a local port.
+     */
+    public static MetricsServer start(int port, MetricsRegistry registry) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        MetricsServer metricsServer = new MetricsServer(server, registry);
+        server.start();
+        log.info("Serving metrics on http://{}:{}/metrics", server.getAddress().getHostString(), port);
+        return metricsServer;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = registry.scrape().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    /**
+     * Stops accepting scrapes.
+     */
+    public void shutdown() {
+        server.stop(0);
+        executor.shutdown();
+    }
+}
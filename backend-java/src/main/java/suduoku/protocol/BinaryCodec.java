@@ -0,0 +1,187 @@
+package suduoku.protocol;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import suduoku.Board.BitBoard;
+import suduoku.Board.CellDelta;
+import suduoku.Player;
+import suduoku.protocol.InboundMessage.CandidateToggle;
+import suduoku.protocol.InboundMessage.CellChange;
+import suduoku.protocol.InboundMessage.IncorrectCellsUpdate;
+import suduoku.protocol.InboundMessage.PlayerPosition;
+
+/**
+ * Frames of the {@link WireFormat#BINARY} protocol. Each frame starts with a one-byte opcode;
+ * integers are big-endian and cells are sent as a single index, {@code row * 9 + col}.
+ *
+ * <pre>
+ * Client to server
+ *   0x01 cell change        puzzleId:i32 cell:u8 value:u8                    7 bytes
+ *   0x02 candidate toggle   puzzleId:i32 cell:u8 candidate:u8                7 bytes
+ *   0x03 incorrect cells    puzzleId:i32 cell:u8                             6 bytes
+ *   0x04 player position    clientId:u128 cell:u8                           18 bytes
+ *
+ * Server to client
+ *   0x81 cell delta         puzzleId:i32 version:i64 cell:u8 value:u8 candidates:u16
+ *   0x82 player positions   count:u16, then per player
+ *                           cell:u8 (0xFF for none) color:u24 nameLength:u8 name:utf8
+ *   0x83 board              puzzleId:i32 version:i64, then per cell
+ *                           value:u8 (0x80 set when editable) candidates:u16,
+ *                           then titleLength:u16 title:utf8
+ *   0x84 changed positions  as 0x82, holding only the players that moved
+ * </pre>
+ *
+ * Candidate masks have bit (n - 1) set for candidate n. Every other message is a JSON text frame.
+ */
+public final class BinaryCodec {
+    static final byte CELL_CHANGE = 0x01;
+    static final byte CANDIDATE_TOGGLE = 0x02;
+    static final byte INCORRECT_CELLS_UPDATE = 0x03;
+    static final byte PLAYER_POSITION = 0x04;
+
+    static final byte CELL_DELTA = (byte) 0x81;
+    static final byte PLAYER_POSITIONS = (byte) 0x82;
+    static final byte BOARD = (byte) 0x83;
+    static final byte CHANGED_POSITIONS = (byte) 0x84;
+
+    private static final int NO_CELL = 0xFF;
+    private static final int EDITABLE = 0x80;
+
+    private BinaryCodec() {
+    }
+
+    /**
+     * Decodes a client frame, checking the same bounds as {@link MessageDecoder}.
+     *
+     * @throws MessageDecodeException if the opcode is unknown, the frame has the wrong length or a
+     *                                field is out of range
+     */
+    public static InboundMessage decode(ByteBuffer frame) throws MessageDecodeException {
+        try {
+            InboundMessage message = switch (frame.get()) {
+                case CELL_CHANGE -> {
+                    int puzzleId = puzzleId(frame);
+                    int cell = cell(frame);
+                    yield new CellChange(puzzleId, cell / 9, cell % 9, unsigned(frame, "value", 0, 9));
+                }
+                case CANDIDATE_TOGGLE -> {
+                    int puzzleId = puzzleId(frame);
+                    int cell = cell(frame);
+                    yield new CandidateToggle(puzzleId, cell / 9, cell % 9, unsigned(frame, "candidate", 1, 9));
+                }
+                case INCORRECT_CELLS_UPDATE -> {
+                    int puzzleId = puzzleId(frame);
+                    int cell = cell(frame);
+                    yield new IncorrectCellsUpdate(puzzleId, cell / 9, cell % 9);
+                }
+                case PLAYER_POSITION -> {
+                    UUID clientId = new UUID(frame.getLong(), frame.getLong());
+                    int cell = cell(frame);
+                    yield new PlayerPosition(clientId, cell / 9, cell % 9);
+                }
+                default -> throw new MessageDecodeException("Unknown binary opcode: " + frame.get(0));
+            };
+            if (frame.hasRemaining()) {
+                throw new MessageDecodeException("Unexpected content after binary message");
+            }
+            return message;
+        } catch (BufferUnderflowException e) {
+            throw new MessageDecodeException("Truncated binary message");
+        }
+    }
+
+    private static int puzzleId(ByteBuffer frame) throws MessageDecodeException {
+        int puzzleId = frame.getInt();
+        if (puzzleId < 1) {
+            throw new MessageDecodeException("Field 'puzzleId' out of range: " + puzzleId);
+        }
+        return puzzleId;
+    }
+
+    private static int cell(ByteBuffer frame) throws MessageDecodeException {
+        return unsigned(frame, "cell", 0, BitBoard.SIZE - 1);
+    }
+
+    private static int unsigned(ByteBuffer frame, String name, int min, int max) throws MessageDecodeException {
+        int value = Byte.toUnsignedInt(frame.get());
+        if (value < min || value > max) {
+            throw new MessageDecodeException("Field '" + name + "' out of range: " + value);
+        }
+        return value;
+    }
+
+    public static byte[] encodeCellDelta(CellDelta delta) {
+        return ByteBuffer.allocate(17)
+                .put(CELL_DELTA)
+                .putInt(delta.puzzleId())
+                .putLong(delta.version())
+                .put((byte) BitBoard.index(delta.row(), delta.col()))
+                .put((byte) delta.value())
+                .putShort((short) delta.candidates())
+                .array();
+    }
+
+    /**
+     * Encodes the positions of every player in a room, replacing the client's list.
+     */
+    public static byte[] encodePlayerPositions(Collection<Player> players) {
+        return encodePositions(PLAYER_POSITIONS, players);
+    }
+
+    /**
+     * Encodes the positions of the players that moved, merged into the client's list.
+     */
+    public static byte[] encodeChangedPositions(Collection<Player> players) {
+        return encodePositions(CHANGED_POSITIONS, players);
+    }
+
+    /**
+     * Encodes the positions of a set of players, which may change while it is read.
+     */
+    private static byte[] encodePositions(byte opcode, Collection<Player> players) {
+        List<Player> snapshot = List.copyOf(players);
+        byte[][] names = new byte[snapshot.size()][];
+        int size = 3;
+        for (int i = 0; i < names.length; i++) {
+            byte[] name = snapshot.get(i).getName().getBytes(StandardCharsets.UTF_8);
+            names[i] = name.length > 255 ? Arrays.copyOf(name, 255) : name;
+            size += 5 + names[i].length;
+        }
+
+        ByteBuffer frame = ByteBuffer.allocate(size)
+                .put(opcode)
+                .putShort((short) names.length);
+        for (int i = 0; i < names.length; i++) {
+            Player player = snapshot.get(i);
+            int cell = player.getSelectedCell();
+            int color = Integer.parseInt(player.getColor(), 1, 7, 16);
+            frame.put((byte) (cell == Player.NO_CELL ? NO_CELL : cell))
+                    .put((byte) (color >> 16))
+                    .putShort((short) color)
+                    .put((byte) names[i].length)
+                    .put(names[i]);
+        }
+        return frame.array();
+    }
+
+    public static byte[] encodeBoard(int puzzleId, long version, String title, BitBoard board) {
+        byte[] titleBytes = title.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer frame = ByteBuffer.allocate(13 + BitBoard.SIZE * 3 + 2 + titleBytes.length)
+                .put(BOARD)
+                .putInt(puzzleId)
+                .putLong(version);
+        for (int cell = 0; cell < BitBoard.SIZE; cell++) {
+            int value = board.getValue(cell) | (board.isGiven(cell) ? 0 : EDITABLE);
+            frame.put((byte) value).putShort((short) board.getCandidates(cell));
+        }
+        return frame.putShort((short) titleBytes.length)
+                .put(titleBytes)
+                .array();
+    }
+}
@@ -0,0 +1,95 @@
+package suduoku.protocol;
+
+import java.util.UUID;
+
+/**
+ * The fields collected from one frame, before they are checked and built into a message.
+ * Integers are kept unboxed and tracked with a presence mask, so a field sent as null counts as missing.
+ */
+final class Fields {
+    static final int PUZZLE_ID = 0;
+    static final int ROW = 1;
+    static final int COL = 2;
+    static final int VALUE = 3;
+    static final int CANDIDATE = 4;
+    static final int POSITION_ROW = 5;
+    static final int POSITION_COL = 6;
+    static final int CHAT_PUZZLE_ID = 7;
+    static final int BEFORE = 8;
+    static final int CURSOR = 9;
+    static final int LIMIT = 10;
+
+    private static final String[] INT_NAMES = {
+            "puzzleId", "row", "col", "value", "candidate", "position.row", "position.col", "message.puzzleId",
+            "before", "cursor", "limit"
+    };
+
+    private final int[] ints = new int[INT_NAMES.length];
+    private int present;
+
+    MessageType type;
+    String clientId;
+    String user;
+    String color;
+    String text;
+    String difficulty;
+    String status;
+    String etag;
+
+    void setInt(int slot, int value) {
+        ints[slot] = value;
+        present |= 1 << slot;
+    }
+
+    /**
+     * A required integer within {@code [min, max]}.
+     */
+    int intIn(int slot, int min, int max) throws MessageDecodeException {
+        if ((present & (1 << slot)) == 0) {
+            throw new MessageDecodeException("Missing field '" + INT_NAMES[slot] + "'");
+        }
+        int value = ints[slot];
+        if (value < min || value > max) {
+            throw new MessageDecodeException("Field '" + INT_NAMES[slot] + "' out of range: " + value);
+        }
+        return value;
+    }
+
+    /**
+     * An optional integer within {@code [min, max]}, or {@code fallback} if it is missing.
+     */
+    int intOr(int slot, int fallback, int min, int max) throws MessageDecodeException {
+        return (present & (1 << slot)) == 0 ? fallback : intIn(slot, min, max);
+    }
+
+    int puzzleId(int slot) throws MessageDecodeException {
+        return intIn(slot, 1, Integer.MAX_VALUE);
+    }
+
+    int puzzleId() throws MessageDecodeException {
+        return puzzleId(PUZZLE_ID);
+    }
+
+    /**
+     * A required row or column index, 0-8.
+     */
+    int index(int slot) throws MessageDecodeException {
+        return intIn(slot, 0, 8);
+    }
+
+    UUID clientId() throws MessageDecodeException {
+        String id = required(clientId, "clientId");
+        try {
+            return UUID.fromString(id);
+        } catch (IllegalArgumentException e) {
+            throw new MessageDecodeException("Field 'clientId' is not a UUID: " + id);
+        }
+    }
+
+    static String required(String value, String name) throws MessageDecodeException {
+        if (value == null) {
+            throw new MessageDecodeException("Missing field '" + name + "'");
+        }
+        return value;
+    }
+}
@@ -0,0 +1,86 @@
+package suduoku.protocol;
+
+import java.util.UUID;
+
+/**
+ * A decoded, validated message from a client. Every field has already been bounds-checked by
+ * {@link MessageDecoder}.
+ */
+public sealed interface InboundMessage {
+    /**
+     * The message's "type" on the JSON protocol, whichever protocol it arrived on.
+     */
+    default String wireName() {
+        return MessageType.of(this).getWireName();
+    }
+
+    /**
+     * A page of the puzzle catalog, newest first.
+     *
+     * @param cursor     Only puzzles with a smaller id, or 0 for the first page
+     * @param limit      Page size, or 0 for the server default
+     * @param difficulty Difficulty to filter by, or null for any
+     * @param status     Status to filter by, or null for any
+     * @param etag       The ETag of the page the client already holds, or null
+     */
+    record FetchPuzzles(int cursor, int limit, String difficulty, String status, String etag) implements InboundMessage {
+        /**
+         * Largest page a client may ask for.
+         */
+        public static final int MAX_LIMIT = 200;
+    }
+
+    record FetchPuzzle(UUID clientId, int puzzleId) implements InboundMessage {
+    }
+
+    /**
+     * A full board resync, requested when a client detects a gap in cell delta versions.
+     */
+    record FetchBoard(int puzzleId) implements InboundMessage {
+    }
+
+    record FetchIdentity(UUID clientId) implements InboundMessage {
+    }
+
+    record PlayerPosition(UUID clientId, int row, int col) implements InboundMessage {
+    }
+
+    record LeaveRoom(UUID clientId, int puzzleId) implements InboundMessage {
+    }
+
+    record FetchChat(int puzzleId) implements InboundMessage {
+    }
+
+    /**
+     * A page of chat history older than the message with id {@code before}.
+     */
+    record FetchChatHistory(int puzzleId, int before) implements InboundMessage {
+    }
+
+    record SendChat(int puzzleId, String user, String color, String text) implements InboundMessage {
+    }
+
+    /**
+     * Sets a cell, or clears it when the value is 0.
+     */
+    record CellChange(int puzzleId, int row, int col, int value) implements InboundMessage {
+    }
+
+    record CandidateToggle(int puzzleId, int row, int col, int candidate) implements InboundMessage {
+    }
+
+    record ClearBoard(int puzzleId) implements InboundMessage {
+    }
+
+    record CheckSolution(int puzzleId) implements InboundMessage {
+    }
+
+    record IncorrectCellsUpdate(int puzzleId, int row, int col) implements InboundMessage {
+    }
+
+    /**
+     * Elapsed time reported by older clients. Room clocks are owned by the server, so it is ignored.
+     */
+    record ElapsedTime() implements InboundMessage {
+    }
+}
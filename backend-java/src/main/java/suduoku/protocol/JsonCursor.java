@@ -0,0 +1,300 @@
+package suduoku.protocol;
+
+/**
+ * A forward-only reader over the JSON text of one frame.
+ * Strings and numbers are scanned in place and only materialized when the caller asks for them,
+ * so fields that are skipped or matched against a {@link NameTable} allocate nothing.
+ */
+final class JsonCursor {
+    /**
+     * How deeply unknown values may nest before the frame is rejected.
+     */
+    private static final int MAX_DEPTH = 32;
+
+    private final String text;
+    private int pos;
+
+    /**
+     * Bounds of the last scanned string, excluding its quotes.
+     */
+    private int tokenStart;
+    private int tokenEnd;
+    private boolean tokenEscaped;
+
+    JsonCursor(String text) {
+        this.text = text;
+    }
+
+    String getText() {
+        return text;
+    }
+
+    int getTokenStart() {
+        return tokenStart;
+    }
+
+    int getTokenEnd() {
+        return tokenEnd;
+    }
+
+    boolean isTokenEscaped() {
+        return tokenEscaped;
+    }
+
+    /**
+     * Skips whitespace and returns the next character without consuming it.
+     */
+    char peek() throws MessageDecodeException {
+        skipWhitespace();
+        if (pos >= text.length()) {
+            throw error("Unexpected end of message");
+        }
+        return text.charAt(pos);
+    }
+
+    void expect(char c) throws MessageDecodeException {
+        if (peek() != c) {
+            throw error("Expected '" + c + "'");
+        }
+        pos++;
+    }
+
+    /**
+     * Consumes the next character if it is {@code c}.
+     */
+    boolean consume(char c) throws MessageDecodeException {
+        if (peek() == c) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Consumes a {@code null} literal if one is next.
+     */
+    boolean consumeNull() throws MessageDecodeException {
+        if (peek() == 'n') {
+            literal("null");
+            return true;
+        }
+        return false;
+    }
+
+    void expectEnd() throws MessageDecodeException {
+        skipWhitespace();
+        if (pos != text.length()) {
+            throw error("Unexpected content after message");
+        }
+    }
+
+    /**
+     * Scans a string, leaving its bounds in the token fields.
+     */
+    void scanString() throws MessageDecodeException {
+        expect('"');
+        tokenStart = pos;
+        tokenEscaped = false;
+        while (pos < text.length()) {
+            char c = text.charAt(pos);
+            if (c == '"') {
+                tokenEnd = pos++;
+                return;
+            }
+            if (c == '\\') {
+                tokenEscaped = true;
+                pos++;
+                if (pos >= text.length()) {
+                    break;
+                }
+                char escape = text.charAt(pos);
+                if (escape == 'u') {
+                    if (pos + 4 >= text.length()) {
+                        break;
+                    }
+                    for (int i = 1; i <= 4; i++) {
+                        if (Character.digit(text.charAt(pos + i), 16) < 0) {
+                            throw error("Invalid unicode escape");
+                        }
+                    }
+                    pos += 4;
+                } else if ("\"\\/bfnrt".indexOf(escape) < 0) {
+                    throw error("Invalid escape");
+                }
+            } else if (c < 0x20) {
+                throw error("Control character in string");
+            }
+            pos++;
+        }
+        throw error("Unterminated string");
+    }
+
+    /**
+     * The last scanned string, with escapes decoded.
+     */
+    String tokenString() {
+        if (!tokenEscaped) {
+            return text.substring(tokenStart, tokenEnd);
+        }
+        StringBuilder decoded = new StringBuilder(tokenEnd - tokenStart);
+        for (int i = tokenStart; i < tokenEnd; i++) {
+            char c = text.charAt(i);
+            if (c != '\\') {
+                decoded.append(c);
+                continue;
+            }
+            char escape = text.charAt(++i);
+            switch (escape) {
+                case 'b' -> decoded.append('\b');
+                case 'f' -> decoded.append('\f');
+                case 'n' -> decoded.append('\n');
+                case 'r' -> decoded.append('\r');
+                case 't' -> decoded.append('\t');
+                case 'u' -> {
+                    decoded.append((char) Integer.parseInt(text, i + 1, i + 5, 16));
+                    i += 4;
+                }
+                default -> decoded.append(escape);
+            }
+        }
+        return decoded.toString();
+    }
+
+    String readString() throws MessageDecodeException {
+        scanString();
+        return tokenString();
+    }
+
+    /**
+     * Reads a number that must be an integer within int range.
+     */
+    int readInt() throws MessageDecodeException {
+        if (peek() == '"') {
+            throw error("Expected a number");
+        }
+        int start = pos;
+        if (!scanNumber()) {
+            throw error("Expected an integer");
+        }
+        boolean negative = text.charAt(start) == '-';
+        long value = 0;
+        for (int i = negative ? start + 1 : start; i < pos; i++) {
+            value = value * 10 + (text.charAt(i) - '0');
+            if (value > (long) Integer.MAX_VALUE + 1) {
+                throw error("Integer out of range");
+            }
+        }
+        value = negative ? -value : value;
+        if (value > Integer.MAX_VALUE) {
+            throw error("Integer out of range");
+        }
+        return (int) value;
+    }
+
+    /**
+     * Skips one value of any type, checking that it is well-formed.
+     */
+    void skipValue() throws MessageDecodeException {
+        skipValue(0);
+    }
+
+    private void skipValue(int depth) throws MessageDecodeException {
+        if (depth > MAX_DEPTH) {
+            throw error("Message nested too deeply");
+        }
+        char c = peek();
+        switch (c) {
+            case '{' -> {
+                pos++;
+                if (consume('}')) {
+                    return;
+                }
+                do {
+                    scanString();
+                    expect(':');
+                    skipValue(depth + 1);
+                } while (consume(','));
+                expect('}');
+            }
+            case '[' -> {
+                pos++;
+                if (consume(']')) {
+                    return;
+                }
+                do {
+                    skipValue(depth + 1);
+                } while (consume(','));
+                expect(']');
+            }
+            case '"' -> scanString();
+            case 't' -> literal("true");
+            case 'f' -> literal("false");
+            case 'n' -> literal("null");
+            default -> scanNumber();
+        }
+    }
+
+    /**
+     * Scans a JSON number.
+     *
+     * @return True if it has no fraction or exponent
+     */
+    private boolean scanNumber() throws MessageDecodeException {
+        boolean integer = true;
+        if (pos < text.length() && text.charAt(pos) == '-') {
+            pos++;
+        }
+        if (pos < text.length() && text.charAt(pos) == '0') {
+            pos++;
+        } else if (!skipDigits()) {
+            throw error("Expected a value");
+        }
+        if (pos < text.length() && text.charAt(pos) == '.') {
+            pos++;
+            integer = false;
+            if (!skipDigits()) {
+                throw error("Invalid number");
+            }
+        }
+        if (pos < text.length() && (text.charAt(pos) == 'e' || text.charAt(pos) == 'E')) {
+            pos++;
+            integer = false;
+            if (pos < text.length() && (text.charAt(pos) == '+' || text.charAt(pos) == '-')) {
+                pos++;
+            }
+            if (!skipDigits()) {
+                throw error("Invalid number");
+            }
+        }
+        return integer;
+    }
+
+    private boolean skipDigits() {
+        int start = pos;
+        while (pos < text.length() && text.charAt(pos) >= '0' && text.charAt(pos) <= '9') {
+            pos++;
+        }
+        return pos > start;
+    }
+
+    private void literal(String word) throws MessageDecodeException {
+        if (!text.startsWith(word, pos)) {
+            throw error("Expected a value");
+        }
+        pos += word.length();
+    }
+
+    private void skipWhitespace() {
+        while (pos < text.length()) {
+            char c = text.charAt(pos);
+            if (c != ' ' && c != '\t' && c != '\n' && c != '\r') {
+                return;
+            }
+            pos++;
+        }
+    }
+
+    MessageDecodeException error(String message) {
+        return new MessageDecodeException(message + " at offset " + pos);
+    }
+}
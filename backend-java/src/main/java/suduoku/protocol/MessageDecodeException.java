@@ -0,0 +1,11 @@
+package suduoku.protocol;
+
+/**
+ * Thrown when an inbound frame is not a well-formed message: bad JSON, an unknown type, or a
+ * missing or out-of-range field.
+ */
+public class MessageDecodeException extends Exception {
+    public MessageDecodeException(String message) {
+        super(message);
+    }
+}
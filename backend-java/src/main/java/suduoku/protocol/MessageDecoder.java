@@ -0,0 +1,148 @@
+package suduoku.protocol;
+
+/**
+ * Decodes inbound WebSocket frames straight into typed {@link InboundMessage} records.
+ * A single pass over the text collects the fields that some message type uses and skips everything
+ * else, then the frame's type picks the record to build from a precomputed table. Bounds are checked
+ * here, so malformed input is rejected before any handler runs.
+ * <p>
+ * Stateless and safe to share between threads.
+ */
+public class MessageDecoder {
+    /**
+     * Keys the decoder reads. Any other key is skipped.
+     */
+    private enum Key {
+        TYPE("type"),
+        PUZZLE_ID("puzzleId"),
+        ROW("row"),
+        COL("col"),
+        VALUE("value"),
+        CANDIDATE("candidate"),
+        CLIENT_ID("clientId"),
+        POSITION("position"),
+        MESSAGE("message"),
+        USER("user"),
+        COLOR("color"),
+        TEXT("text"),
+        BEFORE("before"),
+        CURSOR("cursor"),
+        LIMIT("limit"),
+        DIFFICULTY("difficulty"),
+        STATUS("status"),
+        ETAG("etag");
+
+        private static final NameTable<Key> BY_NAME = new NameTable<>(values(), Key::getName);
+
+        private final String name;
+
+        Key(String name) {
+            this.name = name;
+        }
+
+        String getName() {
+            return name;
+        }
+    }
+
+    /**
+     * Which object a key was read from: the frame itself, its "position" or its chat "message".
+     */
+    private enum Scope {
+        FRAME,
+        POSITION,
+        MESSAGE
+    }
+
+    /**
+     * @throws MessageDecodeException if the frame is not valid JSON, has an unknown type, or is
+     *                                missing a field or has one out of range
+     */
+    public InboundMessage decode(String frame) throws MessageDecodeException {
+        JsonCursor in = new JsonCursor(frame);
+        Fields fields = new Fields();
+        readObject(in, fields, Scope.FRAME);
+        in.expectEnd();
+
+        if (fields.type == null) {
+            throw new MessageDecodeException("Missing field 'type'");
+        }
+        return fields.type.decode(fields);
+    }
+
+    private void readObject(JsonCursor in, Fields fields, Scope scope) throws MessageDecodeException {
+        in.expect('{');
+        if (in.consume('}')) {
+            return;
+        }
+        do {
+            in.scanString();
+            Key key = in.isTokenEscaped()
+                    ? Key.BY_NAME.find(in.tokenString())
+                    : Key.BY_NAME.find(in.getText(), in.getTokenStart(), in.getTokenEnd());
+            in.expect(':');
+            readField(in, fields, scope, key);
+        } while (in.consume(','));
+        in.expect('}');
+    }
+
+    private void readField(JsonCursor in, Fields fields, Scope scope, Key key) throws MessageDecodeException {
+        if (key == null) {
+            in.skipValue();
+            return;
+        }
+        if (in.consumeNull()) {
+            // Left missing; required fields are reported when the message is built
+            return;
+        }
+        switch (scope) {
+            case FRAME -> {
+                switch (key) {
+                    case TYPE -> readType(in, fields);
+                    case PUZZLE_ID -> fields.setInt(Fields.PUZZLE_ID, in.readInt());
+                    case ROW -> fields.setInt(Fields.ROW, in.readInt());
+                    case COL -> fields.setInt(Fields.COL, in.readInt());
+                    case VALUE -> fields.setInt(Fields.VALUE, in.readInt());
+                    case CANDIDATE -> fields.setInt(Fields.CANDIDATE, in.readInt());
+                    case BEFORE -> fields.setInt(Fields.BEFORE, in.readInt());
+                    case CURSOR -> fields.setInt(Fields.CURSOR, in.readInt());
+                    case LIMIT -> fields.setInt(Fields.LIMIT, in.readInt());
+                    case DIFFICULTY -> fields.difficulty = in.readString();
+                    case STATUS -> fields.status = in.readString();
+                    case ETAG -> fields.etag = in.readString();
+                    case CLIENT_ID -> fields.clientId = in.readString();
+                    case POSITION -> readObject(in, fields, Scope.POSITION);
+                    case MESSAGE -> readObject(in, fields, Scope.MESSAGE);
+                    default -> in.skipValue();
+                }
+            }
+            case POSITION -> {
+                switch (key) {
+                    case ROW -> fields.setInt(Fields.POSITION_ROW, in.readInt());
+                    case COL -> fields.setInt(Fields.POSITION_COL, in.readInt());
+                    default -> in.skipValue();
+                }
+            }
+            case MESSAGE -> {
+                switch (key) {
+                    case PUZZLE_ID -> fields.setInt(Fields.CHAT_PUZZLE_ID, in.readInt());
+                    case USER -> fields.user = in.readString();
+                    case COLOR -> fields.color = in.readString();
+                    case TEXT -> fields.text = in.readString();
+                    default -> in.skipValue();
+                }
+            }
+        }
+    }
+
+    private void readType(JsonCursor in, Fields fields) throws MessageDecodeException {
+        in.scanString();
+        MessageType type = in.isTokenEscaped()
+                ? MessageType.find(in.tokenString())
+                : MessageType.find(in.getText(), in.getTokenStart(), in.getTokenEnd());
+        if (type == null) {
+            throw new MessageDecodeException("Unknown message type: " + in.tokenString());
+        }
+        fields.type = type;
+    }
+}
@@ -0,0 +1,113 @@
+package suduoku.protocol;
+
+import suduoku.protocol.InboundMessage.CandidateToggle;
+import suduoku.protocol.InboundMessage.CellChange;
+import suduoku.protocol.InboundMessage.CheckSolution;
+import suduoku.protocol.InboundMessage.ClearBoard;
+import suduoku.protocol.InboundMessage.ElapsedTime;
+import suduoku.protocol.InboundMessage.FetchBoard;
+import suduoku.protocol.InboundMessage.FetchChat;
+import suduoku.protocol.InboundMessage.FetchChatHistory;
+import suduoku.protocol.InboundMessage.FetchIdentity;
+import suduoku.protocol.InboundMessage.FetchPuzzle;
+import suduoku.protocol.InboundMessage.FetchPuzzles;
+import suduoku.protocol.InboundMessage.IncorrectCellsUpdate;
+import suduoku.protocol.InboundMessage.LeaveRoom;
+import suduoku.protocol.InboundMessage.PlayerPosition;
+import suduoku.protocol.InboundMessage.SendChat;
+
+import static suduoku.protocol.Fields.BEFORE;
+import static suduoku.protocol.Fields.CANDIDATE;
+import static suduoku.protocol.Fields.CHAT_PUZZLE_ID;
+import static suduoku.protocol.Fields.COL;
+import static suduoku.protocol.Fields.CURSOR;
+import static suduoku.protocol.Fields.LIMIT;
+import static suduoku.protocol.Fields.POSITION_COL;
+import static suduoku.protocol.Fields.POSITION_ROW;
+import static suduoku.protocol.Fields.ROW;
+import static suduoku.protocol.Fields.VALUE;
+
+/**
+ * The type table: each wire name with its message record and the decoder that builds and validates it.
+ */
+enum MessageType {
+    FETCH_PUZZLES("fetchPuzzles", FetchPuzzles.class, f -> new FetchPuzzles(f.intOr(CURSOR, 0, 0, Integer.MAX_VALUE),
+            f.intOr(LIMIT, 0, 0, FetchPuzzles.MAX_LIMIT), f.difficulty, f.status, f.etag)),
+    FETCH_PUZZLE("fetchPuzzle", FetchPuzzle.class, f -> new FetchPuzzle(f.clientId(), f.puzzleId())),
+    FETCH_BOARD("fetchBoard", FetchBoard.class, f -> new FetchBoard(f.puzzleId())),
+    FETCH_IDENTITY("fetchIdentity", FetchIdentity.class, f -> new FetchIdentity(f.clientId())),
+    PLAYER_POSITION("sendPlayerPosition", PlayerPosition.class,
+            f -> new PlayerPosition(f.clientId(), f.index(POSITION_ROW), f.index(POSITION_COL))),
+    LEAVE_ROOM("sendLeaveRoom", LeaveRoom.class, f -> new LeaveRoom(f.clientId(), f.puzzleId())),
+    FETCH_CHAT("fetchChat", FetchChat.class, f -> new FetchChat(f.puzzleId())),
+    FETCH_CHAT_HISTORY("fetchChatHistory", FetchChatHistory.class,
+            f -> new FetchChatHistory(f.puzzleId(), f.intIn(BEFORE, 1, Integer.MAX_VALUE))),
+    SEND_CHAT("sendChat", SendChat.class, f -> new SendChat(f.puzzleId(CHAT_PUZZLE_ID),
+            Fields.required(f.user, "message.user"),
+            Fields.required(f.color, "message.color"),
+            Fields.required(f.text, "message.text"))),
+    CELL_CHANGE("sendCellChange", CellChange.class,
+            f -> new CellChange(f.puzzleId(), f.index(ROW), f.index(COL), f.intIn(VALUE, 0, 9))),
+    CANDIDATE_TOGGLE("sendCandidateToggle", CandidateToggle.class,
+            f -> new CandidateToggle(f.puzzleId(), f.index(ROW), f.index(COL), f.intIn(CANDIDATE, 1, 9))),
+    CLEAR_BOARD("sendClearBoard", ClearBoard.class, f -> new ClearBoard(f.puzzleId())),
+    CHECK_SOLUTION("sendCheckSolution", CheckSolution.class, f -> new CheckSolution(f.puzzleId())),
+    INCORRECT_CELLS_UPDATE("sendIncorrectCellsUpdate", IncorrectCellsUpdate.class,
+            f -> new IncorrectCellsUpdate(f.puzzleId(), f.index(ROW), f.index(COL))),
+    ELAPSED_TIME("sendElapsedTime", ElapsedTime.class, f -> Constant.ELAPSED_TIME);
+
+    private static final NameTable<MessageType> BY_WIRE_NAME = new NameTable<>(values(), MessageType::getWireName);
+    private static final ClassValue<MessageType> BY_CLASS = new ClassValue<>() {
+        @Override
+        protected MessageType computeValue(Class<?> type) {
+            for (MessageType messageType : values()) {
+                if (messageType.messageClass == type) {
+                    return messageType;
+                }
+            }
+            throw new IllegalArgumentException("No message type for " + type);
+        }
+    };
+
+    private final String wireName;
+    private final Class<? extends InboundMessage> messageClass;
+    private final Decoder decoder;
+
+    MessageType(String wireName, Class<? extends InboundMessage> messageClass, Decoder decoder) {
+        this.wireName = wireName;
+        this.messageClass = messageClass;
+        this.decoder = decoder;
+    }
+
+    String getWireName() {
+        return wireName;
+    }
+
+    InboundMessage decode(Fields fields) throws MessageDecodeException {
+        return decoder.decode(fields);
+    }
+
+    static MessageType find(String text, int start, int end) {
+        return BY_WIRE_NAME.find(text, start, end);
+    }
+
+    static MessageType find(String name) {
+        return BY_WIRE_NAME.find(name);
+    }
+
+    static MessageType of(InboundMessage message) {
+        return BY_CLASS.get(message.getClass());
+    }
+
+    @FunctionalInterface
+    private interface Decoder {
+        InboundMessage decode(Fields fields) throws MessageDecodeException;
+    }
+
+    /**
+     * Shared instances of the messages without fields.
+     */
+    private static final class Constant {
+        static final ElapsedTime ELAPSED_TIME = new ElapsedTime();
+    }
+}
@@ -0,0 +1,55 @@
+package suduoku.protocol;
+
+import java.util.function.Function;
+
+/**
+ * Looks up enum constants by wire name straight from a region of the frame text, without
+ * allocating a string for the name. Names are bucketed by length, so a lookup compares against
+ * at most a couple of candidates.
+ */
+final class NameTable<E extends Enum<E>> {
+    private final Object[][] byLength;
+    private final Function<E, String> nameOf;
+
+    NameTable(E[] values, Function<E, String> nameOf) {
+        this.nameOf = nameOf;
+        int maxLength = 0;
+        for (E value : values) {
+            maxLength = Math.max(maxLength, nameOf.apply(value).length());
+        }
+        int[] counts = new int[maxLength + 1];
+        for (E value : values) {
+            counts[nameOf.apply(value).length()]++;
+        }
+        byLength = new Object[maxLength + 1][];
+        for (int length = 0; length <= maxLength; length++) {
+            byLength[length] = new Object[counts[length]];
+        }
+        for (E value : values) {
+            int length = nameOf.apply(value).length();
+            byLength[length][--counts[length]] = value;
+        }
+    }
+
+    /**
+     * @return The constant named by {@code text[start, end)}, or null if there is none
+     */
+    @SuppressWarnings("unchecked")
+    E find(String text, int start, int end) {
+        int length = end - start;
+        if (length >= byLength.length) {
+            return null;
+        }
+        for (Object candidate : byLength[length]) {
+            E value = (E) candidate;
+            if (text.regionMatches(start, nameOf.apply(value), 0, length)) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    E find(String name) {
+        return find(name, 0, name.length());
+    }
+}
@@ -0,0 +1,97 @@
+package suduoku.protocol;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free frame and byte counts per wire format, in each direction, so the bandwidth of the
+ * JSON and binary protocols can be compared.
+ */
+public class ProtocolStats {
+    private final Map<WireFormat, Counters> inbound = new EnumMap<>(WireFormat.class);
+    private final Map<WireFormat, Counters> outbound = new EnumMap<>(WireFormat.class);
+
+    private static final class Counters {
+        private final LongAdder frames = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+    }
+
+    public ProtocolStats() {
+        for (WireFormat format : WireFormat.values()) {
+            inbound.put(format, new Counters());
+            outbound.put(format, new Counters());
+        }
+    }
+
+    /**
+     * @param binary Whether the frame was a binary frame; text frames count as JSON
+     */
+    public void recordInbound(boolean binary, int bytes) {
+        record(inbound, binary ? WireFormat.BINARY : WireFormat.JSON, bytes);
+    }
+
+    public void recordOutbound(boolean binary, int bytes) {
+        record(outbound, binary ? WireFormat.BINARY : WireFormat.JSON, bytes);
+    }
+
+    private static void record(Map<WireFormat, Counters> direction, WireFormat format, int bytes) {
+        Counters counters = direction.get(format);
+        counters.frames.increment();
+        counters.bytes.add(bytes);
+    }
+
+    public long getInboundFrames(WireFormat format) {
+        return inbound.get(format).frames.sum();
+    }
+
+    public long getInboundBytes(WireFormat format) {
+        return inbound.get(format).bytes.sum();
+    }
+
+    public long getOutboundFrames(WireFormat format) {
+        return outbound.get(format).frames.sum();
+    }
+
+    public long getOutboundBytes(WireFormat format) {
+        return outbound.get(format).bytes.sum();
+    }
+
+    /**
+     * Encoded size of a text frame, without encoding it.
+     */
+    public static int utf8Length(String text) {
+        int length = text.length();
+        int bytes = length;
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                continue;
+            }
+            if (c < 0x800) {
+                bytes++;
+            } else if (Character.isHighSurrogate(c) && i + 1 < length) {
+                // A surrogate pair is two chars and four bytes
+                bytes += 2;
+                i++;
+            } else {
+                bytes += 2;
+            }
+        }
+        return bytes;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder summary = new StringBuilder("ProtocolStats{");
+        for (WireFormat format : WireFormat.values()) {
+            summary.append(format).append("={in=")
+                    .append(getInboundFrames(format)).append(" frames/").append(getInboundBytes(format)).append(" B")
+                    .append(", out=")
+                    .append(getOutboundFrames(format)).append(" frames/").append(getOutboundBytes(format)).append(" B")
+                    .append("} ");
+        }
+        summary.setLength(summary.length() - 1);
+        return summary.append('}').toString();
+    }
+}
@@ -0,0 +1,26 @@
+package suduoku.protocol;
+
+import jakarta.websocket.Session;
+
+/**
+ * The WebSocket subprotocols a client can negotiate at connect time.
+ * Clients that ask for none get {@link #JSON}, the original text protocol.
+ */
+public enum WireFormat {
+    JSON,
+    /**
+     * Compact binary frames for high-frequency messages, see {@link BinaryCodec}. All other
+     * messages are still JSON text frames.
+     */
+    BINARY;
+
+    public static final String JSON_SUBPROTOCOL = "suduoku.json.v1";
+    public static final String BINARY_SUBPROTOCOL = "suduoku.bin.v1";
+
+    /**
+     * The format a session negotiated.
+     */
+    public static WireFormat of(Session session) {
+        return BINARY_SUBPROTOCOL.equals(session.getNegotiatedSubprotocol()) ? BINARY : JSON;
+    }
+}
@@ -0,0 +1,269 @@
+package suduoku.room;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import lombok.extern.log4j.Log4j2;
+import suduoku.Board.SudokuBoard;
+import suduoku.database.BoardWriter;
+import suduoku.database.Database;
+
+/**
+ * Bounded cache of the boards held by rooms.
+ * Boards are loaded asynchronously on first use, once per room however many players join
+ * at the same time. A background sweep evicts rooms that have been empty for
+ * longer than the idle timeout and, while more boards than the limit are loaded, the empty
+ * rooms that have been idle the longest. Rooms with players are never evicted. Every board is
+ * written back before its room is dropped.
+ */
+@Log4j2
+public class BoardCache {
+    private static final long MAX_SWEEP_INTERVAL_MS = 30_000;
+
+    private final RoomRegistry rooms;
+    private final Database database;
+    private final BoardWriter boardWriter;
+    private final int maxBoards;
+    private final long idleEvictNanos;
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService loader;
+    private final AtomicBoolean sweepPending = new AtomicBoolean();
+    private final AtomicInteger loadedBoards = new AtomicInteger();
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+    private final LongAdder totalLoadNanos = new LongAdder();
+    private final AtomicLong maxLoadNanos = new AtomicLong();
+
+    /**
+     * Creates a cache and starts its eviction sweep.
+     *
+     * @param rooms         The rooms boards are held by
+     * @param database      The database boards are loaded from
+     * @param boardWriter   The writer boards are persisted through before eviction
+     * @param maxBoards     Number of loaded boards above which idle rooms are evicted early
+     * @param idleEvictMs   How long a room may stay empty before it is evicted, in milliseconds
+     * @param loaderThreads Number of threads boards are loaded on
+     */
+    public BoardCache(RoomRegistry rooms, Database database, BoardWriter boardWriter, int maxBoards, long idleEvictMs,
+            int loaderThreads) {
+        this.rooms = rooms;
+        this.database = database;
+        this.boardWriter = boardWriter;
+        this.maxBoards = maxBoards;
+        this.idleEvictNanos = TimeUnit.MILLISECONDS.toNanos(idleEvictMs);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "board-cache");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.loader = Executors.newFixedThreadPool(loaderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "board-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long sweepIntervalMs = Math.max(1, Math.min(idleEvictMs / 2, MAX_SWEEP_INTERVAL_MS));
+        scheduler.scheduleWithFixedDelay(this::sweep, sweepIntervalMs, sweepIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns the room's board, starting a load on the loader pool if the room does not hold one yet.
+     * Concurrent callers for the same room share a single in-flight load.
+     *
+     * @return A future completed with the board, or with null if the puzzle does not exist
+     */
+    public CompletableFuture<SudokuBoard> loadBoard(Room room) {
+        CompletableFuture<SudokuBoard> load;
+        synchronized (room) {
+            load = room.getBoardLoad();
+            if (load != null) {
+                hitCount.increment();
+                return load;
+            }
+            load = new CompletableFuture<>();
+            room.setBoardLoad(load);
+        }
+
+        missCount.increment();
+        CompletableFuture<SudokuBoard> pending = load;
+        loader.execute(new LoadTask(room, pending));
+        return pending;
+    }
+
+    /**
+     * A queued board load, kept as a type so loads dropped at shutdown can still be completed.
+     */
+    private final class LoadTask implements Runnable {
+        private final Room room;
+        private final CompletableFuture<SudokuBoard> pending;
+
+        LoadTask(Room room, CompletableFuture<SudokuBoard> pending) {
+            this.room = room;
+            this.pending = pending;
+        }
+
+        @Override
+        public void run() {
+            load(room, pending);
+        }
+
+        /**
+         * Fails the load without running it, releasing the room's mailbox.
+         */
+        void cancel() {
+            room.clearBoardLoad(pending);
+            pending.completeExceptionally(new CancellationException("Board cache shut down"));
+        }
+    }
+
+    private void load(Room room, CompletableFuture<SudokuBoard> pending) {
+        int puzzleId = room.getPuzzleId();
+        long start = System.nanoTime();
+        SudokuBoard board;
+        try {
+            board = SudokuBoard.load(puzzleId, database, boardWriter, room);
+        } catch (Exception e) {
+            log.error("Error loading board for puzzle {}: {}", puzzleId, e.getMessage(), e);
+            room.clearBoardLoad(pending);
+            pending.completeExceptionally(e);
+            return;
+        }
+        long elapsed = System.nanoTime() - start;
+        totalLoadNanos.add(elapsed);
+        maxLoadNanos.accumulateAndGet(elapsed, Math::max);
+
+        if (board == null) {
+            log.warn("Puzzle {} not found", puzzleId);
+            pending.complete(null);
+            return;
+        }
+
+        room.setBoard(board);
+        log.info("Loaded board for puzzle {} in {} ms", puzzleId, TimeUnit.NANOSECONDS.toMillis(elapsed));
+        if (loadedBoards.incrementAndGet() > maxBoards && sweepPending.compareAndSet(false, true)) {
+            scheduler.execute(this::sweep);
+        }
+        pending.complete(board);
+    }
+
+    /**
+     * Evicts idle rooms, then the longest-idle empty rooms while the cache is over its limit.
+     */
+    private void sweep() {
+        sweepPending.set(false);
+        try {
+            long now = System.nanoTime();
+            List<Room> candidates = new ArrayList<>();
+            for (Room room : rooms.getRooms()) {
+                long emptySince = room.getEmptySince();
+                if (emptySince == 0) {
+                    continue;
+                }
+                if (now - emptySince >= idleEvictNanos) {
+                    evict(room);
+                } else {
+                    candidates.add(room);
+                }
+            }
+
+            if (loadedBoards.get() > maxBoards) {
+                candidates.sort(Comparator.comparingLong(Room::getEmptySince));
+                for (Room room : candidates) {
+                    if (loadedBoards.get() <= maxBoards) {
+                        break;
+                    }
+                    evict(room);
+                }
+            }
+        } catch (Exception e) {
+            log.error("Error sweeping board cache: {}", e.getMessage(), e);
+        }
+    }
+
+    private void evict(Room room) {
+        try {
+            if (!rooms.evict(room, boardWriter)) {
+                return;
+            }
+        } catch (SQLException e) {
+            log.error("Error persisting board for puzzle {}, keeping it cached: {}", room.getPuzzleId(), e.getMessage(), e);
+            return;
+        }
+
+        if (room.getBoard() != null) {
+            loadedBoards.decrementAndGet();
+        }
+        evictionCount.increment();
+        log.debug("Evicted room for puzzle {}", room.getPuzzleId());
+    }
+
+    /**
+     * Stops the loader and eviction sweep. Cached boards are left for the board writer's final flush.
+     * Loads already queued are given a few seconds to finish; any still waiting after that are failed,
+     * so no room mailbox stays held on a load that will never run.
+     */
+    public void shutdown() {
+        scheduler.shutdownNow();
+        loader.shutdown();
+        try {
+            loader.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Runnable dropped : loader.shutdownNow()) {
+            if (dropped instanceof LoadTask task) {
+                task.cancel();
+            }
+        }
+        log.info("Board cache stopped with {} boards loaded ({} hits, {} misses, {} evictions, avg load {} ms)",
+                getSize(), getHitCount(), getMissCount(), getEvictionCount(),
+                TimeUnit.NANOSECONDS.toMillis(getAverageLoadNanos()));
+    }
+
+    /**
+     * Number of boards currently loaded.
+     */
+    public int getSize() {
+        return loadedBoards.get();
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public double getHitRate() {
+        long hits = hitCount.sum();
+        long lookups = hits + missCount.sum();
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    public long getMaxLoadNanos() {
+        return maxLoadNanos.get();
+    }
+
+    public long getAverageLoadNanos() {
+        long loads = missCount.sum();
+        return loads == 0 ? 0 : totalLoadNanos.sum() / loads;
+    }
+}
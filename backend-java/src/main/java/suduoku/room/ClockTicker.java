@@ -0,0 +1,81 @@
+package suduoku.room;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import lombok.extern.log4j.Log4j2;
+import suduoku.Board.SudokuBoard;
+import suduoku.broadcast.OutboundMessage;
+import suduoku.database.BoardWriter;
+
+/**
+ * Single timer that keeps every active room clock in sync.
+ * Each tick sends the authoritative elapsed time to rooms whose clock is running, which
+ * clients interpolate between, and queues the reading for the write-behind flush.
+ */
+@Log4j2
+public class ClockTicker {
+    private final RoomRegistry rooms;
+    private final BoardWriter boardWriter;
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Creates a ticker and starts its timer thread.
+     *
+     * @param rooms          The rooms whose clocks are synced
+     * @param boardWriter    The writer elapsed times are persisted through
+     * @param syncIntervalMs How often running clocks are broadcast, in milliseconds
+     */
+    public ClockTicker(RoomRegistry rooms, BoardWriter boardWriter, long syncIntervalMs) {
+        this.rooms = rooms;
+        this.boardWriter = boardWriter;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "room-clock");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::tick, syncIntervalMs, syncIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void tick() {
+        try {
+            for (Room room : rooms.getRooms()) {
+                room.execute(() -> sync(room));
+            }
+        } catch (Exception e) {
+            log.error("Error syncing room clocks: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Broadcasts and persists a room's clock if it is running. Runs on the room's mailbox.
+     */
+    private void sync(Room room) {
+        SudokuBoard board = room.getBoard();
+        if (board != null && board.isClockRunning()) {
+            room.broadcast(OutboundMessage.of(board.getElapsedTimeJSON()));
+            boardWriter.markDirty(board);
+        }
+    }
+
+    /**
+     * Stops the timer thread and queues every running clock for the final flush.
+     */
+    public void shutdown() {
+        scheduler.shutdownNow();
+        List<CompletableFuture<Void>> pending = new ArrayList<>();
+        for (Room room : rooms.getRooms()) {
+            pending.add(CompletableFuture.runAsync(() -> {
+                SudokuBoard board = room.getBoard();
+                if (board != null && board.isClockRunning()) {
+                    boardWriter.markDirty(board);
+                }
+            }, room));
+        }
+        CompletableFuture.allOf(pending.toArray(new CompletableFuture[0])).join();
+    }
+}
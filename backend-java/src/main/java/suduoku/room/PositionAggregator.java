@@ -0,0 +1,93 @@
+package suduoku.room;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import lombok.extern.log4j.Log4j2;
+import suduoku.Player;
+import suduoku.broadcast.OutboundMessage;
+
+/**
+ * Coalesces cursor moves into at most one position update per room per tick.
+ * A move only marks the player in their room; each tick, every room with moves sends a single
+ * update holding just the players that moved, from the room's mailbox so it stays in order with
+ * the room's other broadcasts. A player who moves several times within a tick is sent once,
+ * at their latest position.
+ */
+@Log4j2
+public class PositionAggregator {
+    private final Set<Room> dirtyRooms = ConcurrentHashMap.newKeySet();
+    private final Function<List<Player>, OutboundMessage> encoder;
+    private final ScheduledExecutorService scheduler;
+
+    private final LongAdder recordedMoves = new LongAdder();
+    private final LongAdder sentUpdates = new LongAdder();
+
+    /**
+     * Creates an aggregator and starts its timer thread.
+     *
+     * @param flushIntervalMs How often moves are sent, in milliseconds
+     * @param encoder         Builds the update sent for the players that moved
+     */
+    public PositionAggregator(long flushIntervalMs, Function<List<Player>, OutboundMessage> encoder) {
+        this.encoder = encoder;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "room-positions");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::tick, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Records that a player moved within a room. The player's position is read when the update is sent.
+     */
+    public void record(Room room, Player player) {
+        recordedMoves.increment();
+        room.markMoved(player);
+        dirtyRooms.add(room);
+    }
+
+    private void tick() {
+        try {
+            for (Iterator<Room> it = dirtyRooms.iterator(); it.hasNext(); ) {
+                Room room = it.next();
+                it.remove();
+                room.execute(() -> flush(room));
+            }
+        } catch (Exception e) {
+            log.error("Error flushing player positions: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Sends one update for the players that moved in a room. Runs on the room's mailbox.
+     */
+    private void flush(Room room) {
+        List<Player> moved = room.drainMovedPlayers();
+        if (!moved.isEmpty()) {
+            room.broadcast(encoder.apply(moved));
+            sentUpdates.increment();
+        }
+    }
+
+    public long getRecordedMoves() {
+        return recordedMoves.sum();
+    }
+
+    public long getSentUpdates() {
+        return sentUpdates.sum();
+    }
+
+    public void shutdown() {
+        scheduler.shutdownNow();
+        log.info("Position aggregator stopped after {} moves sent as {} updates", getRecordedMoves(), getSentUpdates());
+    }
+}
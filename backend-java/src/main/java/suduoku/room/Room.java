@@ -0,0 +1,202 @@
+package suduoku.room;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+import lombok.Getter;
+import suduoku.Board.SudokuBoard;
+import suduoku.Player;
+import suduoku.broadcast.Broadcaster;
+import suduoku.broadcast.OutboundMessage;
+import suduoku.chat.ChatHistory;
+import suduoku.concurrent.SerialExecutor;
+import suduoku.database.BoardWriter;
+
+/**
+ * A puzzle room: the players currently in a puzzle, the board they share and their recent chat.
+ * Broadcasts only visit the room's own members. The board clock runs while the room is
+ * occupied and pauses while it is empty. Once evicted, a room accepts no new members and
+ * joiners get a fresh room instead.
+ * <p>
+ * Every board operation and broadcast for the room runs on its serial mailbox, so the board is
+ * only ever touched by one thread at a time and needs no locks. Tasks on the mailbox must never
+ * take the room's own lock, which eviction holds while waiting on the mailbox.
+ */
+public class Room implements Executor {
+    @Getter
+    private final int puzzleId;
+    private final Broadcaster broadcaster;
+    private final Set<Player> members = ConcurrentHashMap.newKeySet();
+    private final Set<Player> movedPlayers = ConcurrentHashMap.newKeySet();
+    private final SerialExecutor mailbox;
+    @Getter
+    private final ChatHistory chat;
+
+    @Getter
+    private volatile SudokuBoard board;
+    private CompletableFuture<SudokuBoard> boardLoad;
+    private volatile long emptySince;
+    private boolean evicted;
+
+    Room(int puzzleId, Broadcaster broadcaster, Executor workers, ChatHistory chat) {
+        this.puzzleId = puzzleId;
+        this.broadcaster = broadcaster;
+        this.mailbox = new SerialExecutor(workers);
+        this.chat = chat;
+        this.emptySince = System.nanoTime();
+    }
+
+    /**
+     * Queues a task on the room's mailbox, after every task already queued.
+     */
+    @Override
+    public void execute(Runnable task) {
+        mailbox.execute(task);
+    }
+
+    /**
+     * The load of this room's board, in flight or completed, or null if none has been started.
+     */
+    synchronized CompletableFuture<SudokuBoard> getBoardLoad() {
+        return boardLoad;
+    }
+
+    /**
+     * Records the board load and holds the mailbox until it completes, so operations that arrive
+     * while the board is loading are applied to it rather than dropped.
+     */
+    synchronized void setBoardLoad(CompletableFuture<SudokuBoard> boardLoad) {
+        this.boardLoad = boardLoad;
+        mailbox.holdUntil(boardLoad);
+    }
+
+    /**
+     * Forgets a failed load so the next joiner retries it.
+     */
+    synchronized void clearBoardLoad(CompletableFuture<SudokuBoard> failedLoad) {
+        if (boardLoad == failedLoad) {
+            boardLoad = null;
+        }
+    }
+
+    /**
+     * Attaches a loaded board, starting its clock if the room is occupied.
+     */
+    synchronized void setBoard(SudokuBoard board) {
+        this.board = board;
+        if (board != null && !members.isEmpty()) {
+            execute(board::resumeClock);
+        }
+    }
+
+    /**
+     * @return False if the room has been evicted and the player was not added
+     */
+    synchronized boolean addMember(Player player) {
+        if (evicted) {
+            return false;
+        }
+        members.add(player);
+        emptySince = 0;
+        SudokuBoard current = board;
+        if (current != null) {
+            execute(current::resumeClock);
+        }
+        return true;
+    }
+
+    synchronized void removeMember(Player player) {
+        members.remove(player);
+        if (members.isEmpty() && emptySince == 0) {
+            emptySince = System.nanoTime();
+            SudokuBoard current = board;
+            if (current != null) {
+                execute(current::pauseClock);
+            }
+        }
+    }
+
+    /**
+     * Persists the board and closes the room to new members, if nobody is in it and no load is in flight.
+     *
+     * @return True if the room was evicted
+     * @throws SQLException if the board could not be persisted, in which case the room stays open
+     */
+    synchronized boolean evict(BoardWriter boardWriter) throws SQLException {
+        if (evicted || !members.isEmpty() || (boardLoad != null && !boardLoad.isDone())) {
+            return false;
+        }
+        if (board != null) {
+            CompletableFuture.runAsync(board::pauseClock, this).join();
+            boardWriter.writeNow(board);
+        }
+        evicted = true;
+        return true;
+    }
+
+    /**
+     * Records that a member's position changed since the last position update.
+     */
+    void markMoved(Player player) {
+        movedPlayers.add(player);
+    }
+
+    /**
+     * Takes the players that moved since the last call and are still in the room.
+     */
+    List<Player> drainMovedPlayers() {
+        List<Player> moved = new ArrayList<>();
+        for (Iterator<Player> it = movedPlayers.iterator(); it.hasNext(); ) {
+            Player player = it.next();
+            it.remove();
+            if (members.contains(player)) {
+                moved.add(player);
+            }
+        }
+        return moved;
+    }
+
+    /**
+     * When the room last became empty, in {@link System#nanoTime()} units, or 0 while it is occupied.
+     */
+    public long getEmptySince() {
+        return emptySince;
+    }
+
+    /**
+     * Players currently in the room.
+     */
+    public Collection<Player> getMembers() {
+        return Collections.unmodifiableSet(members);
+    }
+
+    public boolean isEmpty() {
+        return members.isEmpty();
+    }
+
+    /**
+     * Sends a message to every member of the room.
+     *
+     * @return The number of sessions the message was sent to
+     */
+    public int broadcast(OutboundMessage message) {
+        return broadcaster.broadcast(members, message);
+    }
+
+    @Override
+    public String toString() {
+        return "Room{" +
+                "puzzleId=" + puzzleId +
+                ", members=" + members.size() +
+                ", boardLoaded=" + (board != null) +
+                '}';
+    }
+}
@@ -0,0 +1,182 @@
+package suduoku.room;
+
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import jakarta.websocket.Session;
+import lombok.extern.log4j.Log4j2;
+import suduoku.Player;
+import suduoku.broadcast.Broadcaster;
+import suduoku.broadcast.OutboundMessage;
+import suduoku.chat.ChatHistory;
+import suduoku.database.BoardWriter;
+
+/**
+ * Registry of puzzle rooms keyed by puzzle id, plus an index from session id to player.
+ * Joining, leaving and resolving a disconnected session are all constant time.
+ */
+@Log4j2
+public class RoomRegistry {
+    private final Map<Integer, Room> rooms = new ConcurrentHashMap<>();
+    private final Map<String, Player> playersBySession = new ConcurrentHashMap<>();
+    private final Broadcaster broadcaster;
+    private final ExecutorService workers;
+    private final int chatHistorySize;
+
+    /**
+     * @param broadcaster     The broadcaster rooms send through
+     * @param workerThreads   Number of threads shared by all room mailboxes
+     * @param chatHistorySize Number of recent chat messages each room keeps in memory
+     */
+    public RoomRegistry(Broadcaster broadcaster, int workerThreads, int chatHistorySize) {
+        this.broadcaster = broadcaster;
+        this.chatHistorySize = chatHistorySize;
+        this.workers = Executors.newFixedThreadPool(workerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "room-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Returns the room for a puzzle, or null if nobody has opened it.
+     */
+    public Room getRoom(int puzzleId) {
+        return rooms.get(puzzleId);
+    }
+
+    /**
+     * Every room that has been opened.
+     */
+    public Collection<Room> getRooms() {
+        return Collections.unmodifiableCollection(rooms.values());
+    }
+
+    /**
+     * Returns the room for a puzzle, creating it if needed.
+     */
+    public Room getOrCreateRoom(int puzzleId) {
+        return rooms.computeIfAbsent(puzzleId, id -> new Room(id, broadcaster, workers, new ChatHistory(chatHistorySize)));
+    }
+
+    /**
+     * Moves a player into a puzzle room, leaving any room they were in.
+     *
+     * @return The joined room
+     */
+    public Room join(Player player, int puzzleId) {
+        synchronized (player) {
+            leave(player);
+            Room room = getOrCreateRoom(puzzleId);
+            while (!room.addMember(player)) {
+                rooms.remove(puzzleId, room);
+                room = getOrCreateRoom(puzzleId);
+            }
+            player.setCurrentPuzzleId(puzzleId);
+            return room;
+        }
+    }
+
+    /**
+     * Removes a player from their current room and resets their position.
+     *
+     * @return The room the player left, or null if they were not in one
+     */
+    public Room leave(Player player) {
+        synchronized (player) {
+            int puzzleId = player.getCurrentPuzzleId();
+            player.setCurrentPuzzleId(-1);
+            player.clearSelectedCell();
+            if (puzzleId == -1) {
+                return null;
+            }
+
+            Room room = rooms.get(puzzleId);
+            if (room != null) {
+                room.removeMember(player);
+            }
+            return room;
+        }
+    }
+
+    /**
+     * Persists an empty room's board and removes the room.
+     *
+     * @return True if the room was removed, false if somebody is in it
+     */
+    boolean evict(Room room, BoardWriter boardWriter) throws SQLException {
+        if (!room.evict(boardWriter)) {
+            return false;
+        }
+        rooms.remove(room.getPuzzleId(), room);
+        return true;
+    }
+
+    /**
+     * Sends a message to every member of a puzzle room.
+     *
+     * @return The number of sessions the message was sent to
+     */
+    public int broadcast(int puzzleId, OutboundMessage message) {
+        Room room = rooms.get(puzzleId);
+        return room == null ? 0 : room.broadcast(message);
+    }
+
+    /**
+     * Indexes the session a player is connected through, replacing any previous session.
+     */
+    public void registerSession(Session session, Player player) {
+        Session previous = player.getSession();
+        if (previous != null && !previous.getId().equals(session.getId())) {
+            playersBySession.remove(previous.getId(), player);
+        }
+        player.setSession(session);
+        playersBySession.put(session.getId(), player);
+    }
+
+    /**
+     * Removes a closed session from the index.
+     *
+     * @return The player that was connected through the session, or null if none was
+     */
+    public Player removeSession(Session session) {
+        return playersBySession.remove(session.getId());
+    }
+
+    public Player getPlayer(Session session) {
+        return playersBySession.get(session.getId());
+    }
+
+    /**
+     * Stops the room worker threads. Tasks still queued on room mailboxes are dropped.
+     */
+    public void shutdown() {
+        workers.shutdown();
+    }
+
+    public int getRoomCount() {
+        return rooms.size();
+    }
+
+    /**
+     * Number of rooms with at least one member.
+     */
+    public int getActiveRoomCount() {
+        int active = 0;
+        for (Room room : rooms.values()) {
+            if (!room.isEmpty()) {
+                active++;
+            }
+        }
+        return active;
+    }
+
+    public int getSessionCount() {
+        return playersBySession.size();
+    }
+}
@@ -0,0 +1,188 @@
+package suduoku.solver;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+
+import lombok.extern.log4j.Log4j2;
+import suduoku.Board.BoardSerializer;
+import suduoku.database.Database;
+
+import static suduoku.Constants.DB_URL;
+
+/**
+ * Batch job that solves every stored puzzle in parallel on a fork/join pool and reports puzzles
+ * with no solution, more than one solution, or a stored solution that is missing or wrong.
+ * With repair enabled, missing and wrong solutions of uniquely solvable puzzles are rewritten in
+ * one transaction.
+ * <p>
+ * Run with {@code mvn compile exec:java -Dexec.mainClass=suduoku.solver.PuzzleAudit [-Dexec.args=--repair]}.
+ */
+@Log4j2
+public class PuzzleAudit {
+    private static final String PUZZLES_QUERY = "SELECT id, sdx, sdx_solution FROM puzzles ORDER BY id";
+    private static final String REPAIR_QUERY = "UPDATE puzzles SET sdx_solution = ? WHERE id = ?";
+    /**
+     * Puzzles solved by one task before it stops splitting.
+     */
+    private static final int BATCH_SIZE = 32;
+
+    public enum Problem {
+        NO_SOLUTION,
+        MULTIPLE_SOLUTIONS,
+        MISSING_SOLUTION,
+        WRONG_SOLUTION
+    }
+
+    /**
+     * @param solution The solver's solution, or null if the puzzle has no unique one
+     */
+    public record Finding(int puzzleId, Problem problem, byte[] givens, byte[] solution) {
+    }
+
+    public record Report(int checked, List<Finding> findings, int repaired, long elapsedNanos) {
+        public double getPuzzlesPerSecond() {
+            return elapsedNanos == 0 ? 0 : checked * 1e9 / elapsedNanos;
+        }
+    }
+
+    private record StoredPuzzle(int id, String sdx, String solutionSdx) {
+    }
+
+    private final Database database;
+    private final ForkJoinPool pool;
+
+    public PuzzleAudit(Database database, ForkJoinPool pool) {
+        this.database = database;
+        this.pool = pool;
+    }
+
+    /**
+     * Solves every stored puzzle and optionally repairs stored solutions.
+     */
+    public Report run(boolean repair) throws SQLException {
+        List<StoredPuzzle> puzzles = database.query(PUZZLES_QUERY, rs -> {
+            List<StoredPuzzle> rows = new ArrayList<>();
+            while (rs.next()) {
+                rows.add(new StoredPuzzle(rs.getInt("id"), rs.getString("sdx"), rs.getString("sdx_solution")));
+            }
+            return rows;
+        });
+
+        long start = System.nanoTime();
+        List<Finding> findings = pool.invoke(new AuditTask(puzzles, 0, puzzles.size()));
+        long elapsed = System.nanoTime() - start;
+
+        int repaired = repair ? repair(findings) : 0;
+        return new Report(puzzles.size(), findings, repaired, elapsed);
+    }
+
+    private int repair(List<Finding> findings) throws SQLException {
+        List<Finding> fixable = findings.stream()
+                .filter(finding -> finding.solution() != null)
+                .toList();
+        if (fixable.isEmpty()) {
+            return 0;
+        }
+        database.transaction("repairSolutions", conn -> {
+            PreparedStatement stmt = conn.prepare(REPAIR_QUERY);
+            for (Finding finding : fixable) {
+                stmt.setString(1, BoardSerializer.convertValuesToSDX(finding.givens(), finding.solution()));
+                stmt.setInt(2, finding.puzzleId());
+                stmt.addBatch();
+            }
+            return stmt.executeBatch();
+        });
+        return fixable.size();
+    }
+
+    /**
+     * Audits one stored puzzle.
+     *
+     * @return The problem found, or null if the puzzle and its stored solution are sound
+     */
+    static Finding audit(int puzzleId, String sdx, String solutionSdx) {
+        byte[] givens = BoardSerializer.convertSDXToGivens(sdx);
+        SolveResult result = SudokuSolver.solve(givens);
+        if (!result.isSolvable()) {
+            return new Finding(puzzleId, Problem.NO_SOLUTION, givens, null);
+        }
+        if (!result.isUnique()) {
+            return new Finding(puzzleId, Problem.MULTIPLE_SOLUTIONS, givens, null);
+        }
+        if (solutionSdx == null || solutionSdx.isBlank()) {
+            return new Finding(puzzleId, Problem.MISSING_SOLUTION, givens, result.solution());
+        }
+        byte[] stored;
+        try {
+            stored = BoardSerializer.convertSDXToValues(solutionSdx);
+        } catch (IndexOutOfBoundsException e) {
+            return new Finding(puzzleId, Problem.WRONG_SOLUTION, givens, result.solution());
+        }
+        if (!Arrays.equals(stored, result.solution())) {
+            return new Finding(puzzleId, Problem.WRONG_SOLUTION, givens, result.solution());
+        }
+        return null;
+    }
+
+    /**
+     * Splits the puzzle list in halves until a range is small enough to solve directly.
+     */
+    private static final class AuditTask extends RecursiveTask<List<Finding>> {
+        private final List<StoredPuzzle> puzzles;
+        private final int from;
+        private final int to;
+
+        AuditTask(List<StoredPuzzle> puzzles, int from, int to) {
+            this.puzzles = puzzles;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<Finding> compute() {
+            if (to - from <= BATCH_SIZE) {
+                List<Finding> findings = new ArrayList<>();
+                for (int i = from; i < to; i++) {
+                    StoredPuzzle puzzle = puzzles.get(i);
+                    Finding finding = audit(puzzle.id(), puzzle.sdx(), puzzle.solutionSdx());
+                    if (finding != null) {
+                        findings.add(finding);
+                    }
+                }
+                return findings;
+            }
+
+            int mid = (from + to) >>> 1;
+            AuditTask left = new AuditTask(puzzles, from, mid);
+            left.fork();
+            List<Finding> findings = new ArrayList<>(new AuditTask(puzzles, mid, to).compute());
+            findings.addAll(0, left.join());
+            return findings;
+        }
+    }
+
+    public static void main(String[] args) throws SQLException {
+        boolean repair = Arrays.asList(args).contains("--repair");
+        Database database = new Database(DB_URL, 1);
+        ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        try {
+            Report report = new PuzzleAudit(database, pool).run(repair);
+            for (Finding finding : report.findings()) {
+                log.warn("Puzzle {}: {}", finding.puzzleId(), finding.problem());
+            }
+            log.info("Audited {} puzzles in {} ms ({} puzzles/s on {} threads): {} problems, {} repaired",
+                    report.checked(), TimeUnit.NANOSECONDS.toMillis(report.elapsedNanos()),
+                    Math.round(report.getPuzzlesPerSecond()), pool.getParallelism(), report.findings().size(),
+                    report.repaired());
+        } finally {
+            pool.shutdown();
+            database.close();
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package suduoku.solver;
+
+/**
+ * The outcome of solving a puzzle.
+ *
+ * @param solutionCount Number of solutions found, stopping at the search limit
+ * @param solution      The first solution found as 81 values in row-major order, or null if none
+ */
+public record SolveResult(int solutionCount, byte[] solution) {
+    static final SolveResult NONE = new SolveResult(0, null);
+
+    public boolean isSolvable() {
+        return solutionCount > 0;
+    }
+
+    /**
+     * Whether the puzzle has exactly one solution. Only meaningful when the search limit was at least 2.
+     */
+    public boolean isUnique() {
+        return solutionCount == 1;
+    }
+}
@@ -0,0 +1,289 @@
+package suduoku.solver;
+
+import java.util.Arrays;
+
+import suduoku.Board.BitBoard;
+
+/**
+ * Bitmask Sudoku solver.
+ * Every empty cell keeps a 9-bit candidate mask, narrowed through a precomputed peer table as
+ * digits are placed. Naked and hidden singles are placed until nothing changes, then the search
+ * branches on the empty cell with the fewest candidates, propagating again on every branch.
+ * Typical puzzles solve by propagation alone; the hardest known ones take around a millisecond.
+ * <p>
+ * Stateless and safe to share between threads.
+ */
+public final class SudokuSolver {
+    private static final int ALL = BitBoard.ALL_CANDIDATES;
+
+    /**
+     * The cells of the 9 rows, 9 columns and 9 boxes.
+     */
+    private static final int[][] UNITS = new int[27][9];
+    /**
+     * The 20 other cells sharing a row, column or box with each cell.
+     */
+    private static final int[][] PEERS = new int[BitBoard.SIZE][20];
+    /**
+     * The row, column and box unit of each cell, as indexes into {@link #UNITS}.
+     */
+    private static final int[][] CELL_UNITS = new int[BitBoard.SIZE][];
+
+    static {
+        for (int i = 0; i < BitBoard.SIZE; i++) {
+            int row = i / 9;
+            int col = i % 9;
+            UNITS[row][col] = i;
+            UNITS[9 + col][row] = i;
+            UNITS[18 + BitBoard.box(row, col)][(row % 3) * 3 + col % 3] = i;
+            CELL_UNITS[i] = new int[] {row, 9 + col, 18 + BitBoard.box(row, col)};
+        }
+        for (int i = 0; i < BitBoard.SIZE; i++) {
+            int count = 0;
+            for (int j = 0; j < BitBoard.SIZE; j++) {
+                if (j != i && (j / 9 == i / 9 || j % 9 == i % 9
+                        || BitBoard.box(j / 9, j % 9) == BitBoard.box(i / 9, i % 9))) {
+                    PEERS[i][count++] = j;
+                }
+            }
+        }
+    }
+
+    private SudokuSolver() {
+    }
+
+    /**
+     * Solves a puzzle, searching far enough to tell whether its solution is unique.
+     *
+     * @param givens 81 values in row-major order, 0 for empty cells
+     */
+    public static SolveResult solve(byte[] givens) {
+        return solve(givens, 2);
+    }
+
+    /**
+     * @param givens 81 values in row-major order, 0 for empty cells
+     * @param limit  Number of solutions after which the search stops
+     */
+    public static SolveResult solve(byte[] givens, int limit) {
+        if (givens.length != BitBoard.SIZE) {
+            throw new IllegalArgumentException("Expected " + BitBoard.SIZE + " cells, got " + givens.length);
+        }
+        Grid grid = new Grid();
+        for (int i = 0; i < BitBoard.SIZE; i++) {
+            int value = givens[i];
+            if (value < 0 || value > 9) {
+                throw new IllegalArgumentException("Cell " + i + " out of range: " + value);
+            }
+            if (value != 0 && !grid.place(i, value)) {
+                // Two givens clash
+                return SolveResult.NONE;
+            }
+        }
+
+        Search search = new Search(limit);
+        search.run(grid);
+        return search.count == 0 ? SolveResult.NONE : new SolveResult(search.count, search.first);
+    }
+
+    /**
+     * Checks a filled grid against the rules.
+     *
+     * @return True if every row, column and box holds each digit once
+     */
+    public static boolean isValidSolution(byte[] values) {
+        if (values.length != BitBoard.SIZE) {
+            return false;
+        }
+        Grid grid = new Grid();
+        for (int i = 0; i < BitBoard.SIZE; i++) {
+            if (values[i] < 1 || values[i] > 9 || !grid.place(i, values[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static final class Search {
+        private final int limit;
+        private int count;
+        private byte[] first;
+
+        Search(int limit) {
+            this.limit = limit;
+        }
+
+        void run(Grid grid) {
+            if (!grid.propagate()) {
+                return;
+            }
+            int cell = grid.mostConstrained();
+            if (cell == -1) {
+                if (count++ == 0) {
+                    first = grid.values.clone();
+                }
+                return;
+            }
+            for (int mask = grid.free(cell); mask != 0 && count < limit; mask &= mask - 1) {
+                Grid branch = grid.copy();
+                if (branch.place(cell, Integer.numberOfTrailingZeros(mask) + 1)) {
+                    run(branch);
+                }
+            }
+        }
+    }
+
+    /**
+     * Cell values plus the candidates left in each empty cell, kept up to date as digits are placed.
+     */
+    private static final class Grid {
+        private final byte[] values;
+        private final short[] candidates;
+        /**
+         * Digits placed in each unit.
+         */
+        private final short[] unitPlaced;
+        /**
+         * Empty cells narrowed to one candidate and not yet placed.
+         */
+        private final byte[] singles = new byte[BitBoard.SIZE];
+        private int singleCount;
+        private int empty;
+
+        Grid() {
+            values = new byte[BitBoard.SIZE];
+            candidates = new short[BitBoard.SIZE];
+            Arrays.fill(candidates, (short) ALL);
+            unitPlaced = new short[UNITS.length];
+            empty = BitBoard.SIZE;
+        }
+
+        /**
+         * Copies a propagated grid, whose singles are all placed.
+         */
+        private Grid(Grid other) {
+            values = other.values.clone();
+            candidates = other.candidates.clone();
+            unitPlaced = other.unitPlaced.clone();
+            empty = other.empty;
+        }
+
+        Grid copy() {
+            return new Grid(this);
+        }
+
+        /**
+         * Candidates of an empty cell.
+         */
+        int free(int cell) {
+            return candidates[cell];
+        }
+
+        /**
+         * Places a digit and removes it from the candidates of the cell's peers.
+         *
+         * @return False if the digit is not a candidate, or placing it leaves a peer with none
+         */
+        boolean place(int cell, int value) {
+            int bit = 1 << (value - 1);
+            if ((candidates[cell] & bit) == 0) {
+                return false;
+            }
+            values[cell] = (byte) value;
+            candidates[cell] = 0;
+            for (int unit : CELL_UNITS[cell]) {
+                unitPlaced[unit] |= (short) bit;
+            }
+            empty--;
+            boolean consistent = true;
+            for (int peer : PEERS[cell]) {
+                int mask = candidates[peer];
+                if ((mask & bit) != 0) {
+                    mask &= ~bit;
+                    candidates[peer] = (short) mask;
+                    if (mask == 0) {
+                        consistent = false;
+                    } else if ((mask & (mask - 1)) == 0) {
+                        singles[singleCount++] = (byte) peer;
+                    }
+                }
+            }
+            return consistent;
+        }
+
+        /**
+         * Places naked and hidden singles until none remain.
+         *
+         * @return False if some cell or digit has nowhere left to go
+         */
+        boolean propagate() {
+            boolean changed = true;
+            while (changed && empty > 0) {
+                changed = false;
+
+                // Naked singles: cells left with one candidate by earlier placements
+                while (singleCount > 0) {
+                    int cell = singles[--singleCount];
+                    if (values[cell] == 0 && !place(cell, Integer.numberOfTrailingZeros(candidates[cell]) + 1)) {
+                        return false;
+                    }
+                }
+
+                // Hidden singles: a digit with one place left in a unit; scanned once naked singles run out
+                for (int u = 0; u < UNITS.length; u++) {
+                    int[] unit = UNITS[u];
+                    int once = 0;
+                    int twice = 0;
+                    for (int cell : unit) {
+                        // Filled cells have no candidates left
+                        int mask = candidates[cell];
+                        twice |= once & mask;
+                        once |= mask;
+                    }
+                    if ((once | unitPlaced[u]) != ALL) {
+                        return false;
+                    }
+                    for (int hidden = once & ~twice; hidden != 0; hidden &= hidden - 1) {
+                        int bit = hidden & -hidden;
+                        if (!placeInUnit(unit, bit)) {
+                            return false;
+                        }
+                        changed = true;
+                    }
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Places a digit in the one cell of a unit that can still take it.
+         */
+        private boolean placeInUnit(int[] unit, int bit) {
+            for (int cell : unit) {
+                if ((candidates[cell] & bit) != 0) {
+                    return place(cell, Integer.numberOfTrailingZeros(bit) + 1);
+                }
+            }
+            // An earlier single in this unit took the digit's last cell
+            return false;
+        }
+
+        /**
+         * @return The empty cell with the fewest candidates, or -1 if the grid is full
+         */
+        int mostConstrained() {
+            int best = -1;
+            int bestCount = 10;
+            for (int cell = 0; cell < BitBoard.SIZE && bestCount > 2; cell++) {
+                if (values[cell] == 0) {
+                    int count = Integer.bitCount(candidates[cell]);
+                    if (count < bestCount) {
+                        best = cell;
+                        bestCount = count;
+                    }
+                }
+            }
+            return best;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package suduoku.Board;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CandidatesSerializerTest {
+    private final Random random = new Random(42);
+
+    @Test
+    void blobRoundTripsRandomMasks() {
+        for (int run = 0; run < 200; run++) {
+            BitBoard board = randomCandidates();
+
+            byte[] blob = CandidatesSerializer.convertBoardToCandidatesBlob(board);
+            assertEquals(92, blob.length);
+
+            BitBoard decoded = new BitBoard();
+            CandidatesSerializer.convertCandidatesBlobToBoard(blob, decoded);
+            assertSameCandidates(board, decoded);
+            assertArrayEquals(blob, CandidatesSerializer.convertBoardToCandidatesBlob(decoded));
+        }
+    }
+
+    @Test
+    void blobRoundTripsEdgeMasks() {
+        for (int mask : new int[] {0, 1, 0x100, BitBoard.ALL_CANDIDATES}) {
+            BitBoard board = new BitBoard();
+            for (int i = 0; i < BitBoard.SIZE; i++) {
+                board.setCandidates(i, mask);
+            }
+
+            BitBoard decoded = new BitBoard();
+            CandidatesSerializer.convertCandidatesBlobToBoard(CandidatesSerializer.convertBoardToCandidatesBlob(board),
+                    decoded);
+            assertSameCandidates(board, decoded);
+        }
+    }
+
+    @Test
+    void legacyTextPacksToSameBlob() {
+        for (int run = 0; run < 200; run++) {
+            BitBoard board = randomCandidates();
+            String text = CandidatesSerializer.convertBoardToCandidatesString(board);
+
+            BitBoard fromText = new BitBoard();
+            CandidatesSerializer.convertCandidatesStringToBoard(text, fromText);
+            assertSameCandidates(board, fromText);
+            assertArrayEquals(CandidatesSerializer.convertBoardToCandidatesBlob(board),
+                    CandidatesSerializer.convertBoardToCandidatesBlob(fromText));
+        }
+    }
+
+    @Test
+    void readsLegacyText() {
+        BitBoard board = new BitBoard();
+        CandidatesSerializer.convertCandidatesStringToBoard("0,0:1,2,3 8,8:9 4,5:5,6", board);
+
+        assertEquals(0b111, board.getCandidates(0, 0));
+        assertEquals(0b1_0000_0000, board.getCandidates(8, 8));
+        assertEquals(0b11_0000, board.getCandidates(4, 5));
+        assertEquals("0,0:1,2,3 4,5:5,6 8,8:9", CandidatesSerializer.convertBoardToCandidatesString(board));
+    }
+
+    @Test
+    void rejectsBlobOfWrongSize() {
+        BitBoard board = new BitBoard();
+        assertThrows(IllegalArgumentException.class,
+                () -> CandidatesSerializer.convertCandidatesBlobToBoard(new byte[91], board));
+        assertThrows(IllegalArgumentException.class,
+                () -> CandidatesSerializer.convertCandidatesBlobToBoard(new byte[93], board));
+    }
+
+    private BitBoard randomCandidates() {
+        BitBoard board = new BitBoard();
+        for (int i = 0; i < BitBoard.SIZE; i++) {
+            board.setCandidates(i, random.nextInt(BitBoard.ALL_CANDIDATES + 1));
+        }
+        return board;
+    }
+
+    static void assertSameCandidates(BitBoard expected, BitBoard actual) {
+        for (int i = 0; i < BitBoard.SIZE; i++) {
+            assertEquals(expected.getCandidates(i), actual.getCandidates(i), "candidates of cell " + i);
+        }
+    }
+}
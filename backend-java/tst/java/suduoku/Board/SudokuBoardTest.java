@@ -0,0 +1,225 @@
+package suduoku.Board;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import suduoku.database.BoardWriter;
+import suduoku.database.Database;
+import suduoku.database.TestDatabases;
+import suduoku.solver.SudokuSolver;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static suduoku.Board.CandidatesSerializerTest.assertSameCandidates;
+
+class SudokuBoardTest {
+    private static final String SDX = "u3 0 0 0 0 0 u8 u4 0 u6 u5 u7 0 0 0 u3 0 0 0 0 0 0 u3 0 0 0 0 0 u7 0 0 0 u6 0 0 "
+            + "u1 0 u4 0 0 0 u5 0 0 0 0 0 0 u1 u2 u4 0 0 u5 0 u2 u6 0 0 u8 0 0 u9 0 0 0 0 0 0 0 0 0 0 0 0 u4 u9 0 0 u2 0";
+    private static final byte[] SOLUTION = SudokuSolver.solve(BoardSerializer.convertSDXToGivens(SDX)).solution();
+
+    @TempDir
+    Path dir;
+
+    private Database database;
+    private BoardWriter boardWriter;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        database = TestDatabases.open(dir);
+        boardWriter = new BoardWriter(database, 60_000, 1_000, written -> { });
+    }
+
+    @AfterEach
+    void tearDown() {
+        boardWriter.shutdown();
+        database.close();
+    }
+
+    @Test
+    void rewritesLegacyCandidatesAsBlob() throws SQLException {
+        BitBoard expected = BoardSerializer.convertSDXToBoard(SDX);
+        Random random = new Random(7);
+        for (int i = 0; i < BitBoard.SIZE; i++) {
+            if (expected.getValue(i) == 0) {
+                expected.setCandidates(i, random.nextInt(BitBoard.ALL_CANDIDATES + 1));
+            }
+        }
+        insertPuzzle(CandidatesSerializer.convertBoardToCandidatesString(expected));
+
+        assertNotNull(SudokuBoard.load(1, database, boardWriter, Runnable::run));
+        assertEquals(1, boardWriter.getQueueDepth());
+
+        boardWriter.flush();
+        assertEquals(0, boardWriter.getQueueDepth());
+        assertEquals("blob", database.query("SELECT typeof(candidates) FROM puzzles WHERE id = 1",
+                rs -> rs.getString(1)));
+        byte[] stored = database.query("SELECT candidates FROM puzzles WHERE id = 1", rs -> rs.getBytes(1));
+        assertArrayEquals(CandidatesSerializer.convertBoardToCandidatesBlob(expected), stored);
+
+        BitBoard reloaded = new BitBoard();
+        CandidatesSerializer.convertCandidatesBlobToBoard(stored, reloaded);
+        assertSameCandidates(expected, reloaded);
+
+        // Once packed, loading again has nothing to migrate
+        assertNotNull(SudokuBoard.load(1, database, boardWriter, Runnable::run));
+        assertEquals(0, boardWriter.getQueueDepth());
+    }
+
+    @Test
+    void leavesUpToDateRowClean() throws SQLException {
+        insertPuzzle("");
+
+        assertNotNull(SudokuBoard.load(1, database, boardWriter, Runnable::run));
+        assertEquals(0, boardWriter.getQueueDepth());
+    }
+
+    @Test
+    void tracksOverwrittenCell() throws SQLException {
+        SudokuBoard board = loadBoard();
+        int cell = firstEditable();
+        int row = cell / 9;
+        int col = cell % 9;
+
+        board.setCell(row, col, SOLUTION[cell]);
+        assertEquals(1, board.getFilledCount());
+        assertEquals(PuzzleStatus.IN_PROGRESS, board.getStatus());
+        assertIncorrect(board);
+
+        board.setCell(row, col, wrongValue(cell));
+        assertEquals(1, board.getFilledCount());
+        assertIncorrect(board, cell);
+
+        board.setCell(row, col, 0);
+        assertEquals(0, board.getFilledCount());
+        assertEquals(0, board.getProgress());
+        assertEquals(PuzzleStatus.NOT_STARTED, board.getStatus());
+        assertIncorrect(board);
+    }
+
+    @Test
+    void neverFlagsGivens() throws SQLException {
+        SudokuBoard board = loadBoard();
+        assertTrue(BoardSerializer.convertSDXToBoard(SDX).isGiven(0));
+
+        assertNull(board.setCell(0, 0, wrongValue(0)));
+        assertEquals(0, board.getFilledCount());
+        assertIncorrect(board);
+    }
+
+    @Test
+    void neverFlagsCellsWithoutKnownSolution() throws SQLException {
+        // Two threes in the first row: unsolvable, so the solution is unknown
+        insertPuzzle("u3 u3" + SDX.substring(SDX.indexOf(' ', 3)), "");
+        SudokuBoard board = SudokuBoard.load(1, database, boardWriter, Runnable::run);
+
+        for (int value = 1; value <= 9; value++) {
+            board.setCell(0, 2, value);
+            assertEquals(1, board.getFilledCount());
+            assertIncorrect(board);
+        }
+        assertFalse(board.isSolved());
+    }
+
+    @Test
+    void solvesAndStaysSolvedUntilCleared() throws SQLException {
+        SudokuBoard board = loadBoard();
+        board.resumeClock();
+        BitBoard start = BoardSerializer.convertSDXToBoard(SDX);
+        int last = -1;
+        for (int i = 0; i < BitBoard.SIZE; i++) {
+            if (!start.isGiven(i)) {
+                assertFalse(board.isSolved());
+                board.setCell(i / 9, i % 9, SOLUTION[i]);
+                last = i;
+            }
+        }
+
+        assertTrue(board.isSolved());
+        assertEquals(PuzzleStatus.SOLVED, board.getStatus());
+        assertEquals(100, board.getProgress());
+        assertNotEquals(0, board.getSolvedAt());
+        assertFalse(board.isClockRunning());
+
+        // A wrong edit unsolves the board, but the puzzle was solved in this attempt
+        board.setCell(last / 9, last % 9, wrongValue(last));
+        assertFalse(board.isSolved());
+        assertEquals(PuzzleStatus.SOLVED, board.getStatus());
+        assertIncorrect(board, last);
+    }
+
+    @Test
+    void clearBoardResetsCounts() throws SQLException {
+        SudokuBoard board = loadBoard();
+        BitBoard start = BoardSerializer.convertSDXToBoard(SDX);
+        for (int i = 0; i < BitBoard.SIZE; i++) {
+            if (!start.isGiven(i)) {
+                board.setCell(i / 9, i % 9, SOLUTION[i]);
+            }
+        }
+        int cell = firstEditable();
+        board.setCell(cell / 9, cell % 9, wrongValue(cell));
+
+        board.clearBoard();
+
+        assertFalse(board.isSolved());
+        assertEquals(0, board.getFilledCount());
+        assertEquals(0, board.getProgress());
+        assertEquals(0, board.getSolvedAt());
+        assertEquals(PuzzleStatus.NOT_STARTED, board.getStatus());
+        assertTrue(board.isClockRunning());
+        assertIncorrect(board);
+
+        // The counts start over from the cleared board
+        board.setCell(cell / 9, cell % 9, SOLUTION[cell]);
+        assertEquals(1, board.getFilledCount());
+        assertEquals(PuzzleStatus.IN_PROGRESS, board.getStatus());
+    }
+
+    private SudokuBoard loadBoard() throws SQLException {
+        insertPuzzle("");
+        return SudokuBoard.load(1, database, boardWriter, Runnable::run);
+    }
+
+    private static int firstEditable() {
+        BitBoard board = BoardSerializer.convertSDXToBoard(SDX);
+        for (int i = 0; i < BitBoard.SIZE; i++) {
+            if (!board.isGiven(i)) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("No editable cell");
+    }
+
+    private static int wrongValue(int cell) {
+        return SOLUTION[cell] % 9 + 1;
+    }
+
+    /**
+     * Flags the board's wrong cells and checks they are exactly the given ones.
+     */
+    private static void assertIncorrect(SudokuBoard board, int... cells) {
+        board.updateIncorrectCells();
+        assertEquals(Arrays.stream(cells).mapToObj(i -> List.of(i / 9, i % 9)).toList(),
+                board.getIncorrectCells().stream().map(rc -> List.of(rc[0], rc[1])).toList());
+    }
+
+    private void insertPuzzle(String candidates) throws SQLException {
+        insertPuzzle(SDX, candidates);
+    }
+
+    private void insertPuzzle(String sdx, String candidates) throws SQLException {
+        database.update("INSERT INTO puzzles (id, title, difficulty, status, sdx, candidates) "
+                + "VALUES (1, 'Test', 'easy', ?, ?, ?)", stmt -> {
+                    stmt.setString(1, PuzzleStatus.NOT_STARTED.getLabel());
+                    stmt.setString(2, sdx);
+                    stmt.setString(3, candidates);
+                });
+    }
+}
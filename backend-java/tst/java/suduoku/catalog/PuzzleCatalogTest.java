@@ -0,0 +1,166 @@
+package suduoku.catalog;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import suduoku.Board.BoardSnapshot;
+import suduoku.Board.PuzzleStatus;
+import suduoku.database.Database;
+import suduoku.database.TestDatabases;
+import suduoku.protocol.InboundMessage.FetchPuzzles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PuzzleCatalogTest {
+    private static final String[] DIFFICULTIES = {"easy", "medium", "hard"};
+
+    @TempDir
+    Path dir;
+
+    private Database database;
+    private PuzzleCatalog catalog;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        database = TestDatabases.open(dir);
+        // Ids 1-7; difficulties cycle easy, medium, hard and puzzle 2 is in progress
+        for (int id = 1; id <= 7; id++) {
+            insert(id, DIFFICULTIES[(id - 1) % 3], id == 2 ? "in progress" : "not started");
+        }
+        catalog = new PuzzleCatalog(database, 3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.close();
+    }
+
+    @Test
+    void pagesNewestFirst() throws SQLException {
+        JSONObject first = fetch(0, null, null, null);
+        assertEquals(List.of(7, 6, 5), ids(first));
+        assertEquals(5, first.getInt("nextCursor"));
+
+        JSONObject second = fetch(5, null, null, null);
+        assertEquals(List.of(4, 3, 2), ids(second));
+        assertEquals(2, second.getInt("nextCursor"));
+
+        JSONObject last = fetch(2, null, null, null);
+        assertEquals(List.of(1), ids(last));
+        assertTrue(last.isNull("nextCursor"));
+    }
+
+    @Test
+    void filtersByDifficultyAndStatus() throws SQLException {
+        JSONObject hard = fetch(0, "HARD", null, null);
+        assertEquals(List.of(6, 3), ids(hard));
+        assertEquals("hard", hard.getString("difficulty"));
+        assertTrue(hard.isNull("nextCursor"));
+
+        assertEquals(List.of(2), ids(fetch(0, null, "in progress", null)));
+        assertEquals(List.of(), ids(fetch(0, "easy", "in progress", null)));
+    }
+
+    @Test
+    void answersNotModifiedOnlyForTheSamePage() throws SQLException {
+        JSONObject first = fetch(0, null, null, null);
+        String etag = first.getString("etag");
+
+        JSONObject unchanged = fetch(0, null, null, etag);
+        assertEquals("puzzlesNotModified", unchanged.getString("type"));
+        assertEquals(etag, unchanged.getString("etag"));
+        assertEquals(0, unchanged.getInt("cursor"));
+        assertTrue(unchanged.isNull("difficulty"));
+        assertTrue(unchanged.isNull("status"));
+
+        // The first page's tag says nothing about another page or filter
+        assertEquals(List.of(4, 3, 2), ids(fetch(5, null, null, etag)));
+        assertEquals(List.of(6, 3), ids(fetch(0, "hard", null, etag)));
+        assertEquals(List.of(2), ids(fetch(0, null, "in progress", etag)));
+
+        JSONObject hard = fetch(0, "hard", null, null);
+        JSONObject hardUnchanged = fetch(0, "hard", null, hard.getString("etag"));
+        assertEquals("puzzlesNotModified", hardUnchanged.getString("type"));
+        assertEquals("hard", hardUnchanged.getString("difficulty"));
+    }
+
+    @Test
+    void changesEtagWhenThePageChanges() throws SQLException {
+        String etag = fetch(0, null, null, null).getString("etag");
+
+        insert(8, "easy", "not started");
+        catalog.invalidate();
+
+        JSONObject first = fetch(0, null, null, etag);
+        assertEquals("puzzles", first.getString("type"));
+        assertEquals(List.of(8, 7, 6), ids(first));
+        assertNotEquals(etag, first.getString("etag"));
+    }
+
+    @Test
+    void patchesWrittenBoardsWithoutReloading() throws SQLException {
+        String firstEtag = fetch(0, null, null, null).getString("etag");
+        String secondEtag = fetch(5, null, null, null).getString("etag");
+
+        catalog.onBoardsWritten(List.of(written(3, PuzzleStatus.IN_PROGRESS, 40)));
+
+        // Puzzle 3 is only on the second page, so the first keeps its tag
+        assertEquals("puzzlesNotModified", fetch(0, null, null, firstEtag).getString("type"));
+        JSONObject second = fetch(5, null, null, secondEtag);
+        assertNotEquals(secondEtag, second.getString("etag"));
+        JSONObject patched = second.getJSONArray("puzzles").getJSONObject(1);
+        assertEquals(3, patched.getInt("id"));
+        assertEquals("in progress", patched.getString("status"));
+        assertEquals(40, patched.getInt("progress"));
+        assertEquals(List.of(3, 2), ids(fetch(0, null, "in progress", null)));
+
+        assertEquals(1, catalog.getLoads());
+        assertEquals(1, catalog.getPatches());
+    }
+
+    @Test
+    void ignoresUnchangedAndUnknownBoards() throws SQLException {
+        fetch(0, null, null, null);
+
+        catalog.onBoardsWritten(List.of(written(2, PuzzleStatus.IN_PROGRESS, 0), written(99, PuzzleStatus.SOLVED, 100)));
+
+        assertEquals(0, catalog.getPatches());
+        assertEquals(1, catalog.getLoads());
+    }
+
+    private static BoardSnapshot written(int id, PuzzleStatus status, int progress) {
+        return new BoardSnapshot(id, "", new byte[0], 0, status, progress, 0);
+    }
+
+    private void insert(int id, String difficulty, String status) throws SQLException {
+        database.update("INSERT INTO puzzles (id, title, difficulty, status, sdx) VALUES (?, ?, ?, ?, '')", stmt -> {
+            stmt.setInt(1, id);
+            stmt.setString(2, "Puzzle " + id);
+            stmt.setString(3, difficulty);
+            stmt.setString(4, status);
+        });
+    }
+
+    private JSONObject fetch(int cursor, String difficulty, String status, String etag) throws SQLException {
+        return new JSONObject(catalog.fetch(new FetchPuzzles(cursor, 0, difficulty, status, etag)).getText());
+    }
+
+    private static List<Integer> ids(JSONObject page) {
+        assertEquals("puzzles", page.getString("type"));
+        JSONArray puzzles = page.getJSONArray("puzzles");
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < puzzles.length(); i++) {
+            ids.add(puzzles.getJSONObject(i).getInt("id"));
+        }
+        return ids;
+    }
+}
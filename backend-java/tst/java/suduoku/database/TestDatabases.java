@@ -0,0 +1,31 @@
+package suduoku.database;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Throwaway SQLite databases for tests, created with the tables the schema migrations start from.
+ */
+public final class TestDatabases {
+    private TestDatabases() {
+    }
+
+    /**
+     * Creates a database file in a directory and opens it, running the migrations.
+     */
+    public static Database open(Path dir) throws SQLException {
+        String url = "jdbc:sqlite:" + dir.resolve("test.db");
+        try (Connection conn = DriverManager.getConnection(url); Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE puzzles (id INTEGER PRIMARY KEY AUTOINCREMENT, title TEXT NOT NULL, "
+                    + "difficulty TEXT NOT NULL, status TEXT NOT NULL, sdx TEXT NOT NULL, sdx_solution TEXT, "
+                    + "elapsed_time INTEGER DEFAULT 0, candidates TEXT DEFAULT '')");
+            stmt.execute("CREATE TABLE chat_logs (id INTEGER PRIMARY KEY AUTOINCREMENT, puzzle_id INTEGER NOT NULL, "
+                    + "user TEXT NOT NULL, color TEXT NOT NULL, message TEXT NOT NULL, "
+                    + "time DATETIME DEFAULT CURRENT_TIMESTAMP)");
+        }
+        return new Database(url, 1);
+    }
+}
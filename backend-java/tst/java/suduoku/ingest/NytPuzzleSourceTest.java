@@ -0,0 +1,38 @@
+package suduoku.ingest;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NytPuzzleSourceTest {
+    private static final Path FIXTURE = Path.of("db/fixtures/puzzles.json");
+
+    @Test
+    void titlesPuzzlesWithTheirPrintDate() throws Exception {
+        JSONArray fixture = new JSONArray(Files.readString(FIXTURE));
+        JSONObject gameData = new JSONObject()
+                .put("easy", game("2024-05-09", fixture.getJSONObject(0)))
+                .put("medium", game("2024-05-10", fixture.getJSONObject(1)))
+                .put("hard", game("2024-05-10", fixture.getJSONObject(2)));
+
+        List<PuzzleDefinition> puzzles = NytPuzzleSource.parse(gameData);
+
+        assertEquals(List.of("NYT 05/09/24", "NYT 05/10/24", "NYT 05/10/24"),
+                puzzles.stream().map(PuzzleDefinition::title).toList());
+        assertEquals(List.of("easy", "medium", "hard"), puzzles.stream().map(PuzzleDefinition::difficulty).toList());
+    }
+
+    private static JSONObject game(String printDate, JSONObject entry) {
+        return new JSONObject()
+                .put("print_date", printDate)
+                .put("puzzle_data", new JSONObject()
+                        .put("puzzle", entry.getJSONArray("puzzle"))
+                        .put("solution", entry.getJSONArray("solution")));
+    }
+}
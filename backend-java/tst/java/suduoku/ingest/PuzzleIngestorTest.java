@@ -0,0 +1,108 @@
+package suduoku.ingest;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import suduoku.catalog.PuzzleCatalog;
+import suduoku.database.Database;
+import suduoku.database.TestDatabases;
+import suduoku.protocol.InboundMessage.FetchPuzzles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PuzzleIngestorTest {
+    private static final Path FIXTURE = Path.of("db/fixtures/puzzles.json");
+
+    @TempDir
+    Path dir;
+
+    private Database database;
+    private PuzzleCatalog catalog;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        database = TestDatabases.open(dir);
+        catalog = new PuzzleCatalog(database, 50);
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.close();
+    }
+
+    @Test
+    void ingestsFixtureOnce() throws SQLException {
+        PuzzleIngestor ingestor = new PuzzleIngestor(database, catalog, new FilePuzzleSource(FIXTURE));
+
+        assertEquals(3, ingestor.run());
+        assertEquals(3, countPuzzles());
+        assertEquals(0, ingestor.run());
+        assertEquals(3, countPuzzles());
+        assertEquals(3, ingestor.getPuzzlesInserted());
+        assertEquals(0, ingestor.getPuzzlesRejected());
+    }
+
+    @Test
+    void rejectsUnsolvablePuzzle() throws Exception {
+        JSONArray entries = new JSONArray(Files.readString(FIXTURE));
+        JSONArray givens = new JSONArray();
+        for (int i = 0; i < 81; i++) {
+            // Two fives in the first row
+            givens.put(i < 2 ? 5 : 0);
+        }
+        entries.put(new JSONObject().put("title", "Contradiction").put("difficulty", "hard").put("puzzle", givens));
+        Path file = dir.resolve("puzzles.json");
+        Files.writeString(file, entries.toString());
+
+        PuzzleIngestor ingestor = new PuzzleIngestor(database, catalog, new FilePuzzleSource(file));
+
+        assertEquals(3, ingestor.run());
+        assertEquals(1, ingestor.getPuzzlesRejected());
+        int stored = database.query("SELECT COUNT(*) FROM puzzles WHERE title = 'Contradiction'", rs -> rs.getInt(1));
+        assertEquals(0, stored);
+    }
+
+    @Test
+    void failsRunOnCellThatDoesNotFitAByte() throws Exception {
+        JSONArray entries = new JSONArray(Files.readString(FIXTURE));
+        // 257 would truncate to a valid 1
+        entries.getJSONObject(0).getJSONArray("puzzle").put(0, 257);
+        Path file = dir.resolve("puzzles.json");
+        Files.writeString(file, entries.toString());
+
+        PuzzleIngestor ingestor = new PuzzleIngestor(database, catalog, new FilePuzzleSource(file));
+
+        assertEquals(0, ingestor.run());
+        assertEquals(1, ingestor.getFailedRuns());
+        assertEquals(0, countPuzzles());
+    }
+
+    @Test
+    void invalidatesCatalogOnlyWhenPuzzlesAreInserted() throws SQLException {
+        PuzzleIngestor ingestor = new PuzzleIngestor(database, catalog, new FilePuzzleSource(FIXTURE));
+        FetchPuzzles request = new FetchPuzzles(Integer.MAX_VALUE, 0, null, null, null);
+
+        catalog.fetch(request);
+        assertEquals(1, catalog.getLoads());
+
+        ingestor.run();
+        catalog.fetch(request);
+        assertEquals(2, catalog.getLoads());
+
+        ingestor.run();
+        catalog.fetch(request);
+        assertEquals(2, catalog.getLoads());
+    }
+
+    private int countPuzzles() throws SQLException {
+        return database.query("SELECT COUNT(*) FROM puzzles", rs -> rs.getInt(1));
+    }
+}
@@ -0,0 +1,197 @@
+package suduoku.protocol;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import suduoku.Board.BitBoard;
+import suduoku.Board.CellDelta;
+import suduoku.Player;
+import suduoku.protocol.InboundMessage.CandidateToggle;
+import suduoku.protocol.InboundMessage.CellChange;
+import suduoku.protocol.InboundMessage.IncorrectCellsUpdate;
+import suduoku.protocol.InboundMessage.PlayerPosition;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Client frames are built and server frames read the way {@code frontend/src/components/BinaryProtocol.js}
+ * does, so a change to either side's layout fails here.
+ */
+class BinaryCodecTest {
+    private static final UUID CLIENT_ID = UUID.fromString("123e4567-e89b-12d3-a456-426614174000");
+
+    @Test
+    void decodesCellChange() throws MessageDecodeException {
+        assertEquals(new CellChange(7, 2, 3, 9), BinaryCodec.decode(cellFrame(BinaryCodec.CELL_CHANGE, 7, 2, 3, 9)));
+        assertEquals(new CellChange(7, 8, 8, 0), BinaryCodec.decode(cellFrame(BinaryCodec.CELL_CHANGE, 7, 8, 8, 0)));
+    }
+
+    @Test
+    void decodesCandidateToggle() throws MessageDecodeException {
+        assertEquals(new CandidateToggle(7, 4, 4, 1),
+                BinaryCodec.decode(cellFrame(BinaryCodec.CANDIDATE_TOGGLE, 7, 4, 4, 1)));
+    }
+
+    @Test
+    void decodesIncorrectCellsUpdate() throws MessageDecodeException {
+        ByteBuffer frame = ByteBuffer.allocate(6).put(BinaryCodec.INCORRECT_CELLS_UPDATE).putInt(7)
+                .put((byte) BitBoard.index(0, 5)).flip();
+        assertEquals(new IncorrectCellsUpdate(7, 0, 5), BinaryCodec.decode(frame));
+    }
+
+    @Test
+    void decodesPlayerPosition() throws MessageDecodeException {
+        assertEquals(new PlayerPosition(CLIENT_ID, 8, 0), BinaryCodec.decode(positionFrame(BitBoard.index(8, 0))));
+    }
+
+    @Test
+    void rejectsTruncatedFrames() {
+        assertRejected(truncate(cellFrame(BinaryCodec.CELL_CHANGE, 7, 2, 3, 9), 6), "Truncated binary message");
+        assertRejected(truncate(cellFrame(BinaryCodec.CANDIDATE_TOGGLE, 7, 2, 3, 9), 3), "Truncated binary message");
+        assertRejected(truncate(positionFrame(0), 17), "Truncated binary message");
+        assertRejected(ByteBuffer.allocate(0), "Truncated binary message");
+    }
+
+    @Test
+    void rejectsTrailingBytes() {
+        ByteBuffer frame = ByteBuffer.allocate(8).put(cellFrame(BinaryCodec.CELL_CHANGE, 7, 2, 3, 9)).put((byte) 0)
+                .flip();
+        assertRejected(frame, "Unexpected content after binary message");
+    }
+
+    @Test
+    void rejectsUnknownOpcode() {
+        assertRejected(ByteBuffer.wrap(new byte[] { 0x05, 0, 0, 0, 1, 0, 0 }), "Unknown binary opcode: 5");
+        // Server opcodes are not accepted from clients
+        assertRejected(ByteBuffer.wrap(new byte[] { BinaryCodec.CELL_DELTA }), "Unknown binary opcode");
+    }
+
+    @Test
+    void checksFieldBounds() {
+        assertRejected(cellFrame(BinaryCodec.CELL_CHANGE, 0, 0, 0, 1), "Field 'puzzleId' out of range: 0");
+        assertRejected(cellFrame(BinaryCodec.CELL_CHANGE, -1, 0, 0, 1), "Field 'puzzleId' out of range: -1");
+        assertRejected(rawCellFrame(BinaryCodec.CELL_CHANGE, 81, 1), "Field 'cell' out of range: 81");
+        assertRejected(rawCellFrame(BinaryCodec.CELL_CHANGE, 0xFF, 1), "Field 'cell' out of range: 255");
+        assertRejected(cellFrame(BinaryCodec.CELL_CHANGE, 1, 0, 0, 10), "Field 'value' out of range: 10");
+        assertRejected(cellFrame(BinaryCodec.CANDIDATE_TOGGLE, 1, 0, 0, 0), "Field 'candidate' out of range: 0");
+        assertRejected(cellFrame(BinaryCodec.CANDIDATE_TOGGLE, 1, 0, 0, 10), "Field 'candidate' out of range: 10");
+        assertRejected(positionFrame(81), "Field 'cell' out of range: 81");
+    }
+
+    @Test
+    void encodesCellDelta() {
+        ByteBuffer view = ByteBuffer.wrap(BinaryCodec.encodeCellDelta(new CellDelta(7, 1L << 40, 3, 5, 0, 0x1FF)));
+
+        assertEquals(17, view.remaining());
+        assertEquals(BinaryCodec.CELL_DELTA, view.get(0));
+        assertEquals(7, view.getInt(1));
+        assertEquals(1L << 40, view.getLong(5));
+        assertEquals(BitBoard.index(3, 5), Byte.toUnsignedInt(view.get(13)));
+        assertEquals(0, Byte.toUnsignedInt(view.get(14)));
+        assertEquals(0x1FF, Short.toUnsignedInt(view.getShort(15)));
+    }
+
+    @Test
+    void encodesPlayerPositions() {
+        Player moved = new Player(null);
+        moved.selectCell(8, 4);
+        Player idle = new Player(null);
+
+        byte[] frame = BinaryCodec.encodePlayerPositions(List.of(moved, idle));
+
+        assertEquals(BinaryCodec.PLAYER_POSITIONS, frame[0]);
+        assertEquals(List.of(position(moved, BitBoard.index(8, 4)), position(idle, 0xFF)), decodePositions(frame));
+    }
+
+    @Test
+    void encodesChangedPositions() {
+        Player moved = new Player(null);
+        moved.selectCell(0, 0);
+
+        byte[] frame = BinaryCodec.encodeChangedPositions(List.of(moved));
+
+        assertEquals(BinaryCodec.CHANGED_POSITIONS, frame[0]);
+        assertEquals(List.of(position(moved, 0)), decodePositions(frame));
+        assertEquals(List.of(), decodePositions(BinaryCodec.encodeChangedPositions(List.of())));
+    }
+
+    @Test
+    void encodesBoard() {
+        BitBoard board = new BitBoard();
+        board.setGiven(0, 5);
+        board.setValue(1, 9);
+        board.setCandidates(2, 0b1_0000_0101);
+
+        ByteBuffer view = ByteBuffer.wrap(BinaryCodec.encodeBoard(7, 42, "Café", board));
+
+        assertEquals(BinaryCodec.BOARD, view.get(0));
+        assertEquals(7, view.getInt(1));
+        assertEquals(42, view.getLong(5));
+        int offset = 13;
+        for (int cell = 0; cell < BitBoard.SIZE; cell++, offset += 3) {
+            int value = Byte.toUnsignedInt(view.get(offset));
+            assertEquals(board.getValue(cell), value & ~0x80, "value of cell " + cell);
+            assertEquals(!board.isGiven(cell), (value & 0x80) != 0, "editable flag of cell " + cell);
+            assertEquals(board.getCandidates(cell), Short.toUnsignedInt(view.getShort(offset + 1)),
+                    "candidates of cell " + cell);
+        }
+        int titleLength = Short.toUnsignedInt(view.getShort(offset));
+        assertEquals(offset + 2 + titleLength, view.capacity());
+        assertEquals("Café", new String(view.array(), offset + 2, titleLength, StandardCharsets.UTF_8));
+    }
+
+    private static ByteBuffer cellFrame(byte opcode, int puzzleId, int row, int col, int last) {
+        return ByteBuffer.allocate(7).put(opcode).putInt(puzzleId).put((byte) BitBoard.index(row, col))
+                .put((byte) last).flip();
+    }
+
+    private static ByteBuffer rawCellFrame(byte opcode, int cell, int last) {
+        return ByteBuffer.allocate(7).put(opcode).putInt(1).put((byte) cell).put((byte) last).flip();
+    }
+
+    private static ByteBuffer positionFrame(int cell) {
+        return ByteBuffer.allocate(18).put(BinaryCodec.PLAYER_POSITION)
+                .putLong(CLIENT_ID.getMostSignificantBits())
+                .putLong(CLIENT_ID.getLeastSignificantBits())
+                .put((byte) cell)
+                .flip();
+    }
+
+    private static ByteBuffer truncate(ByteBuffer frame, int length) {
+        return frame.limit(length);
+    }
+
+    private static String position(Player player, int cell) {
+        return player.getName() + " " + player.getColor() + " " + cell;
+    }
+
+    /**
+     * Reads a positions frame into "name color cell" strings.
+     */
+    private static List<String> decodePositions(byte[] frame) {
+        ByteBuffer view = ByteBuffer.wrap(frame);
+        int count = Short.toUnsignedInt(view.getShort(1));
+        List<String> positions = new ArrayList<>(count);
+        int offset = 3;
+        for (int i = 0; i < count; i++) {
+            int cell = Byte.toUnsignedInt(view.get(offset));
+            int color = Byte.toUnsignedInt(view.get(offset + 1)) << 16 | Short.toUnsignedInt(view.getShort(offset + 2));
+            int nameLength = Byte.toUnsignedInt(view.get(offset + 4));
+            String name = new String(frame, offset + 5, nameLength, StandardCharsets.UTF_8);
+            positions.add(name + " #" + String.format("%06x", color) + " " + cell);
+            offset += 5 + nameLength;
+        }
+        assertEquals(frame.length, offset);
+        return positions;
+    }
+
+    private static void assertRejected(ByteBuffer frame, String message) {
+        MessageDecodeException e = assertThrows(MessageDecodeException.class, () -> BinaryCodec.decode(frame));
+        assertTrue(e.getMessage().contains(message), () -> "Expected '" + message + "' but got: " + e.getMessage());
+    }
+}
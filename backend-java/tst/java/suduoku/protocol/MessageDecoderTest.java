@@ -0,0 +1,161 @@
+package suduoku.protocol;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import suduoku.protocol.InboundMessage.CandidateToggle;
+import suduoku.protocol.InboundMessage.CellChange;
+import suduoku.protocol.InboundMessage.FetchPuzzles;
+import suduoku.protocol.InboundMessage.PlayerPosition;
+import suduoku.protocol.InboundMessage.SendChat;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageDecoderTest {
+    private static final String CLIENT_ID = "123e4567-e89b-12d3-a456-426614174000";
+
+    private final MessageDecoder decoder = new MessageDecoder();
+
+    @Test
+    void decodesCellChange() throws MessageDecodeException {
+        assertEquals(new CellChange(7, 2, 3, 9),
+                decoder.decode("{\"type\":\"sendCellChange\",\"puzzleId\":7,\"row\":2,\"col\":3,\"value\":9}"));
+    }
+
+    @Test
+    void skipsUnknownFields() throws MessageDecodeException {
+        assertEquals(new CellChange(7, 2, 3, 9), decoder.decode("{\"type\":\"sendCellChange\",\"extra\":[1,{\"a\":null}],"
+                + "\"puzzleId\":7,\"row\":2,\"col\":3,\"value\":9,\"note\":\"x\"}"));
+    }
+
+    @Test
+    void decodesEscapedKeysAndType() throws MessageDecodeException {
+        assertEquals(new CellChange(7, 2, 3, 9), decoder.decode(
+                "{\"\\u0074ype\":\"send\\u0043ellChange\",\"puzzle\\u0049d\":7,\"row\":2,\"col\":3,\"value\":9}"));
+    }
+
+    @Test
+    void decodesEscapedStrings() throws MessageDecodeException {
+        SendChat chat = (SendChat) decoder.decode("{\"type\":\"sendChat\",\"message\":{\"puzzleId\":4,"
+                + "\"user\":\"a\\\"b\",\"color\":\"#fff\",\"text\":\"line\\nnext \\u00e9\"}}");
+        assertEquals(new SendChat(4, "a\"b", "#fff", "line\nnext \u00e9"), chat);
+    }
+
+    @Test
+    void decodesNestedPosition() throws MessageDecodeException {
+        assertEquals(new PlayerPosition(UUID.fromString(CLIENT_ID), 8, 0), decoder.decode(
+                "{\"type\":\"sendPlayerPosition\",\"clientId\":\"" + CLIENT_ID + "\",\"position\":{\"row\":8,\"col\":0}}"));
+    }
+
+    @Test
+    void treatsNullAsMissing() throws MessageDecodeException {
+        assertRejected("{\"type\":\"sendCellChange\",\"puzzleId\":7,\"row\":null,\"col\":3,\"value\":9}",
+                "Missing field 'row'");
+        assertRejected("{\"type\":null,\"puzzleId\":7}", "Missing field 'type'");
+        assertRejected("{\"type\":\"fetchIdentity\",\"clientId\":null}", "Missing field 'clientId'");
+        assertEquals(new FetchPuzzles(0, 0, null, null, null),
+                decoder.decode("{\"type\":\"fetchPuzzles\",\"cursor\":null,\"difficulty\":null}"));
+    }
+
+    @Test
+    void rejectsNonIntegerNumbers() {
+        assertRejected("{\"type\":\"fetchChat\",\"puzzleId\":1.0}", "Expected an integer");
+        assertRejected("{\"type\":\"fetchChat\",\"puzzleId\":1e2}", "Expected an integer");
+        assertRejected("{\"type\":\"fetchChat\",\"puzzleId\":-1E+2}", "Expected an integer");
+    }
+
+    @Test
+    void rejectsQuotedNumbers() {
+        assertRejected("{\"type\":\"fetchChat\",\"puzzleId\":\"1\"}", "Expected a number");
+    }
+
+    @Test
+    void rejectsIntOverflow() throws MessageDecodeException {
+        assertEquals(new InboundMessage.FetchChat(Integer.MAX_VALUE),
+                decoder.decode("{\"type\":\"fetchChat\",\"puzzleId\":2147483647}"));
+        assertRejected("{\"type\":\"fetchChat\",\"puzzleId\":2147483648}", "Integer out of range");
+        assertRejected("{\"type\":\"fetchChat\",\"puzzleId\":-2147483649}", "Integer out of range");
+        assertRejected("{\"type\":\"fetchChat\",\"puzzleId\":99999999999999999999999}", "Integer out of range");
+        assertRejected("{\"type\":\"fetchChat\",\"puzzleId\":-2147483648}", "Field 'puzzleId' out of range");
+    }
+
+    @Test
+    void rejectsTrailingContent() throws MessageDecodeException {
+        assertNotNull(decoder.decode(" {\"type\":\"fetchChat\",\"puzzleId\":1} \n"));
+        assertRejected("{\"type\":\"fetchChat\",\"puzzleId\":1}x", "Unexpected content after message");
+        assertRejected("{\"type\":\"fetchChat\",\"puzzleId\":1}{}", "Unexpected content after message");
+    }
+
+    @Test
+    void rejectsBadEscapes() {
+        assertRejected("{\"type\":\"sendChat\",\"message\":{\"text\":\"\\u12G4\"}}", "Invalid unicode escape");
+        assertRejected("{\"type\":\"sendChat\",\"message\":{\"text\":\"\\u12\"}}", "Invalid unicode escape");
+        assertRejected("{\"type\":\"sendChat\",\"message\":{\"text\":\"\\u12", "Unterminated string");
+        assertRejected("{\"type\":\"sendChat\",\"message\":{\"text\":\"\\x\"}}", "Invalid escape");
+    }
+
+    @Test
+    void limitsNestingOfSkippedValues() throws MessageDecodeException {
+        assertNotNull(decoder.decode("{\"type\":\"fetchChat\",\"puzzleId\":1,\"extra\":" + nested(33) + "}"));
+        assertRejected("{\"type\":\"fetchChat\",\"puzzleId\":1,\"extra\":" + nested(34) + "}",
+                "Message nested too deeply");
+    }
+
+    @Test
+    void rejectsMalformedFrames() {
+        assertRejected("", "Unexpected end of message");
+        assertRejected("[]", "Expected '{'");
+        assertRejected("{\"type\":\"fetchChat\",\"puzzleId\":1", "Unexpected end of message");
+        assertRejected("{\"type\":\"noSuchType\"}", "Unknown message type: noSuchType");
+        assertRejected("{\"puzzleId\":1}", "Missing field 'type'");
+        assertRejected("{\"type\":\"fetchIdentity\",\"clientId\":\"not-a-uuid\"}", "is not a UUID");
+    }
+
+    @Test
+    void checksCellBounds() throws MessageDecodeException {
+        assertEquals(new CellChange(1, 0, 8, 0), decoder.decode(cellChange(1, 0, 8, 0)));
+        assertEquals(new CellChange(1, 8, 0, 9), decoder.decode(cellChange(1, 8, 0, 9)));
+        assertRejected(cellChange(0, 0, 0, 1), "Field 'puzzleId' out of range: 0");
+        assertRejected(cellChange(1, -1, 0, 1), "Field 'row' out of range: -1");
+        assertRejected(cellChange(1, 9, 0, 1), "Field 'row' out of range: 9");
+        assertRejected(cellChange(1, 0, -1, 1), "Field 'col' out of range: -1");
+        assertRejected(cellChange(1, 0, 9, 1), "Field 'col' out of range: 9");
+        assertRejected(cellChange(1, 0, 0, -1), "Field 'value' out of range: -1");
+        assertRejected(cellChange(1, 0, 0, 10), "Field 'value' out of range: 10");
+    }
+
+    @Test
+    void checksCandidateBounds() throws MessageDecodeException {
+        assertEquals(new CandidateToggle(1, 4, 4, 1), decoder.decode(candidateToggle(1)));
+        assertEquals(new CandidateToggle(1, 4, 4, 9), decoder.decode(candidateToggle(9)));
+        assertRejected(candidateToggle(0), "Field 'candidate' out of range: 0");
+        assertRejected(candidateToggle(10), "Field 'candidate' out of range: 10");
+    }
+
+    @Test
+    void checksPositionBounds() {
+        String frame = "{\"type\":\"sendPlayerPosition\",\"clientId\":\"" + CLIENT_ID + "\",\"position\":";
+        assertRejected(frame + "{\"row\":9,\"col\":0}}", "Field 'position.row' out of range: 9");
+        assertRejected(frame + "{\"row\":0,\"col\":-1}}", "Field 'position.col' out of range: -1");
+        assertRejected(frame + "{\"row\":0}}", "Missing field 'position.col'");
+    }
+
+    private static String cellChange(int puzzleId, int row, int col, int value) {
+        return "{\"type\":\"sendCellChange\",\"puzzleId\":" + puzzleId + ",\"row\":" + row + ",\"col\":" + col
+                + ",\"value\":" + value + "}";
+    }
+
+    private static String candidateToggle(int candidate) {
+        return "{\"type\":\"sendCandidateToggle\",\"puzzleId\":1,\"row\":4,\"col\":4,\"candidate\":" + candidate + "}";
+    }
+
+    private static String nested(int depth) {
+        return "[".repeat(depth) + "]".repeat(depth);
+    }
+
+    private void assertRejected(String frame, String message) {
+        MessageDecodeException e = assertThrows(MessageDecodeException.class, () -> decoder.decode(frame));
+        assertTrue(e.getMessage().contains(message), () -> "Expected '" + message + "' but got: " + e.getMessage());
+    }
+}
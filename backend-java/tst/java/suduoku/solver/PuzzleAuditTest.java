@@ -0,0 +1,67 @@
+package suduoku.solver;
+
+import org.junit.jupiter.api.Test;
+
+import suduoku.Board.BoardSerializer;
+import suduoku.solver.PuzzleAudit.Finding;
+import suduoku.solver.PuzzleAudit.Problem;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static suduoku.solver.SudokuSolverTest.PUZZLE;
+import static suduoku.solver.SudokuSolverTest.SOLUTION;
+
+class PuzzleAuditTest {
+    private static final String SDX = BoardSerializer.convertValuesToSDX(PUZZLE, new byte[81]);
+
+    @Test
+    void passesSoundPuzzle() {
+        assertNull(PuzzleAudit.audit(1, SDX, BoardSerializer.convertValuesToSDX(PUZZLE, SOLUTION)));
+    }
+
+    @Test
+    void ignoresPlayerEntriesInSdx() {
+        byte[] entries = new byte[81];
+        entries[0] = 9;
+
+        assertNull(PuzzleAudit.audit(1, BoardSerializer.convertValuesToSDX(PUZZLE, entries),
+                BoardSerializer.convertValuesToSDX(PUZZLE, SOLUTION)));
+    }
+
+    @Test
+    void findsMissingSolution() {
+        Finding finding = PuzzleAudit.audit(1, SDX, null);
+
+        assertEquals(Problem.MISSING_SOLUTION, finding.problem());
+        assertArrayEquals(SOLUTION, finding.solution());
+    }
+
+    @Test
+    void findsWrongSolution() {
+        byte[] wrong = SOLUTION.clone();
+        wrong[0] = SOLUTION[1];
+        wrong[1] = SOLUTION[0];
+
+        Finding finding = PuzzleAudit.audit(1, SDX, BoardSerializer.convertValuesToSDX(PUZZLE, wrong));
+
+        assertEquals(Problem.WRONG_SOLUTION, finding.problem());
+        assertArrayEquals(SOLUTION, finding.solution());
+    }
+
+    @Test
+    void findsUnsolvablePuzzle() {
+        byte[] givens = PUZZLE.clone();
+        givens[0] = 4;
+
+        Finding finding = PuzzleAudit.audit(1, BoardSerializer.convertValuesToSDX(givens, new byte[81]), null);
+
+        assertEquals(Problem.NO_SOLUTION, finding.problem());
+        assertNull(finding.solution());
+    }
+
+    @Test
+    void findsMultipleSolutions() {
+        Finding finding = PuzzleAudit.audit(1, BoardSerializer.convertValuesToSDX(new byte[81], new byte[81]), null);
+
+        assertEquals(Problem.MULTIPLE_SOLUTIONS, finding.problem());
+    }
+}
@@ -0,0 +1,105 @@
+package suduoku.solver;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SudokuSolverTest {
+    static final byte[] PUZZLE = cells(
+            "040365008008040615659000000080506071107080063026700040865009000000830400400007902");
+    static final byte[] SOLUTION = cells(
+            "241365798738942615659178324384596271197284563526713849865429137972831456413657982");
+
+    @Test
+    void solvesUniquePuzzle() {
+        SolveResult result = SudokuSolver.solve(PUZZLE);
+
+        assertTrue(result.isUnique());
+        assertEquals(1, result.solutionCount());
+        assertArrayEquals(SOLUTION, result.solution());
+        assertTrue(SudokuSolver.isValidSolution(result.solution()));
+    }
+
+    @Test
+    void stopsAtLimitOnEmptyGrid() {
+        SolveResult result = SudokuSolver.solve(new byte[81], 2);
+
+        assertEquals(2, result.solutionCount());
+        assertTrue(result.isSolvable());
+        assertFalse(result.isUnique());
+        assertTrue(SudokuSolver.isValidSolution(result.solution()));
+    }
+
+    @Test
+    void findsNoSolutionForClashingGivens() {
+        byte[] givens = new byte[81];
+        givens[0] = 5;
+        givens[8] = 5;
+
+        SolveResult result = SudokuSolver.solve(givens);
+
+        assertEquals(0, result.solutionCount());
+        assertFalse(result.isSolvable());
+        assertNull(result.solution());
+    }
+
+    @Test
+    void findsNoSolutionForContradictoryGivens() {
+        // No two givens clash, but the last cell of the first row can only be 9 and its column has one
+        byte[] givens = cells("123456780" + "000000000".repeat(3) + "000000009" + "000000000".repeat(4));
+
+        assertEquals(0, SudokuSolver.solve(givens).solutionCount());
+    }
+
+    @Test
+    void acceptsValidSolution() {
+        assertTrue(SudokuSolver.isValidSolution(SOLUTION));
+    }
+
+    @Test
+    void rejectsDuplicateInRow() {
+        // Swapping two cells of a column keeps the column valid but repeats digits in both rows
+        byte[] values = SOLUTION.clone();
+        values[0] = SOLUTION[9];
+        values[9] = SOLUTION[0];
+
+        assertFalse(SudokuSolver.isValidSolution(values));
+    }
+
+    @Test
+    void rejectsDuplicateInColumn() {
+        // Swapping two cells of a row keeps the row valid but repeats digits in both columns
+        byte[] values = SOLUTION.clone();
+        values[0] = SOLUTION[3];
+        values[3] = SOLUTION[0];
+
+        assertFalse(SudokuSolver.isValidSolution(values));
+    }
+
+    @Test
+    void rejectsDuplicateInBox() {
+        // Rows 0 and 3 swapped: every row and column still holds each digit once, but the boxes do not
+        byte[] values = SOLUTION.clone();
+        System.arraycopy(SOLUTION, 27, values, 0, 9);
+        System.arraycopy(SOLUTION, 0, values, 27, 9);
+
+        assertFalse(SudokuSolver.isValidSolution(values));
+    }
+
+    @Test
+    void rejectsIncompleteGrid() {
+        byte[] values = SOLUTION.clone();
+        values[40] = 0;
+
+        assertFalse(SudokuSolver.isValidSolution(values));
+        assertFalse(SudokuSolver.isValidSolution(new byte[80]));
+    }
+
+    static byte[] cells(String digits) {
+        byte[] cells = new byte[digits.length()];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = (byte) (digits.charAt(i) - '0');
+        }
+        return cells;
+    }
+}
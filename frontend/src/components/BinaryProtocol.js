@@ -0,0 +1,174 @@
+/**
+ * Binary WebSocket sub-protocol for high-frequency messages
+ * Frame layouts match the server's BinaryCodec: a one-byte opcode, big-endian
+ * integers and cells sent as a single index (row * 9 + col). Messages without a
+ * binary form are still sent and received as JSON text frames.
+ */
+
+export const BINARY_SUBPROTOCOL = "suduoku.bin.v1";
+export const JSON_SUBPROTOCOL = "suduoku.json.v1";
+
+const CELL_CHANGE = 0x01;
+const CANDIDATE_TOGGLE = 0x02;
+const INCORRECT_CELLS_UPDATE = 0x03;
+const PLAYER_POSITION = 0x04;
+
+const CELL_DELTA = 0x81;
+const PLAYER_POSITIONS = 0x82;
+const BOARD = 0x83;
+const CHANGED_POSITIONS = 0x84;
+
+const NO_CELL = 0xff;
+const EDITABLE = 0x80;
+
+const textDecoder = new TextDecoder();
+
+const cellIndex = (row, col) => row * 9 + col;
+
+const maskToCandidates = (mask) => {
+  const candidates = [];
+  for (let candidate = 1; candidate <= 9; candidate++) {
+    if (mask & (1 << (candidate - 1))) {
+      candidates.push(candidate);
+    }
+  }
+  return candidates;
+};
+
+const cellFrame = (opcode, length, message) => {
+  const view = new DataView(new ArrayBuffer(length));
+  view.setUint8(0, opcode);
+  view.setInt32(1, message.puzzleId);
+  view.setUint8(5, cellIndex(message.row, message.col));
+  return view;
+};
+
+const uuidToBytes = (uuid) => {
+  const hex = typeof uuid === "string" ? uuid.replace(/-/g, "") : "";
+  if (!/^[0-9a-fA-F]{32}$/.test(hex)) {
+    return null;
+  }
+  const bytes = new Uint8Array(16);
+  for (let i = 0; i < 16; i++) {
+    bytes[i] = parseInt(hex.substr(i * 2, 2), 16);
+  }
+  return bytes;
+};
+
+/**
+ * Encodes an outgoing message as a binary frame
+ * Returns null for messages that have no binary form, which are sent as JSON
+ */
+export const encodeMessage = (message) => {
+  switch (message.type) {
+    case "sendCellChange": {
+      const view = cellFrame(CELL_CHANGE, 7, message);
+      view.setUint8(6, message.value);
+      return view.buffer;
+    }
+    case "sendCandidateToggle": {
+      const view = cellFrame(CANDIDATE_TOGGLE, 7, message);
+      view.setUint8(6, message.candidate);
+      return view.buffer;
+    }
+    case "sendIncorrectCellsUpdate":
+      return cellFrame(INCORRECT_CELLS_UPDATE, 6, message).buffer;
+    case "sendPlayerPosition": {
+      const clientId = uuidToBytes(message.clientId);
+      if (!clientId) {
+        return null;
+      }
+      const frame = new Uint8Array(18);
+      frame[0] = PLAYER_POSITION;
+      frame.set(clientId, 1);
+      frame[17] = cellIndex(message.position.row, message.position.col);
+      return frame.buffer;
+    }
+    default:
+      return null;
+  }
+};
+
+const decodeCellDelta = (view) => {
+  const cell = view.getUint8(13);
+  return {
+    type: "cellDelta",
+    puzzleId: view.getInt32(1),
+    version: Number(view.getBigInt64(5)),
+    row: Math.floor(cell / 9),
+    col: cell % 9,
+    value: view.getUint8(14),
+    candidates: view.getUint16(15),
+  };
+};
+
+const decodePlayerPositions = (view, type) => {
+  const count = view.getUint16(1);
+  const positions = [];
+  let offset = 3;
+  for (let i = 0; i < count; i++) {
+    const cell = view.getUint8(offset);
+    const color = (view.getUint8(offset + 1) << 16) | view.getUint16(offset + 2);
+    const nameLength = view.getUint8(offset + 4);
+    const name = textDecoder.decode(
+      new Uint8Array(view.buffer, view.byteOffset + offset + 5, nameLength),
+    );
+    positions.push({
+      name,
+      color: "#" + color.toString(16).padStart(6, "0"),
+      position:
+        cell === NO_CELL
+          ? { row: -1, col: -1 }
+          : { row: Math.floor(cell / 9), col: cell % 9 },
+    });
+    offset += 5 + nameLength;
+  }
+  return { type, positions };
+};
+
+const decodeBoard = (view) => {
+  const board = [];
+  let offset = 13;
+  for (let row = 0; row < 9; row++) {
+    const cells = [];
+    for (let col = 0; col < 9; col++) {
+      const value = view.getUint8(offset) & ~EDITABLE;
+      cells.push({
+        value: value === 0 ? "" : value,
+        isEditable: (view.getUint8(offset) & EDITABLE) !== 0,
+        candidates: maskToCandidates(view.getUint16(offset + 1)),
+      });
+      offset += 3;
+    }
+    board.push(cells);
+  }
+  const titleLength = view.getUint16(offset);
+  return {
+    type: "updatePuzzle",
+    puzzleId: view.getInt32(1),
+    version: Number(view.getBigInt64(5)),
+    board,
+    title: textDecoder.decode(
+      new Uint8Array(view.buffer, view.byteOffset + offset + 2, titleLength),
+    ),
+  };
+};
+
+/**
+ * Decodes an incoming binary frame into the same shape as its JSON message
+ */
+export const decodeMessage = (buffer) => {
+  const view = new DataView(buffer);
+  switch (view.getUint8(0)) {
+    case CELL_DELTA:
+      return decodeCellDelta(view);
+    case PLAYER_POSITIONS:
+      return decodePlayerPositions(view, "updatePlayerPositions");
+    case CHANGED_POSITIONS:
+      return decodePlayerPositions(view, "updateChangedPositions");
+    case BOARD:
+      return decodeBoard(view);
+    default:
+      throw new Error(`Unknown binary opcode: ${view.getUint8(0)}`);
+  }
+};
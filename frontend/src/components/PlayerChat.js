@@ -4,6 +4,7 @@ import "../css/PlayerChat.css";
 
 function PlayerChat({
   chatMessages,
+  chatHasMore,
   chatInput,
   setChatInput,
   chatLogRef,
@@ -25,12 +26,27 @@ function PlayerChat({
     }
   };
 
+  const loadEarlierMessages = () => {
+    if (chatMessages.length > 0) {
+      webSocketManager.send({
+        type: "fetchChatHistory",
+        puzzleId: puzzleId,
+        before: chatMessages[0].id,
+      });
+    }
+  };
+
   return (
     <div className="chat-container">
       <div className="chat-box">
         <div className="chat-log" ref={chatLogRef}>
-          {chatMessages.map((msg, index) => (
-            <div key={index}>
+          {chatHasMore && (
+            <button className="load-earlier" onClick={loadEarlierMessages}>
+              Load earlier messages
+            </button>
+          )}
+          {chatMessages.map((msg) => (
+            <div key={msg.id}>
               <strong style={{ color: msg.color || "#000" }}>
                 {msg.user}:
               </strong>
@@ -1,35 +1,114 @@
-import React, { useState, useEffect } from "react";
+import React, { useState, useEffect, useRef } from "react";
 import { useNavigate } from "react-router-dom";
 import Header from "./Header";
 import webSocketManager from "./WebSocketManager";
 import "../css/PuzzleSelection.css";
 
+// Last catalog page set received, kept across lobby visits so an unchanged first page
+// only costs a "puzzlesNotModified" reply. The ETag is the first page's own.
+const catalogCache = {
+  etag: null,
+  difficulty: "",
+  status: "",
+  firstPage: [],
+  firstNextCursor: null,
+  puzzles: [],
+  nextCursor: null,
+};
+
 function PuzzleSelection() {
   const [puzzles, setPuzzles] = useState([]);
-  const [allPuzzles, setAllPuzzles] = useState([]); // Store all puzzles for client-side filtering
+  const [allPuzzles, setAllPuzzles] = useState(
+    catalogCache.etag ? catalogCache.puzzles : [],
+  ); // Pages loaded so far, searched on the client
+  const [nextCursor, setNextCursor] = useState(catalogCache.nextCursor);
   const navigate = useNavigate();
   const [searchFilter, setSearchFilter] = useState("");
-  const [difficultyFilter, setDifficultyFilter] = useState("");
+  const [difficultyFilter, setDifficultyFilter] = useState(
+    catalogCache.difficulty,
+  );
+  const [statusFilter, setStatusFilter] = useState(catalogCache.status);
 
-  const [loadedPuzzles, setLoadedPuzzles] = useState(false);
+  const [loadedPuzzles, setLoadedPuzzles] = useState(
+    catalogCache.etag !== null,
+  );
+  const requestedCursorRef = useRef(0);
 
   useEffect(() => {
     const handleMessage = (data) => {
       if (data.type === "puzzles") {
-        setPuzzles(data.puzzles);
-        setAllPuzzles(data.puzzles); // Store all puzzles for filtering
+        if (data.cursor !== requestedCursorRef.current) {
+          return; // A reply to a request the filters have since replaced
+        }
+        const loaded =
+          data.cursor === 0
+            ? data.puzzles
+            : catalogCache.puzzles.concat(data.puzzles);
+        if (data.cursor === 0) {
+          catalogCache.etag = data.etag;
+          catalogCache.firstPage = data.puzzles;
+          catalogCache.firstNextCursor = data.nextCursor;
+        }
+        catalogCache.puzzles = loaded;
+        catalogCache.nextCursor = data.nextCursor;
+        setAllPuzzles(loaded);
+        setNextCursor(data.nextCursor);
         setLoadedPuzzles(true); // Set loadedPuzzles to true when puzzles are received
+      } else if (data.type === "puzzlesNotModified") {
+        if (data.cursor !== requestedCursorRef.current) {
+          return;
+        }
+        // Only the first page is known to be current; later pages are fetched again
+        catalogCache.puzzles = catalogCache.firstPage;
+        catalogCache.nextCursor = catalogCache.firstNextCursor;
+        setAllPuzzles(catalogCache.firstPage);
+        setNextCursor(catalogCache.firstNextCursor);
+        setLoadedPuzzles(true);
       }
     };
 
     webSocketManager.addListener(handleMessage);
-    webSocketManager.send({ type: "fetchPuzzles" });
 
     return () => {
       webSocketManager.removeListener(handleMessage);
     };
   }, []);
 
+  // Fetch the first page whenever a server-side filter changes
+  useEffect(() => {
+    const cached =
+      catalogCache.difficulty === difficultyFilter &&
+      catalogCache.status === statusFilter;
+    if (!cached) {
+      catalogCache.etag = null;
+      catalogCache.difficulty = difficultyFilter;
+      catalogCache.status = statusFilter;
+      catalogCache.firstPage = [];
+      catalogCache.firstNextCursor = null;
+      catalogCache.puzzles = [];
+      catalogCache.nextCursor = null;
+      setAllPuzzles([]);
+      setNextCursor(null);
+    }
+    requestedCursorRef.current = 0;
+    webSocketManager.send({
+      type: "fetchPuzzles",
+      difficulty: difficultyFilter || null,
+      status: statusFilter || null,
+      etag: cached ? catalogCache.etag : null,
+    });
+  }, [difficultyFilter, statusFilter]);
+
+  const loadMorePuzzles = () => {
+    requestedCursorRef.current = nextCursor;
+    webSocketManager.send({
+      type: "fetchPuzzles",
+      difficulty: difficultyFilter || null,
+      status: statusFilter || null,
+      cursor: nextCursor,
+    });
+  };
+
   const handlePuzzleSelect = (puzzleId) => {
     navigate(`/puzzle/${puzzleId}`);
   };
@@ -37,15 +116,6 @@ function PuzzleSelection() {
   useEffect(() => {
     let filteredResults = [...allPuzzles];
 
-    // Apply difficulty filter
-    if (difficultyFilter) {
-      filteredResults = filteredResults.filter(
-        (puzzle) =>
-          puzzle.difficulty &&
-          puzzle.difficulty.toLowerCase() === difficultyFilter.toLowerCase(),
-      );
-    }
-
     // Apply search filter
     if (searchFilter) {
       const searchLower = searchFilter.toLowerCase();
@@ -56,10 +126,11 @@ function PuzzleSelection() {
     }
 
     setPuzzles(filteredResults);
-  }, [difficultyFilter, searchFilter, allPuzzles]);
+  }, [searchFilter, allPuzzles]);
 
   const resetFilters = () => {
     setDifficultyFilter("");
+    setStatusFilter("");
     setSearchFilter("");
   };
 
@@ -87,6 +158,18 @@ function PuzzleSelection() {
           >
             Hard
           </span>
+          <span
+            className="filter-difficulty-button"
+            onClick={() => setStatusFilter("in progress")}
+          >
+            In Progress
+          </span>
+          <span
+            className="filter-difficulty-button"
+            onClick={() => setStatusFilter("solved")}
+          >
+            Solved
+          </span>
         </div>
         <div className="filter-search">
           <input
@@ -121,10 +204,22 @@ function PuzzleSelection() {
                   <span className="difficulty">
                     {puzzle.difficulty || "Medium"}
                   </span>
-                  <span className="status">{puzzle.status || "New"}</span>
+                  <span className="status">
+                    {puzzle.status === "in progress"
+                      ? `${puzzle.progress}%`
+                      : puzzle.status || "New"}
+                  </span>
                 </div>
               </div>
             ))}
+            {nextCursor && (
+              <div
+                className="puzzle-card load-more-card"
+                onClick={loadMorePuzzles}
+              >
+                <h3>Load more puzzles</h3>
+              </div>
+            )}
           </div>
         )}
       </div>
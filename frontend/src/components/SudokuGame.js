@@ -44,6 +44,7 @@ function SudokuGame() {
 
   const [chatInput, setChatInput] = useState("");
   const [chatMessages, setChatMessages] = useState([]);
+  const [chatHasMore, setChatHasMore] = useState(false);
 
   const [incorrectCells, setIncorrectCells] = useState([]);
   const [puzzleSolved, setPuzzleSolved] = useState(false);
@@ -59,12 +60,12 @@ function SudokuGame() {
 
   const clientId = getOrCreateClientId();
 
-  const { elapsedTime, setElapsedTime, elapsedTimeRef } = useElapsedTime(
+  const { elapsedTime, syncElapsedTime } = useElapsedTime(
     puzzleSolved,
     puzzleId,
   );
 
-  const { handleCellChange } = useCellChange(puzzleId, elapsedTimeRef);
+  const { handleCellChange } = useCellChange(puzzleId);
   const { handleCandidateToggle } = useCandidateToggle(puzzleId);
   const { handleCheckSolution, handleClearBoard } =
     useBoardOperations(puzzleId);
@@ -95,20 +96,24 @@ function SudokuGame() {
     setPlayerPositions,
     setClientInfo,
     setChatMessages,
+    setChatHasMore,
     setIncorrectCells,
     setPuzzleSolved,
-    setElapsedTime,
+    syncElapsedTime,
   );
 
   usePlayerPosition(focusedCell, clientId, puzzleId);
   usePuzzleInitialization(puzzleId, clientId);
 
-  // Chat scroll management
+  // Chat scroll management; loading older messages leaves the scroll position alone
+  const lastChatId = chatMessages.length
+    ? chatMessages[chatMessages.length - 1].id
+    : null;
   React.useEffect(() => {
     if (chatLogRef.current) {
       chatLogRef.current.scrollTop = chatLogRef.current.scrollHeight;
     }
-  }, [chatMessages]);
+  }, [lastChatId]);
 
   // Handle board clearing with proper state updates
   const handleClearBoardWrapper = () => {
@@ -160,6 +165,7 @@ function SudokuGame() {
 
         <PlayerChat
           chatMessages={chatMessages}
+          chatHasMore={chatHasMore}
           chatInput={chatInput}
           setChatInput={setChatInput}
           chatLogRef={chatLogRef}
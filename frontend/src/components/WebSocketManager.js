@@ -1,3 +1,11 @@
+import {
+  BINARY_SUBPROTOCOL,
+  JSON_SUBPROTOCOL,
+  decodeMessage,
+  encodeMessage,
+} from "./BinaryProtocol";
+import { USE_BINARY_PROTOCOL } from "../config/wsConfig";
+
 class WebSocketManager {
   constructor() {
     this.ws = null;
@@ -9,7 +17,10 @@ class WebSocketManager {
 
   connect(url) {
     if (!this.ws || this.ws.readyState === WebSocket.CLOSED) {
-      this.ws = new WebSocket(url);
+      this.ws = USE_BINARY_PROTOCOL
+        ? new WebSocket(url, [BINARY_SUBPROTOCOL, JSON_SUBPROTOCOL])
+        : new WebSocket(url);
+      this.ws.binaryType = "arraybuffer";
 
       this.ws.onopen = () => {
         console.log("Connected to WebSocket server");
@@ -24,7 +35,10 @@ class WebSocketManager {
 
       this.ws.onmessage = (event) => {
         try {
-          const data = JSON.parse(event.data);
+          const data =
+            typeof event.data === "string"
+              ? JSON.parse(event.data)
+              : decodeMessage(event.data);
           this.listeners.forEach((listener) => listener(data));
         } catch (error) {
           console.error("Error parsing message:", error);
@@ -48,8 +62,10 @@ class WebSocketManager {
 
   sendImmediately(message) {
     if (this.ws && this.ws.readyState === WebSocket.OPEN) {
-      const messageString = JSON.stringify(message);
-      this.ws.send(messageString);
+      // Binary sessions send high-frequency messages as binary frames
+      const frame =
+        this.ws.protocol === BINARY_SUBPROTOCOL ? encodeMessage(message) : null;
+      this.ws.send(frame || JSON.stringify(message));
       return true;
     }
     return false;
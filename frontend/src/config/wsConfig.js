@@ -8,3 +8,8 @@ const isDevelopment = false;
 export const WS_URL = isDevelopment
   ? "ws://192.168.4.24:8080/ws"
   : "wss://suduoku-java.onrender.com/ws";
+
+// Negotiate the compact binary protocol for high-frequency messages. Opt-in until it has been
+// measured in production: build with REACT_APP_USE_BINARY_PROTOCOL=true to enable it.
+export const USE_BINARY_PROTOCOL =
+  process.env.REACT_APP_USE_BINARY_PROTOCOL === "true";
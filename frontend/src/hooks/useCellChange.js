@@ -5,7 +5,7 @@ import webSocketManager from "../components/WebSocketManager";
  * Custom hook for handling cell value changes
  * Manages normal mode cell updates
  */
-export const useCellChange = (puzzleId, elapsedTimeRef) => {
+export const useCellChange = (puzzleId) => {
   const handleCellChange = useCallback(
     (row, col, value) => {
       webSocketManager.send({
@@ -20,16 +20,10 @@ export const useCellChange = (puzzleId, elapsedTimeRef) => {
         puzzleId: puzzleId,
         row: row,
         col: col,
-        value: value || 0,
-      });
-
-      webSocketManager.send({
-        type: "sendElapsedTime",
-        puzzleId: puzzleId,
-        elapsedTime: elapsedTimeRef.current,
+        value: Number(value) || 0,
       });
     },
-    [puzzleId, elapsedTimeRef],
+    [puzzleId],
   );
 
   return { handleCellChange };
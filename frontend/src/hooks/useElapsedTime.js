@@ -1,35 +1,43 @@
-import { useState, useEffect, useRef } from "react";
+import { useState, useEffect, useRef, useCallback } from "react";
 
 /**
- * Custom hook for managing elapsed time timer
- * Handles timer initialization, stopping, and state syncing with ref
+ * Custom hook for displaying the room clock
+ * The server owns elapsed time; between its periodic syncs the clock is interpolated locally
  */
 export const useElapsedTime = (puzzleSolved, puzzleId) => {
   const [elapsedTime, setElapsedTime] = useState(0);
-  const timerRef = useRef(null);
-  const elapsedTimeRef = useRef(elapsedTime);
+  const syncRef = useRef({ elapsedTime: 0, receivedAt: Date.now(), running: false });
 
-  // Keep elapsedTimeRef in sync with elapsedTime state
-  useEffect(() => {
-    elapsedTimeRef.current = elapsedTime;
-  }, [elapsedTime]);
+  // Apply an authoritative reading from the server
+  const syncElapsedTime = useCallback((serverElapsedTime, running) => {
+    syncRef.current = {
+      elapsedTime: serverElapsedTime,
+      receivedAt: Date.now(),
+      running: running,
+    };
+    setElapsedTime(serverElapsedTime);
+  }, []);
 
-  // Timer interval management
+  // Interpolate between syncs while the clock is running
   useEffect(() => {
-    if (!puzzleSolved) {
-      timerRef.current = setInterval(() => {
-        setElapsedTime((prev) => prev + 1);
-      }, 1000);
-    } else if (timerRef.current) {
-      clearInterval(timerRef.current);
+    if (puzzleSolved) {
+      return undefined;
     }
-    return () => clearInterval(timerRef.current);
+    const timer = setInterval(() => {
+      const sync = syncRef.current;
+      if (sync.running) {
+        const drift = Math.floor((Date.now() - sync.receivedAt) / 1000);
+        setElapsedTime(sync.elapsedTime + drift);
+      }
+    }, 1000);
+    return () => clearInterval(timer);
   }, [puzzleSolved]);
 
   // Reset timer when puzzle changes
   useEffect(() => {
+    syncRef.current = { elapsedTime: 0, receivedAt: Date.now(), running: false };
     setElapsedTime(0);
   }, [puzzleId]);
 
-  return { elapsedTime, setElapsedTime, elapsedTimeRef };
+  return { elapsedTime, syncElapsedTime };
 };
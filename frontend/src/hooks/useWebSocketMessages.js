@@ -1,8 +1,21 @@
-import { useEffect } from "react";
+import { useEffect, useRef } from "react";
 import { useNavigate } from "react-router-dom";
 import webSocketManager from "../components/WebSocketManager";
 import { WS_URL } from "../config/wsConfig";
 
+/**
+ * Expands a candidate bitmask (bit n - 1 set for candidate n) to a sorted array
+ */
+const maskToCandidates = (mask) => {
+  const candidates = [];
+  for (let candidate = 1; candidate <= 9; candidate++) {
+    if (mask & (1 << (candidate - 1))) {
+      candidates.push(candidate);
+    }
+  }
+  return candidates;
+};
+
 /**
  * Custom hook for WebSocket message handling
  * Manages all incoming WebSocket events and state updates
@@ -15,18 +28,30 @@ export const useWebSocketMessages = (
   setPlayerPositions,
   setClientInfo,
   setChatMessages,
+  setChatHasMore,
   setIncorrectCells,
   setPuzzleSolved,
-  setElapsedTime,
+  syncElapsedTime,
 ) => {
   const navigate = useNavigate();
+  const boardVersionRef = useRef(-1);
+  const resyncPendingRef = useRef(false);
 
   useEffect(() => {
     webSocketManager.connect(WS_URL);
 
+    const requestBoard = () => {
+      if (!resyncPendingRef.current) {
+        resyncPendingRef.current = true;
+        webSocketManager.send({ type: "fetchBoard", puzzleId: puzzleId });
+      }
+    };
+
     const handleMessage = (data) => {
       switch (data.type) {
         case "updatePuzzle":
+          boardVersionRef.current = data.version;
+          resyncPendingRef.current = false;
           setGridData(
             data.board.map((row) =>
               row.map((cell) => ({
@@ -39,6 +64,33 @@ export const useWebSocketMessages = (
           setPuzzleTitle(data.title);
           break;
 
+        case "cellDelta":
+          if (data.version <= boardVersionRef.current) {
+            break;
+          }
+          if (data.version !== boardVersionRef.current + 1) {
+            // Missed an update, fall back to a full snapshot
+            requestBoard();
+            break;
+          }
+          boardVersionRef.current = data.version;
+          setGridData((prev) =>
+            prev.map((row, rowIndex) =>
+              rowIndex !== data.row
+                ? row
+                : row.map((cell, colIndex) =>
+                    colIndex !== data.col
+                      ? cell
+                      : {
+                          ...cell,
+                          value: data.value === 0 ? "" : data.value,
+                          candidates: maskToCandidates(data.candidates),
+                        },
+                  ),
+            ),
+          );
+          break;
+
         case "updatePlayers":
           setPlayers(data.players);
           break;
@@ -49,6 +101,17 @@ export const useWebSocketMessages = (
 
         case "updateChat":
           setChatMessages(data.messages);
+          setChatHasMore(data.hasMore);
+          break;
+
+        case "appendChat":
+          setChatMessages((prev) => [...prev, data.message]);
+          break;
+
+        case "prependChat":
+          // An older page of history, requested from the chat log
+          setChatMessages((prev) => [...data.messages, ...prev]);
+          setChatHasMore(data.hasMore);
           break;
 
         case "updatePuzzleSolved":
@@ -63,8 +126,18 @@ export const useWebSocketMessages = (
           setPlayerPositions(data.positions);
           break;
 
+        case "updateChangedPositions":
+          // Only the players that moved; merge them into the known positions
+          setPlayerPositions((prev) => {
+            const moved = new Map(data.positions.map((p) => [p.name, p]));
+            const merged = prev.map((p) => moved.get(p.name) || p);
+            const known = new Set(prev.map((p) => p.name));
+            return merged.concat(data.positions.filter((p) => !known.has(p.name)));
+          });
+          break;
+
         case "updateElapsedTime":
-          setElapsedTime(data.elapsedTime);
+          syncElapsedTime(data.elapsedTime, data.running);
           break;
 
         case "puzzleNotFound":
@@ -90,9 +163,10 @@ export const useWebSocketMessages = (
     setPlayerPositions,
     setClientInfo,
     setChatMessages,
+    setChatHasMore,
     setIncorrectCells,
     setPuzzleSolved,
-    setElapsedTime,
+    syncElapsedTime,
     navigate,
   ]);
 };